@@ -0,0 +1,69 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradeagent.model.Quote;
+
+/**
+ * Quote parsing cost per response, tree + HashMap (previous FinnhubService) versus the streaming QuoteJson parser
+ * Run with: mvn -Pjmh test-compile exec:exec -Djmh.args="QuoteParsingBenchmark -prof gc"
+ * and compare gc.alloc.rate.norm (bytes per quote) between the two benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuoteParsingBenchmark {
+
+    private static final String BODY =
+            "{\"c\":189.52,\"d\":1.27,\"dp\":0.6746,\"h\":190.13,\"l\":187.22,\"o\":188.01,\"pc\":188.25,\"t\":1700000000}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final byte[] bodyBytes = BODY.getBytes(StandardCharsets.UTF_8);
+
+    @Benchmark
+    public Map<String, Object> treeToHashMap() throws Exception {
+        // Mirrors the former FinnhubService path: body as String, JsonNode tree, boxed BigDecimal values
+        String response = new String(bodyBytes, StandardCharsets.UTF_8);
+        JsonNode jsonNode = objectMapper.readTree(response);
+        Map<String, Object> quote = new HashMap<>();
+        quote.put("symbol", "AAPL");
+        quote.put("currentPrice", round(jsonNode.get("c").asDouble()));
+        quote.put("change", round(jsonNode.get("d").asDouble()));
+        quote.put("changePercent", round(jsonNode.get("dp").asDouble()));
+        quote.put("highPrice", round(jsonNode.get("h").asDouble()));
+        quote.put("lowPrice", round(jsonNode.get("l").asDouble()));
+        quote.put("openPrice", round(jsonNode.get("o").asDouble()));
+        quote.put("previousClose", round(jsonNode.get("pc").asDouble()));
+        quote.put("asOf", System.currentTimeMillis());
+        return quote;
+    }
+
+    @Benchmark
+    public Quote streamingFixedPoint() throws Exception {
+        return QuoteJson.parse(bodyBytes, "AAPL", System.currentTimeMillis());
+    }
+
+    private static BigDecimal round(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
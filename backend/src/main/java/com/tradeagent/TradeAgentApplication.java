@@ -3,13 +3,16 @@ package com.tradeagent;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot Application class for TradeAgent
  * Enables MongoDB auditing for automatic timestamp management
+ * and scheduling for background market data refresh
  */
 @SpringBootApplication
 @EnableMongoAuditing
+@EnableScheduling
 public class TradeAgentApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,68 @@
+package com.tradeagent.config;
+
+import java.util.List;
+
+import org.bson.BsonType;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.result.UpdateResult;
+
+/**
+ * One-off conversion of monetary fields from strings to Decimal128
+ * Balances and average prices are updated with server-side arithmetic, which only works on numeric types.
+ * Runs before any other startup work and is a no-op once every document has been converted.
+ * A failure aborts startup rather than serving trades against documents that cannot be updated.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DecimalMigration implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DecimalMigration.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.decimal-migration.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            UpdateResult users = mongoTemplate.getCollection("users").updateMany(
+                    Filters.type("balance", BsonType.STRING),
+                    List.of(new Document("$set", new Document("balance", new Document("$toDecimal", "$balance")))));
+
+            // Rebuild the map with every value converted; $toDecimal leaves Decimal128 values unchanged
+            Document convertedPrices = new Document("$arrayToObject", new Document("$map", new Document()
+                    .append("input", new Document("$objectToArray", "$averagePrices"))
+                    .append("as", "price")
+                    .append("in", new Document("k", "$$price.k")
+                            .append("v", new Document("$toDecimal", "$$price.v")))));
+            UpdateResult portfolios = mongoTemplate.getCollection("portfolios").updateMany(
+                    Filters.type("averagePrices", BsonType.DOCUMENT),
+                    List.of(new Document("$set", new Document("averagePrices", convertedPrices))));
+
+            if (users.getModifiedCount() > 0 || portfolios.getModifiedCount() > 0) {
+                logger.info("Converted {} user balances and {} portfolios to Decimal128",
+                        users.getModifiedCount(), portfolios.getModifiedCount());
+            }
+        } catch (Exception e) {
+            // Fail startup: the server-side balance and price arithmetic cannot run on unconverted strings
+            logger.error("Failed to convert monetary fields to Decimal128: {}", e.getMessage());
+            throw new IllegalStateException("Decimal128 migration failed", e);
+        }
+    }
+}
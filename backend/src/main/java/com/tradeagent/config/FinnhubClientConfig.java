@@ -0,0 +1,110 @@
+package com.tradeagent.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP client configuration for the Finnhub API
+ * Blocking and async clients both use pooled keep-alive connections with explicit timeouts,
+ * so a slow upstream cannot hold request threads or sockets indefinitely
+ */
+@Configuration
+public class FinnhubClientConfig {
+
+    @Value("${finnhub.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${finnhub.http.read-timeout-ms:3000}")
+    private long readTimeoutMs;
+
+    @Value("${finnhub.http.max-connections:32}")
+    private int maxConnections;
+
+    @Value("${finnhub.http.max-connections-per-route:32}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${finnhub.http.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    @Value("${finnhub.http.connection-ttl-ms:300000}")
+    private long connectionTtlMs;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager finnhubConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(connectionConfig())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient finnhubHttpClient(PoolingHttpClientConnectionManager finnhubConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(finnhubConnectionManager)
+                .setDefaultRequestConfig(requestConfig())
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeoutMs))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate finnhubRestTemplate(CloseableHttpClient finnhubHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(finnhubHttpClient));
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingAsyncClientConnectionManager finnhubAsyncConnectionManager() {
+        return PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(connectionConfig())
+                // Negotiate HTTP/2 over TLS where the server offers it, falling back to HTTP/1.1 keep-alive
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient finnhubAsyncHttpClient(PoolingAsyncClientConnectionManager finnhubAsyncConnectionManager) {
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(finnhubAsyncConnectionManager)
+                .setDefaultRequestConfig(requestConfig())
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleTimeoutMs))
+                .build();
+        client.start();
+        return client;
+    }
+
+    private ConnectionConfig connectionConfig() {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setTimeToLive(TimeValue.ofMilliseconds(connectionTtlMs))
+                .build();
+    }
+
+    private RequestConfig requestConfig() {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.tradeagent.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.tradeagent.service.FinnhubMarketDataProvider;
+import com.tradeagent.service.FinnhubService;
+import com.tradeagent.service.MarketDataProvider;
+import com.tradeagent.service.RecordingMarketDataProvider;
+import com.tradeagent.service.ReplayMarketDataProvider;
+import com.tradeagent.service.SyntheticMarketDataProvider;
+import com.tradeagent.service.SyntheticMarketGenerator;
+
+/**
+ * Market data provider selection
+ * marketdata.provider picks the quote source (finnhub, replay or synthetic); recording can wrap any of them
+ */
+@Configuration
+public class MarketDataProviderConfig {
+
+    @Value("${marketdata.provider:finnhub}")
+    private String provider;
+
+    @Value("${marketdata.recording.enabled:false}")
+    private boolean recordingEnabled;
+
+    @Value("${marketdata.recording.file:market-data-recording.jsonl}")
+    private String recordingFile;
+
+    @Value("${marketdata.replay.file:market-data-recording.jsonl}")
+    private String replayFile;
+
+    @Value("${marketdata.replay.speed:1.0}")
+    private double replaySpeed;
+
+    @Value("${marketdata.replay.loop:true}")
+    private boolean replayLoop;
+
+    @Bean
+    public MarketDataProvider marketDataProvider(FinnhubService finnhubService,
+                                                 SyntheticMarketGenerator syntheticMarketGenerator) throws IOException {
+        MarketDataProvider source;
+        switch (provider) {
+            case "finnhub":
+                source = new FinnhubMarketDataProvider(finnhubService);
+                break;
+            case "replay":
+                source = new ReplayMarketDataProvider(Path.of(replayFile), replaySpeed, replayLoop);
+                break;
+            case "synthetic":
+                source = new SyntheticMarketDataProvider(syntheticMarketGenerator);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown market data provider: " + provider);
+        }
+
+        if (recordingEnabled) {
+            return new RecordingMarketDataProvider(source, Path.of(recordingFile));
+        }
+        return source;
+    }
+}
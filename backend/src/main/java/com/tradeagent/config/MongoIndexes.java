@@ -0,0 +1,61 @@
+package com.tradeagent.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import com.tradeagent.model.Portfolio;
+import com.tradeagent.model.RestingOrder;
+import com.tradeagent.model.Transaction;
+
+/**
+ * Explicit creation of the indexes the trading code relies on
+ * Automatic index creation is off, so @Indexed annotations alone create nothing. Runs right after DecimalMigration;
+ * a failure aborts startup, since a missing unique index would let a resting order fill twice or a user own two portfolios.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class MongoIndexes implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexes.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.mongo-indexes.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ensureIndexes();
+        } catch (Exception e) {
+            logger.error("Failed to create MongoDB indexes: {}", e.getMessage());
+            throw new IllegalStateException("MongoDB index creation failed", e);
+        }
+    }
+
+    /**
+     * Create every index; creating one that already exists is a no-op
+     */
+    void ensureIndexes() {
+        // At most one transaction per resting order; also serves startup reconciliation lookups
+        mongoTemplate.indexOps(Transaction.class)
+                .ensureIndex(new Index("restingOrderId", Sort.Direction.ASC).unique().sparse());
+        // One portfolio per user; a second one would make every lookup by user ambiguous
+        mongoTemplate.indexOps(Portfolio.class).ensureIndex(new Index("user", Sort.Direction.ASC).unique());
+        mongoTemplate.indexOps(RestingOrder.class).ensureIndex(new Index("userId", Sort.Direction.ASC));
+        mongoTemplate.indexOps(RestingOrder.class).ensureIndex(new Index("status", Sort.Direction.ASC));
+    }
+}
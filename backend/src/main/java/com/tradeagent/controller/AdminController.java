@@ -2,6 +2,7 @@ package com.tradeagent.controller;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -15,9 +16,29 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.tradeagent.model.User;
+import com.tradeagent.service.BulkQuoteFetcher;
+import com.tradeagent.service.CandleAggregator;
+import com.tradeagent.service.CompanyProfileCache;
+import com.tradeagent.service.FinnhubRateLimiter;
+import com.tradeagent.service.FinnhubService;
+import com.tradeagent.service.MarketDataProvider;
+import com.tradeagent.service.MarketDataRefresher;
+import com.tradeagent.service.OrderEntryService;
+import com.tradeagent.service.OrderExecutionPipeline;
+import com.tradeagent.service.OrderSequencer;
+import com.tradeagent.service.PriceBook;
+import com.tradeagent.service.PriceStreamService;
+import com.tradeagent.service.QuoteCache;
+import com.tradeagent.service.QuoteRequestCoalescer;
+import com.tradeagent.service.RestingOrderBook;
+import com.tradeagent.service.StockGroupIndex;
+import com.tradeagent.service.StockPriceWriter;
+import com.tradeagent.service.StockSearchIndex;
+import com.tradeagent.service.StockSnapshotCache;
 import com.tradeagent.service.UserService;
 
 import jakarta.validation.Valid;
@@ -35,6 +56,63 @@ public class AdminController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private QuoteCache quoteCache;
+    
+    @Autowired
+    private BulkQuoteFetcher bulkQuoteFetcher;
+    
+    @Autowired
+    private QuoteRequestCoalescer quoteRequestCoalescer;
+    
+    @Autowired
+    private PriceBook priceBook;
+    
+    @Autowired
+    private MarketDataRefresher marketDataRefresher;
+    
+    @Autowired
+    private FinnhubRateLimiter finnhubRateLimiter;
+    
+    @Autowired
+    private FinnhubService finnhubService;
+    
+    @Autowired
+    private MarketDataProvider marketDataProvider;
+    
+    @Autowired
+    private CandleAggregator candleAggregator;
+    
+    @Autowired
+    private CompanyProfileCache companyProfileCache;
+    
+    @Autowired
+    private PriceStreamService priceStreamService;
+    
+    @Autowired
+    private StockSnapshotCache stockSnapshotCache;
+    
+    @Autowired
+    private StockSearchIndex stockSearchIndex;
+    
+    @Autowired
+    private StockGroupIndex stockGroupIndex;
+    
+    @Autowired
+    private StockPriceWriter stockPriceWriter;
+    
+    @Autowired
+    private OrderExecutionPipeline orderExecutionPipeline;
+    
+    @Autowired
+    private OrderSequencer orderSequencer;
+    
+    @Autowired
+    private OrderEntryService orderEntryService;
+    
+    @Autowired
+    private RestingOrderBook restingOrderBook;
+    
     /**
      * Get all users (admin only)
      * @return list of all users
@@ -115,6 +193,46 @@ public class AdminController {
         }
     }
     
+    /**
+     * Get market data pipeline metrics (admin only)
+     * @return metrics grouped by component
+     */
+    @GetMapping("/market-data/metrics")
+    public ResponseEntity<?> getMarketDataMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("quoteCache", quoteCache.getStats());
+        metrics.put("bulkQuoteFetcher", bulkQuoteFetcher.getStats());
+        metrics.put("quoteRequestCoalescer", quoteRequestCoalescer.getStats());
+        metrics.put("priceBook", priceBook.getStats());
+        metrics.put("marketDataRefresher", marketDataRefresher.getStats());
+        metrics.put("finnhubRateLimiter", finnhubRateLimiter.getStats());
+        metrics.put("finnhubResilience", finnhubService.getStats());
+        metrics.put("marketDataProvider", Map.of("name", marketDataProvider.getName(),
+                "stats", marketDataProvider.getStats()));
+        metrics.put("candleAggregator", candleAggregator.getStats());
+        metrics.put("companyProfileCache", companyProfileCache.getStats());
+        metrics.put("priceStream", priceStreamService.getStats());
+        metrics.put("stockSnapshots", stockSnapshotCache.getStats());
+        metrics.put("stockSearch", stockSearchIndex.getStats());
+        metrics.put("stockGroups", stockGroupIndex.getStats());
+        metrics.put("stockPriceWriter", stockPriceWriter.getStats());
+        metrics.put("orderExecution", orderExecutionPipeline.getStats());
+        metrics.put("orderSequencer", orderSequencer.getStats());
+        metrics.put("orderEntry", orderEntryService.getStats());
+        metrics.put("restingOrders", restingOrderBook.getStats());
+        return ResponseEntity.ok(metrics);
+    }
+    
+    /**
+     * Get per-subscriber lag of the price stream (admin only)
+     * @param limit the maximum number of subscribers to list
+     * @return subscribers, most lagging first
+     */
+    @GetMapping("/market-data/stream/subscribers")
+    public ResponseEntity<?> getStreamSubscribers(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(priceStreamService.getSubscriberStats(limit));
+    }
+    
     /**
      * Balance update request DTO
      */
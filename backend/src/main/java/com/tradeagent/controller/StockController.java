@@ -1,20 +1,40 @@
 package com.tradeagent.controller;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.tradeagent.model.Candle;
+import com.tradeagent.model.CompanyProfile;
 import com.tradeagent.model.Stock;
+import com.tradeagent.security.StreamTicketService;
+import com.tradeagent.service.CandleAggregator;
+import com.tradeagent.service.CandleInterval;
+import com.tradeagent.service.CompanyProfileCache;
+import com.tradeagent.service.PriceStreamService;
+import com.tradeagent.service.StockGroupIndex;
+import com.tradeagent.service.StockSearchIndex;
 import com.tradeagent.service.StockService;
+import com.tradeagent.service.StockSnapshotCache;
+import com.tradeagent.service.StockSnapshotCache.Snapshot;
 
 /**
  * REST Controller for stock operations
@@ -25,18 +45,50 @@ import com.tradeagent.service.StockService;
 @CrossOrigin(origins = "http://localhost:3000")
 public class StockController {
     
+    /**
+     * Appended to the entity tag of gzip-encoded bodies
+     */
+    private static final String GZIP_ETAG_SUFFIX = "-gz";
+    
     @Autowired
     private StockService stockService;
     
+    @Autowired
+    private StockSnapshotCache stockSnapshotCache;
+    
+    @Autowired
+    private CandleAggregator candleAggregator;
+    
+    @Autowired
+    private CompanyProfileCache companyProfileCache;
+    
+    @Autowired
+    private PriceStreamService priceStreamService;
+    
+    @Autowired
+    private StockSearchIndex stockSearchIndex;
+    
+    @Autowired
+    private StockGroupIndex stockGroupIndex;
+    
+    @Autowired
+    private StreamTicketService streamTicketService;
+    
     /**
      * Get all available stocks
      * @return list of all stocks
      */
     @GetMapping
-    public ResponseEntity<?> getAllStocks() {
+    public ResponseEntity<?> getAllStocks(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            List<Stock> stocks = stockService.getAllStocks();
-            return ResponseEntity.ok(stocks);
+            // Answered from version counters alone when the client is current
+            String etag = stockService.getListingETag();
+            String matched = matchingETag(ifNoneMatch, etag);
+            if (matched != null) {
+                return notModified(matched);
+            }
+            return snapshotResponse(stockSnapshotCache.getListing(), acceptEncoding);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to retrieve stocks");
@@ -44,17 +96,121 @@ public class StockController {
         }
     }
     
+    /**
+     * Issue a single-use ticket for opening the price stream
+     * Pass it as the ticket parameter of GET /stream; a new ticket is needed for every connection
+     * @return the ticket and its lifetime
+     */
+    @PostMapping("/stream/ticket")
+    public ResponseEntity<?> issueStreamTicket() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("ticket", streamTicketService.issue(authentication.getName()));
+        response.put("expiresInMs", streamTicketService.getTtlMs());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Stream price changes as Server-Sent Events
+     * Each "price" event carries one symbol's current price fields; the stream starts with a snapshot
+     * @param symbols optional comma-separated symbols to stream; all symbols when omitted
+     * @return the event stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamPrices(@RequestParam(required = false) String symbols) {
+        try {
+            List<String> filter = symbols == null ? null : Arrays.stream(symbols.split(","))
+                    .map(String::trim)
+                    .filter(symbol -> !symbol.isEmpty())
+                    .map(String::toUpperCase)
+                    .toList();
+            return ResponseEntity.ok(priceStreamService.subscribe(filter));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    /**
+     * Search stocks by symbol prefix, company name and description, served from the in-memory index
+     * @param q the query
+     * @param limit the maximum number of results, at most 50
+     * @return ranked matches, best first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchStocks(@RequestParam String q,
+                                          @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > 50) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "limit must be between 1 and 50");
+            return ResponseEntity.badRequest().body(error);
+        }
+        return ResponseEntity.ok(stockSearchIndex.search(q, limit));
+    }
+    
     /**
      * Get stock by symbol
      * @param symbol the stock symbol
      * @return stock details
      */
     @GetMapping("/{symbol}")
-    public ResponseEntity<?> getStockBySymbol(@PathVariable String symbol) {
+    public ResponseEntity<?> getStockBySymbol(@PathVariable String symbol,
+                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            Stock stock = stockService.findBySymbol(symbol)
+            String etag = stockService.getStockETag(symbol);
+            String matched = matchingETag(ifNoneMatch, etag);
+            if (matched != null) {
+                return notModified(matched);
+            }
+            Snapshot snapshot = stockSnapshotCache.getStock(symbol)
                     .orElseThrow(() -> new RuntimeException("Stock not found"));
-            return ResponseEntity.ok(stock);
+            return snapshotResponse(snapshot, acceptEncoding);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * Get recent OHLC candles with tick counts for a stock, served from memory
+     * @param symbol the stock symbol
+     * @param interval the bar size: 1m, 5m or 1h
+     * @param limit the maximum number of bars, at most the in-memory capacity
+     * @return candles, oldest first
+     */
+    @GetMapping("/{symbol}/candles")
+    public ResponseEntity<?> getCandles(@PathVariable String symbol,
+                                        @RequestParam(defaultValue = "1m") String interval,
+                                        @RequestParam(defaultValue = "120") int limit) {
+        int capacity = candleAggregator.getCapacity();
+        if (limit < 1 || limit > capacity) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "limit must be between 1 and " + capacity);
+            return ResponseEntity.badRequest().body(error);
+        }
+        try {
+            List<Candle> candles = candleAggregator.getCandles(symbol, CandleInterval.fromLabel(interval), limit);
+            return ResponseEntity.ok(candles);
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * Get the company profile for a stock, served from the profile cache
+     * @param symbol the stock symbol
+     * @return company profile, or an error if the symbol is not listed
+     */
+    @GetMapping("/{symbol}/profile")
+    public ResponseEntity<?> getProfile(@PathVariable String symbol) {
+        try {
+            CompanyProfile profile = companyProfileCache.getProfile(symbol)
+                    .orElseThrow(() -> new RuntimeException("Stock not found"));
+            return ResponseEntity.ok(profile);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -79,6 +235,57 @@ public class StockController {
         }
     }
     
+    /**
+     * Get live aggregates for one sector, maintained in memory on every price change
+     * @param sector the sector name
+     * @return average change percent, advancers, decliners and equal-weighted index level
+     */
+    @GetMapping("/sector/{sector}/summary")
+    public ResponseEntity<?> getSectorSummary(@PathVariable String sector) {
+        Map<String, Object> summary = stockGroupIndex.getSectorSummary(sector);
+        if (summary == null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Sector not found");
+            return ResponseEntity.badRequest().body(error);
+        }
+        return ResponseEntity.ok(summary);
+    }
+    
+    /**
+     * Get live aggregates for every sector
+     * @return sector aggregates sorted by name
+     */
+    @GetMapping("/sectors")
+    public ResponseEntity<?> getSectorSummaries() {
+        return ResponseEntity.ok(stockGroupIndex.getSectorSummaries());
+    }
+    
+    /**
+     * Get stocks by industry
+     * @param industry the industry name
+     * @return list of stocks in the industry
+     */
+    @GetMapping("/industry/{industry}")
+    public ResponseEntity<?> getStocksByIndustry(@PathVariable String industry) {
+        try {
+            List<Stock> stocks = stockService.getStocksByIndustry(industry);
+            return ResponseEntity.ok(stocks);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to retrieve stocks by industry");
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * Get live aggregates for every industry
+     * @return industry aggregates sorted by name
+     */
+    @GetMapping("/industries")
+    public ResponseEntity<?> getIndustrySummaries() {
+        return ResponseEntity.ok(stockGroupIndex.getIndustrySummaries());
+    }
+    
     /**
      * Initialize mock stock data (for development)
      * @return success message
@@ -114,4 +321,83 @@ public class StockController {
             return ResponseEntity.badRequest().body(error);
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Check an If-None-Match header against the current entity tag or its gzip variant
+     * Weak validators never match, since the tags issued here are strong
+     * @return the matching tag, so the 304 names the variant the client holds, or null
+     */
+    private String matchingETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String gzipEtag = etag + GZIP_ETAG_SUFFIX;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("\"" + etag + "\"")) {
+                return etag;
+            }
+            if (trimmed.equals("\"" + gzipEtag + "\"")) {
+                return gzipEtag;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Check whether an Accept-Encoding header allows gzip
+     * An explicit gzip entry wins over a wildcard, and a quality of zero refuses the coding
+     */
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().toLowerCase();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                return quality > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = quality > 0;
+            }
+        }
+        return wildcard;
+    }
+    
+    /**
+     * Write pre-encoded bytes as the response body, gzip-encoded when the client accepts it
+     * Each encoding carries its own strong tag, since the two byte sequences differ
+     */
+    private ResponseEntity<byte[]> snapshotResponse(Snapshot snapshot, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (snapshot.getGzip() != null && acceptsGzip(acceptEncoding)) {
+            return response.eTag(snapshot.getEtag() + GZIP_ETAG_SUFFIX)
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(snapshot.getGzip());
+        }
+        return response.eTag(snapshot.getEtag()).body(snapshot.getJson());
+    }
+    
+    private ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+    }
+}
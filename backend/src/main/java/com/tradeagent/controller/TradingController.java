@@ -1,23 +1,34 @@
 package com.tradeagent.controller;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.tradeagent.model.RestingOrder;
+import com.tradeagent.model.RestingOrderType;
 import com.tradeagent.model.Transaction;
+import com.tradeagent.model.TransactionType;
 import com.tradeagent.model.User;
 import com.tradeagent.security.UserPrincipal;
+import com.tradeagent.service.OrderEntryService;
+import com.tradeagent.service.OrderQueueFullException;
+import com.tradeagent.service.OrderTicket;
+import com.tradeagent.service.RestingOrderBook;
 import com.tradeagent.service.TradingService;
 import com.tradeagent.service.UserService;
 
@@ -38,6 +49,12 @@ public class TradingController {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private OrderEntryService orderEntryService;
+    
+    @Autowired
+    private RestingOrderBook restingOrderBook;
+    
     /**
      * Buy stock endpoint
      * @param buyRequest the buy request
@@ -59,6 +76,10 @@ public class TradingController {
             response.put("transaction", transaction);
             
             return ResponseEntity.ok(response);
+        } catch (OrderQueueFullException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -86,6 +107,108 @@ public class TradingController {
             response.put("message", "Stock sold successfully!");
             response.put("transaction", transaction);
             
+            return ResponseEntity.ok(response);
+        } catch (OrderQueueFullException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * Submit an order for asynchronous execution
+     * The order is acknowledged before it is checked or executed; poll its status with GET /orders/{orderId}
+     * @param orderRequest the order request
+     * @return 202 with the order id and status
+     */
+    @PostMapping("/orders")
+    public ResponseEntity<?> submitOrder(@Valid @RequestBody OrderRequest orderRequest) {
+        try {
+            User user = getCurrentUser();
+            TransactionType side = parseSide(orderRequest.getSide());
+            
+            OrderTicket ticket = orderEntryService.submit(user, orderRequest.getStockSymbol(), side,
+                    orderRequest.getQuantity());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("orderId", ticket.getId());
+            response.put("status", ticket.getStatus());
+            
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (OrderQueueFullException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * Get the status of an asynchronously submitted order
+     * @param orderId the order id
+     * @return the order, including its transaction once executed
+     */
+    @GetMapping("/orders/{orderId}")
+    public ResponseEntity<?> getOrder(@PathVariable String orderId) {
+        try {
+            User user = getCurrentUser();
+            return orderEntryService.getOrder(user, orderId)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> {
+                        Map<String, String> error = new HashMap<>();
+                        error.put("error", "Order not found");
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+                    });
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * Place a limit, stop or stop-limit order
+     * The order rests until the price reaches it and then executes like a market order
+     * @param restingOrderRequest the order request
+     * @return 201 with the stored order
+     */
+    @PostMapping("/resting-orders")
+    public ResponseEntity<?> placeRestingOrder(@Valid @RequestBody RestingOrderRequest restingOrderRequest) {
+        try {
+            User user = getCurrentUser();
+            
+            RestingOrder order = restingOrderBook.place(user, restingOrderRequest.getStockSymbol(),
+                    parseSide(restingOrderRequest.getSide()), parseOrderType(restingOrderRequest.getType()),
+                    restingOrderRequest.getQuantity(), restingOrderRequest.getLimitPrice(),
+                    restingOrderRequest.getStopPrice());
+            
+            return ResponseEntity.status(HttpStatus.CREATED).body(order);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * Get the current user's resting orders
+     * @return list of orders, newest first, including finished ones
+     */
+    @GetMapping("/resting-orders")
+    public ResponseEntity<?> getRestingOrders() {
+        try {
+            User user = getCurrentUser();
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("orders", restingOrderBook.getOrders(user));
+            
             return ResponseEntity.ok(response);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
@@ -94,6 +217,23 @@ public class TradingController {
         }
     }
     
+    /**
+     * Cancel a resting order that has not executed yet
+     * @param orderId the order id
+     * @return the cancelled order
+     */
+    @DeleteMapping("/resting-orders/{orderId}")
+    public ResponseEntity<?> cancelRestingOrder(@PathVariable String orderId) {
+        try {
+            User user = getCurrentUser();
+            return ResponseEntity.ok(restingOrderBook.cancel(user, orderId));
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
     /**
      * Get transaction history
      * @return list of user transactions
@@ -115,6 +255,38 @@ public class TradingController {
         }
     }
     
+    /**
+     * Parse an order side
+     * @param side BUY or SELL, in any case
+     * @return the transaction type
+     */
+    private TransactionType parseSide(String side) {
+        if (side != null) {
+            for (TransactionType type : TransactionType.values()) {
+                if (type.getValue().equalsIgnoreCase(side.trim())) {
+                    return type;
+                }
+            }
+        }
+        throw new RuntimeException("Order side must be BUY or SELL");
+    }
+    
+    /**
+     * Parse a resting order type
+     * @param type LIMIT, STOP or STOP_LIMIT, in any case
+     * @return the order type
+     */
+    private RestingOrderType parseOrderType(String type) {
+        if (type != null) {
+            for (RestingOrderType orderType : RestingOrderType.values()) {
+                if (orderType.name().equalsIgnoreCase(type.trim())) {
+                    return orderType;
+                }
+            }
+        }
+        throw new RuntimeException("Order type must be LIMIT, STOP or STOP_LIMIT");
+    }
+    
     /**
      * Get current authenticated user
      * @return current user
@@ -156,4 +328,54 @@ public class TradingController {
         public Integer getQuantity() { return quantity; }
         public void setQuantity(Integer quantity) { this.quantity = quantity; }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Asynchronous order request DTO
+     */
+    public static class OrderRequest {
+        private String stockSymbol;
+        private String side;
+        private Integer quantity;
+        
+        // Getters and setters
+        public String getStockSymbol() { return stockSymbol; }
+        public void setStockSymbol(String stockSymbol) { this.stockSymbol = stockSymbol; }
+        
+        public String getSide() { return side; }
+        public void setSide(String side) { this.side = side; }
+        
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
+    
+    /**
+     * Resting order request DTO
+     */
+    public static class RestingOrderRequest {
+        private String stockSymbol;
+        private String side;
+        private String type;
+        private Integer quantity;
+        private BigDecimal limitPrice;
+        private BigDecimal stopPrice;
+        
+        // Getters and setters
+        public String getStockSymbol() { return stockSymbol; }
+        public void setStockSymbol(String stockSymbol) { this.stockSymbol = stockSymbol; }
+        
+        public String getSide() { return side; }
+        public void setSide(String side) { this.side = side; }
+        
+        public String getType() { return type; }
+        public void setType(String type) { this.type = type; }
+        
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+        
+        public BigDecimal getLimitPrice() { return limitPrice; }
+        public void setLimitPrice(BigDecimal limitPrice) { this.limitPrice = limitPrice; }
+        
+        public BigDecimal getStopPrice() { return stopPrice; }
+        public void setStopPrice(BigDecimal stopPrice) { this.stopPrice = stopPrice; }
+    }
+}
@@ -0,0 +1,72 @@
+package com.tradeagent.model;
+
+import java.math.BigDecimal;
+
+/**
+ * OHLC price bar for one symbol and interval, with its tick count
+ * Finnhub quotes carry no traded volume, so a bar has none; ticks counts the price observations applied to the bar,
+ * including ones that left the price unchanged, and is not a volume substitute
+ */
+public class Candle {
+    
+    private String symbol;
+    private String interval;
+    private long start;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private long ticks;
+    private boolean complete;
+    
+    public Candle() {}
+    
+    public Candle(String symbol, String interval, long start, BigDecimal open, BigDecimal high,
+                  BigDecimal low, BigDecimal close, long ticks, boolean complete) {
+        this.symbol = symbol;
+        this.interval = interval;
+        this.start = start;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.ticks = ticks;
+        this.complete = complete;
+    }
+    
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    public String getInterval() {
+        return interval;
+    }
+    
+    public long getStart() {
+        return start;
+    }
+    
+    public BigDecimal getOpen() {
+        return open;
+    }
+    
+    public BigDecimal getHigh() {
+        return high;
+    }
+    
+    public BigDecimal getLow() {
+        return low;
+    }
+    
+    public BigDecimal getClose() {
+        return close;
+    }
+    
+    public long getTicks() {
+        return ticks;
+    }
+    
+    public boolean isComplete() {
+        return complete;
+    }
+}
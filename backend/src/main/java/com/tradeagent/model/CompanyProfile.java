@@ -0,0 +1,129 @@
+package com.tradeagent.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Company profile for a listed symbol
+ * Changes rarely, so it is cached in memory and in MongoDB and revalidated against upstream in the background
+ */
+@Document(collection = "company_profiles")
+public class CompanyProfile {
+    
+    @Id
+    private String symbol;
+    
+    private String name;
+    private String ticker;
+    private String exchange;
+    private String industry;
+    private String country;
+    private String currency;
+    private String logo;
+    private String webUrl;
+    private double marketCapitalization;
+    
+    // Epoch millis of the upstream fetch; 0 for fallback profiles that were never fetched
+    private long fetchedAt;
+    
+    // Constructors
+    public CompanyProfile() {}
+    
+    public CompanyProfile(String symbol, String name, String exchange, String industry, double marketCapitalization) {
+        this.symbol = symbol;
+        this.ticker = symbol;
+        this.name = name;
+        this.exchange = exchange;
+        this.industry = industry;
+        this.marketCapitalization = marketCapitalization;
+    }
+    
+    // Getters and Setters
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getTicker() {
+        return ticker;
+    }
+    
+    public void setTicker(String ticker) {
+        this.ticker = ticker;
+    }
+    
+    public String getExchange() {
+        return exchange;
+    }
+    
+    public void setExchange(String exchange) {
+        this.exchange = exchange;
+    }
+    
+    public String getIndustry() {
+        return industry;
+    }
+    
+    public void setIndustry(String industry) {
+        this.industry = industry;
+    }
+    
+    public String getCountry() {
+        return country;
+    }
+    
+    public void setCountry(String country) {
+        this.country = country;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+    
+    public String getLogo() {
+        return logo;
+    }
+    
+    public void setLogo(String logo) {
+        this.logo = logo;
+    }
+    
+    public String getWebUrl() {
+        return webUrl;
+    }
+    
+    public void setWebUrl(String webUrl) {
+        this.webUrl = webUrl;
+    }
+    
+    public double getMarketCapitalization() {
+        return marketCapitalization;
+    }
+    
+    public void setMarketCapitalization(double marketCapitalization) {
+        this.marketCapitalization = marketCapitalization;
+    }
+    
+    public long getFetchedAt() {
+        return fetchedAt;
+    }
+    
+    public void setFetchedAt(long fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+}
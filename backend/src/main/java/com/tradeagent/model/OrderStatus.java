@@ -0,0 +1,17 @@
+package com.tradeagent.model;
+
+/**
+ * Lifecycle of an asynchronously submitted order
+ * PENDING: Acknowledged and waiting for risk checks
+ * ACCEPTED: Passed risk checks and queued for execution
+ * EXECUTED: Cash and shares have moved; the transaction record is being saved
+ * FILLED: Executed and journaled
+ * REJECTED: Refused by risk checks or execution; nothing was changed
+ */
+public enum OrderStatus {
+    PENDING,
+    ACCEPTED,
+    EXECUTED,
+    FILLED,
+    REJECTED
+}
@@ -84,42 +84,6 @@ public class Portfolio {
     }
     
     // Utility methods
-    public void addStock(String symbol, Integer quantity, BigDecimal price) {
-        Integer currentQuantity = holdings.getOrDefault(symbol, 0);
-        BigDecimal currentAvgPrice = averagePrices.getOrDefault(symbol, BigDecimal.ZERO);
-        
-        // Calculate new average price
-        if (currentQuantity > 0) {
-            BigDecimal totalValue = currentAvgPrice.multiply(BigDecimal.valueOf(currentQuantity))
-                                  .add(price.multiply(BigDecimal.valueOf(quantity)));
-            Integer newQuantity = currentQuantity + quantity;
-            BigDecimal newAvgPrice = totalValue.divide(BigDecimal.valueOf(newQuantity), 2, BigDecimal.ROUND_HALF_UP);
-            averagePrices.put(symbol, newAvgPrice);
-        } else {
-            averagePrices.put(symbol, price);
-        }
-        
-        holdings.put(symbol, currentQuantity + quantity);
-    }
-    
-    public boolean removeStock(String symbol, Integer quantity) {
-        Integer currentQuantity = holdings.getOrDefault(symbol, 0);
-        
-        if (currentQuantity < quantity) {
-            return false; // Not enough shares to sell
-        }
-        
-        Integer newQuantity = currentQuantity - quantity;
-        if (newQuantity == 0) {
-            holdings.remove(symbol);
-            averagePrices.remove(symbol);
-        } else {
-            holdings.put(symbol, newQuantity);
-        }
-        
-        return true;
-    }
-    
     public Integer getQuantity(String symbol) {
         return holdings.getOrDefault(symbol, 0);
     }
@@ -0,0 +1,123 @@
+package com.tradeagent.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable stock quote as used on the market data hot path
+ * Prices and change are fixed-point longs with two implied decimals (cents); change percent likewise
+ * holds hundredths of a percent. Use toDecimal to convert at the edges.
+ */
+public final class Quote {
+    
+    public static final int SCALE = 2;
+    
+    private final String symbol;
+    private final long currentPrice;
+    private final long change;
+    private final long changePercent;
+    private final long highPrice;
+    private final long lowPrice;
+    private final long openPrice;
+    private final long previousClose;
+    private final long asOf;
+    private final boolean stale;
+    
+    public Quote(String symbol, long currentPrice, long change, long changePercent, long highPrice,
+                 long lowPrice, long openPrice, long previousClose, long asOf, boolean stale) {
+        this.symbol = symbol;
+        this.currentPrice = currentPrice;
+        this.change = change;
+        this.changePercent = changePercent;
+        this.highPrice = highPrice;
+        this.lowPrice = lowPrice;
+        this.openPrice = openPrice;
+        this.previousClose = previousClose;
+        this.asOf = asOf;
+        this.stale = stale;
+    }
+    
+    public String getSymbol() {
+        return symbol;
+    }
+    
+    public long getCurrentPrice() {
+        return currentPrice;
+    }
+    
+    public long getChange() {
+        return change;
+    }
+    
+    public long getChangePercent() {
+        return changePercent;
+    }
+    
+    public long getHighPrice() {
+        return highPrice;
+    }
+    
+    public long getLowPrice() {
+        return lowPrice;
+    }
+    
+    public long getOpenPrice() {
+        return openPrice;
+    }
+    
+    public long getPreviousClose() {
+        return previousClose;
+    }
+    
+    /**
+     * Get the time the quote was obtained from its source
+     * @return epoch millis
+     */
+    public long getAsOf() {
+        return asOf;
+    }
+    
+    /**
+     * Check whether this is a last-known-good copy served while the source was unavailable
+     * @return true if stale
+     */
+    public boolean isStale() {
+        return stale;
+    }
+    
+    /**
+     * Copy this quote with a different fetch time
+     * @param asOf epoch millis
+     * @return the copy
+     */
+    public Quote withAsOf(long asOf) {
+        return new Quote(symbol, currentPrice, change, changePercent, highPrice, lowPrice, openPrice,
+                previousClose, asOf, stale);
+    }
+    
+    /**
+     * Copy this quote marked as stale
+     * @return the copy
+     */
+    public Quote asStale() {
+        return new Quote(symbol, currentPrice, change, changePercent, highPrice, lowPrice, openPrice,
+                previousClose, asOf, true);
+    }
+    
+    /**
+     * Convert a fixed-point value to a BigDecimal with two decimals
+     * @param fixed the fixed-point value
+     * @return the decimal value
+     */
+    public static BigDecimal toDecimal(long fixed) {
+        return BigDecimal.valueOf(fixed, SCALE);
+    }
+    
+    /**
+     * Convert a double to fixed-point, rounding half up
+     * @param value the value
+     * @return the fixed-point value
+     */
+    public static long toFixed(double value) {
+        return Math.round(value * 100);
+    }
+}
@@ -0,0 +1,189 @@
+package com.tradeagent.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Limit, stop or stop-limit order resting until the market reaches its price
+ * Open orders are held in memory by the resting order book and reloaded from this collection on startup.
+ * The owner is stored by id rather than by reference, so recovery does not load every user.
+ */
+@Document(collection = "resting_orders")
+public class RestingOrder {
+    
+    @Id
+    private String id;
+    
+    @Indexed
+    private String userId;
+    
+    private String stockSymbol;
+    
+    private TransactionType side;
+    
+    private RestingOrderType type;
+    
+    private Integer quantity;
+    
+    // Required for LIMIT and STOP_LIMIT orders
+    private BigDecimal limitPrice;
+    
+    // Required for STOP and STOP_LIMIT orders
+    private BigDecimal stopPrice;
+    
+    @Indexed
+    private RestingOrderStatus status;
+    
+    @CreatedDate
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime updatedAt;
+    
+    // Set once the order has executed
+    private String transactionId;
+    private BigDecimal executionPrice;
+    
+    // Why the order was rejected
+    private String reason;
+    
+    // Constructors
+    public RestingOrder() {}
+    
+    public RestingOrder(String userId, String stockSymbol, TransactionType side, RestingOrderType type,
+                        Integer quantity, BigDecimal limitPrice, BigDecimal stopPrice) {
+        this.userId = userId;
+        this.stockSymbol = stockSymbol;
+        this.side = side;
+        this.type = type;
+        this.quantity = quantity;
+        this.limitPrice = limitPrice;
+        this.stopPrice = stopPrice;
+        this.status = RestingOrderStatus.OPEN;
+    }
+    
+    /**
+     * Check whether the order can still execute
+     * @return true while the order is open or triggered
+     */
+    public boolean isActive() {
+        return status == RestingOrderStatus.OPEN || status == RestingOrderStatus.TRIGGERED;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public String getStockSymbol() {
+        return stockSymbol;
+    }
+    
+    public void setStockSymbol(String stockSymbol) {
+        this.stockSymbol = stockSymbol;
+    }
+    
+    public TransactionType getSide() {
+        return side;
+    }
+    
+    public void setSide(TransactionType side) {
+        this.side = side;
+    }
+    
+    public RestingOrderType getType() {
+        return type;
+    }
+    
+    public void setType(RestingOrderType type) {
+        this.type = type;
+    }
+    
+    public Integer getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+    
+    public BigDecimal getLimitPrice() {
+        return limitPrice;
+    }
+    
+    public void setLimitPrice(BigDecimal limitPrice) {
+        this.limitPrice = limitPrice;
+    }
+    
+    public BigDecimal getStopPrice() {
+        return stopPrice;
+    }
+    
+    public void setStopPrice(BigDecimal stopPrice) {
+        this.stopPrice = stopPrice;
+    }
+    
+    public RestingOrderStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(RestingOrderStatus status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    public String getTransactionId() {
+        return transactionId;
+    }
+    
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+    
+    public BigDecimal getExecutionPrice() {
+        return executionPrice;
+    }
+    
+    public void setExecutionPrice(BigDecimal executionPrice) {
+        this.executionPrice = executionPrice;
+    }
+    
+    public String getReason() {
+        return reason;
+    }
+    
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
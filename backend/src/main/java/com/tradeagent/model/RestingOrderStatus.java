@@ -0,0 +1,19 @@
+package com.tradeagent.model;
+
+/**
+ * Lifecycle of a resting order
+ * OPEN: Waiting for its trigger price
+ * TRIGGERED: A stop-limit order whose stop was reached; now waiting for its limit price
+ * EXECUTING: Claimed by its order lane; cash and shares may be moving
+ * FILLED: Executed and journaled
+ * CANCELLED: Cancelled by its owner before it executed
+ * REJECTED: Triggered but refused by execution, for example for lack of cash or shares
+ */
+public enum RestingOrderStatus {
+    OPEN,
+    TRIGGERED,
+    EXECUTING,
+    FILLED,
+    CANCELLED,
+    REJECTED
+}
@@ -0,0 +1,13 @@
+package com.tradeagent.model;
+
+/**
+ * Kinds of resting order
+ * LIMIT: Buy at or below, or sell at or above, the limit price
+ * STOP: Becomes a market order once the price reaches the stop price, rising for buys and falling for sells
+ * STOP_LIMIT: Becomes a limit order once the price reaches the stop price
+ */
+public enum RestingOrderType {
+    LIMIT,
+    STOP,
+    STOP_LIMIT
+}
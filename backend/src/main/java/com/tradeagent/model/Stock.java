@@ -70,6 +70,27 @@ public class Stock {
         calculateChange();
     }
     
+    /**
+     * Copy constructor, so cached stocks can be handed out and priced without being shared
+     * @param other the stock to copy
+     */
+    public Stock(Stock other) {
+        this.id = other.id;
+        this.symbol = other.symbol;
+        this.companyName = other.companyName;
+        this.currentPrice = other.currentPrice;
+        this.previousClose = other.previousClose;
+        this.changeAmount = other.changeAmount;
+        this.changePercent = other.changePercent;
+        this.openPrice = other.openPrice;
+        this.dayHigh = other.dayHigh;
+        this.dayLow = other.dayLow;
+        this.sector = other.sector;
+        this.industry = other.industry;
+        this.description = other.description;
+        this.lastUpdated = other.lastUpdated;
+    }
+    
     // Getters and Setters
     public String getId() {
         return id;
@@ -186,6 +207,22 @@ public class Stock {
     }
     
     // Utility methods
+    
+    /**
+     * Copy a quote onto this stock in one pass
+     * Change and change percent come from the quote, so no recalculation is done per field
+     * @param quote the quote
+     */
+    public void applyQuote(Quote quote) {
+        this.currentPrice = Quote.toDecimal(quote.getCurrentPrice());
+        this.previousClose = Quote.toDecimal(quote.getPreviousClose());
+        this.changeAmount = Quote.toDecimal(quote.getChange());
+        this.changePercent = Quote.toDecimal(quote.getChangePercent());
+        this.openPrice = Quote.toDecimal(quote.getOpenPrice());
+        this.dayHigh = Quote.toDecimal(quote.getHighPrice());
+        this.dayLow = Quote.toDecimal(quote.getLowPrice());
+    }
+    
     private void calculateChange() {
         if (currentPrice != null && previousClose != null && 
             previousClose.compareTo(BigDecimal.ZERO) > 0) {
@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -53,6 +54,10 @@ public class Transaction {
     
     private String notes;
     
+    // Set when the transaction fills a resting order; the unique index created by MongoIndexes allows one per order
+    @Indexed(unique = true, sparse = true)
+    private String restingOrderId;
+    
     // Constructors
     public Transaction() {}
     
@@ -148,6 +153,14 @@ public class Transaction {
         this.notes = notes;
     }
     
+    public String getRestingOrderId() {
+        return restingOrderId;
+    }
+    
+    public void setRestingOrderId(String restingOrderId) {
+        this.restingOrderId = restingOrderId;
+    }
+    
     // Utility methods
     public void calculateTotalAmount() {
         if (pricePerShare != null && quantity != null) {
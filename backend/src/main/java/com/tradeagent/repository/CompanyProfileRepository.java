@@ -0,0 +1,14 @@
+package com.tradeagent.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.tradeagent.model.CompanyProfile;
+
+/**
+ * Repository interface for CompanyProfile entity operations
+ * Profiles are keyed by stock symbol
+ */
+@Repository
+public interface CompanyProfileRepository extends MongoRepository<CompanyProfile, String> {
+}
@@ -0,0 +1,31 @@
+package com.tradeagent.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.tradeagent.model.RestingOrder;
+import com.tradeagent.model.RestingOrderStatus;
+
+/**
+ * Repository interface for RestingOrder entity
+ */
+@Repository
+public interface RestingOrderRepository extends MongoRepository<RestingOrder, String> {
+    
+    /**
+     * Find orders in any of the given states
+     * @param statuses the states to match
+     * @return List of matching orders
+     */
+    List<RestingOrder> findByStatusIn(Collection<RestingOrderStatus> statuses);
+    
+    /**
+     * Find all resting orders of a user, newest first
+     * @param userId the user id
+     * @return List of the user's orders
+     */
+    List<RestingOrder> findByUserIdOrderByCreatedAtDesc(String userId);
+}
@@ -2,6 +2,7 @@ package com.tradeagent.repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
@@ -47,4 +48,11 @@ public interface TransactionRepository extends MongoRepository<Transaction, Stri
      * @return List of transactions for the user and stock
      */
     List<Transaction> findByUserAndStockSymbolOrderByTransactionDateDesc(User user, String stockSymbol);
+    
+    /**
+     * Find the transaction that filled a resting order
+     * @param restingOrderId the resting order id
+     * @return the transaction, or empty if the order has not filled
+     */
+    Optional<Transaction> findByRestingOrderId(String restingOrderId);
 } 
\ No newline at end of file
@@ -18,20 +18,34 @@ import jakarta.servlet.http.HttpServletResponse;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/api/stocks/stream";
+
     @Autowired
     private JwtUtils jwtUtils;
 
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private StreamTicketService streamTicketService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         try {
+            String username = null;
             String jwt = parseJwt(request);
             if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+                username = jwtUtils.getUserNameFromJwtToken(jwt);
+            } else if (STREAM_PATH.equals(request.getServletPath())) {
+                // Browsers cannot set headers on an EventSource, so the price stream takes a single-use ticket
+                String ticket = request.getParameter("ticket");
+                if (StringUtils.hasText(ticket)) {
+                    username = streamTicketService.redeem(ticket);
+                }
+            }
 
+            if (username != null) {
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -0,0 +1,78 @@
+package com.tradeagent.security;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short-lived, single-use tickets for opening the price stream
+ * Browsers cannot set headers on an EventSource, so the stream URL carries a ticket instead of the JWT.
+ * A ticket is useless once redeemed or expired, so one leaked through a log or browser history grants nothing.
+ */
+@Component
+public class StreamTicketService {
+    
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    
+    @Value("${app.stream-ticket.ttl-ms:30000}")
+    private long ttlMs;
+    
+    /**
+     * Issue a ticket for a user
+     * @param username the authenticated user
+     * @return the ticket
+     */
+    public String issue(String username) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, new Ticket(username, System.currentTimeMillis() + ttlMs));
+        return ticket;
+    }
+    
+    /**
+     * Redeem a ticket; it cannot be used again
+     * @param ticket the ticket
+     * @return the username it was issued to, or null if it is unknown, used or expired
+     */
+    public String redeem(String ticket) {
+        Ticket redeemed = tickets.remove(ticket);
+        if (redeemed == null || redeemed.expiresAt < System.currentTimeMillis()) {
+            return null;
+        }
+        return redeemed.username;
+    }
+    
+    /**
+     * Get the lifetime of a new ticket
+     * @return milliseconds until an unredeemed ticket expires
+     */
+    public long getTtlMs() {
+        return ttlMs;
+    }
+    
+    /**
+     * Drop tickets that expired without being redeemed
+     */
+    @Scheduled(fixedDelayString = "${app.stream-ticket.purge-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        tickets.values().removeIf(ticket -> ticket.expiresAt < now);
+    }
+    
+    private static class Ticket {
+        private final String username;
+        private final long expiresAt;
+        
+        Ticket(String username, long expiresAt) {
+            this.username = username;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
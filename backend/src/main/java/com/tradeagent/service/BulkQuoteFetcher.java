@@ -0,0 +1,142 @@
+package com.tradeagent.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import com.tradeagent.model.Quote;
+
+/**
+ * Fans out quote lookups for many symbols concurrently
+ * Bounded by a fixed worker pool and a per-batch deadline
+ */
+@Service
+public class BulkQuoteFetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkQuoteFetcher.class);
+
+    @Autowired
+    private QuoteCache quoteCache;
+
+    @Autowired
+    private QuoteRequestCoalescer quoteRequestCoalescer;
+
+    @Value("${marketdata.bulk.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${marketdata.bulk.deadline-ms:2000}")
+    private long deadlineMs;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder symbolsRequested = new LongAdder();
+    private final LongAdder symbolsMissedDeadline = new LongAdder();
+    private final LongAdder symbolsFailed = new LongAdder();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-quote-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Fetch quotes for all symbols concurrently
+     * Symbols that fail or miss the batch deadline are left out of the result
+     * @param symbols the stock symbols
+     * @return map of symbol to quote for every symbol that completed in time
+     */
+    public Map<String, Quote> fetchQuotes(Collection<String> symbols) {
+        return fetch(symbols, quoteCache::getQuote);
+    }
+
+    /**
+     * Fetch quotes for all symbols concurrently, bypassing the quote cache
+     * Used by the background refresher, which needs upstream values rather than cached ones
+     * @param symbols the stock symbols
+     * @return map of symbol to quote for every symbol that completed in time
+     */
+    public Map<String, Quote> fetchFreshQuotes(Collection<String> symbols) {
+        return fetch(symbols, symbol -> quoteRequestCoalescer.getQuote(symbol, QuotePriority.BACKGROUND));
+    }
+
+    private Map<String, Quote> fetch(Collection<String> symbols, Function<String, Quote> loader) {
+        batches.increment();
+        symbolsRequested.add(symbols.size());
+
+        Map<String, CompletableFuture<Quote>> futures = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            futures.put(symbol, CompletableFuture.supplyAsync(() -> loader.apply(symbol), executor));
+        }
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]));
+        try {
+            all.get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Bulk quote fetch for {} symbols hit the {} ms deadline", symbols.size(), deadlineMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Individual failures are accounted for below
+        }
+
+        Map<String, Quote> quotes = new HashMap<>();
+        for (Map.Entry<String, CompletableFuture<Quote>> entry : futures.entrySet()) {
+            CompletableFuture<Quote> future = entry.getValue();
+
+            if (!future.isDone()) {
+                symbolsMissedDeadline.increment();
+                future.cancel(false);
+            } else if (future.isCompletedExceptionally()) {
+                symbolsFailed.increment();
+            } else {
+                quotes.put(entry.getKey(), future.join());
+            }
+        }
+
+        return quotes;
+    }
+
+    /**
+     * Get bulk fetch counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxConcurrency", maxConcurrency);
+        stats.put("deadlineMs", deadlineMs);
+        stats.put("batches", batches.sum());
+        stats.put("symbolsRequested", symbolsRequested.sum());
+        stats.put("symbolsMissedDeadline", symbolsMissedDeadline.sum());
+        stats.put("symbolsFailed", symbolsFailed.sum());
+        return stats;
+    }
+}
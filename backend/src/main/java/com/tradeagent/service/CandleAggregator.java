@@ -0,0 +1,199 @@
+package com.tradeagent.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.Candle;
+import com.tradeagent.model.Quote;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Incremental OHLC candle aggregation
+ * Every quote accepted into the PriceBook updates 1m, 5m and 1h bars held in memory;
+ * completed bars are flushed in batches to a MongoDB time-series collection
+ */
+@Service
+public class CandleAggregator implements PriceBookListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CandleAggregator.class);
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${marketdata.candles.capacity:720}")
+    private int capacity;
+
+    @Value("${marketdata.candles.collection:candles}")
+    private String collection;
+
+    @Value("${marketdata.candles.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${marketdata.candles.max-pending:100000}")
+    private int maxPending;
+
+    private final Map<String, CandleSeries[]> series = new ConcurrentHashMap<>();
+    private BlockingQueue<Candle> pendingFlush;
+    private volatile boolean collectionReady;
+
+    private final LongAdder observations = new LongAdder();
+    private final LongAdder lateObservations = new LongAdder();
+    private final LongAdder barsCompleted = new LongAdder();
+    private final LongAdder barsFlushed = new LongAdder();
+    private final LongAdder barsDropped = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        pendingFlush = new ArrayBlockingQueue<>(maxPending);
+        priceBook.addListener(this);
+    }
+
+    @Override
+    public void onQuote(Quote quote) {
+        observations.increment();
+        for (CandleSeries bars : series.computeIfAbsent(quote.getSymbol(), this::newSeries)) {
+            if (!bars.add(quote.getAsOf(), quote.getCurrentPrice(), this::completed)) {
+                lateObservations.increment();
+            }
+        }
+    }
+
+    /**
+     * Get the number of bars kept in memory per symbol and interval
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the most recent candles for a symbol from memory
+     * @param symbol the stock symbol
+     * @param interval the bar size
+     * @param limit the maximum number of bars
+     * @return the candles, oldest first; the last one may still be forming
+     */
+    public List<Candle> getCandles(String symbol, CandleInterval interval, int limit) {
+        CandleSeries[] bars = series.get(symbol);
+        if (bars == null) {
+            return Collections.emptyList();
+        }
+        return bars[interval.ordinal()].latest(limit);
+    }
+
+    /**
+     * Write completed bars to MongoDB in batches
+     */
+    @Scheduled(fixedDelayString = "${marketdata.candles.flush-ms:5000}")
+    public void flush() {
+        if (pendingFlush.isEmpty()) {
+            return;
+        }
+
+        List<Candle> batch = new ArrayList<>(flushBatchSize);
+        while (pendingFlush.drainTo(batch, flushBatchSize) > 0) {
+            try {
+                ensureCollection();
+                List<Document> documents = new ArrayList<>(batch.size());
+                for (Candle candle : batch) {
+                    documents.add(toDocument(candle));
+                }
+                mongoTemplate.insert(documents, collection);
+                barsFlushed.add(batch.size());
+            } catch (Exception e) {
+                // Keep the bars for the next flush while there is room; the rest are dropped
+                flushFailures.increment();
+                logger.warn("Failed to flush {} candles: {}", batch.size(), e.getMessage());
+                for (Candle candle : batch) {
+                    if (!pendingFlush.offer(candle)) {
+                        barsDropped.increment();
+                    }
+                }
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Get candle aggregation counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("symbols", series.size());
+        stats.put("observations", observations.sum());
+        stats.put("lateObservations", lateObservations.sum());
+        stats.put("barsCompleted", barsCompleted.sum());
+        stats.put("pendingFlush", pendingFlush.size());
+        stats.put("barsFlushed", barsFlushed.sum());
+        stats.put("barsDropped", barsDropped.sum());
+        stats.put("flushFailures", flushFailures.sum());
+        return stats;
+    }
+
+    private void completed(Candle candle) {
+        barsCompleted.increment();
+        if (!pendingFlush.offer(candle)) {
+            barsDropped.increment();
+        }
+    }
+
+    private CandleSeries[] newSeries(String symbol) {
+        CandleInterval[] intervals = CandleInterval.values();
+        CandleSeries[] bars = new CandleSeries[intervals.length];
+        for (CandleInterval interval : intervals) {
+            bars[interval.ordinal()] = new CandleSeries(symbol, interval, capacity);
+        }
+        return bars;
+    }
+
+    private void ensureCollection() {
+        if (collectionReady) {
+            return;
+        }
+        if (!mongoTemplate.collectionExists(collection)) {
+            mongoTemplate.createCollection(collection, CollectionOptions.empty()
+                    .timeSeries(CollectionOptions.TimeSeriesOptions.timeSeries("start")
+                            .metaField("meta")
+                            .granularity(Granularity.MINUTES)));
+        }
+        collectionReady = true;
+    }
+
+    private Document toDocument(Candle candle) {
+        Document meta = new Document("symbol", candle.getSymbol()).append("interval", candle.getInterval());
+        return new Document("start", new Date(candle.getStart()))
+                .append("meta", meta)
+                .append("open", new Decimal128(candle.getOpen()))
+                .append("high", new Decimal128(candle.getHigh()))
+                .append("low", new Decimal128(candle.getLow()))
+                .append("close", new Decimal128(candle.getClose()))
+                .append("ticks", candle.getTicks());
+    }
+}
@@ -0,0 +1,44 @@
+package com.tradeagent.service;
+
+/**
+ * Enum representing the candle bar sizes kept by the CandleAggregator
+ * ONE_MINUTE: 1m bars
+ * FIVE_MINUTES: 5m bars
+ * ONE_HOUR: 1h bars
+ */
+public enum CandleInterval {
+    ONE_MINUTE("1m", 60_000L),
+    FIVE_MINUTES("5m", 300_000L),
+    ONE_HOUR("1h", 3_600_000L);
+
+    private final String label;
+    private final long millis;
+
+    CandleInterval(String label, long millis) {
+        this.label = label;
+        this.millis = millis;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * Find an interval by its label
+     * @param label the label, e.g. "5m"
+     * @return the interval
+     * @throws IllegalArgumentException if the label is unknown
+     */
+    public static CandleInterval fromLabel(String label) {
+        for (CandleInterval interval : values()) {
+            if (interval.label.equals(label)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unknown candle interval: " + label);
+    }
+}
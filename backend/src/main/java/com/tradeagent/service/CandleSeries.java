@@ -0,0 +1,103 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.tradeagent.model.Candle;
+import com.tradeagent.model.Quote;
+
+/**
+ * Fixed-size ring buffer of OHLC bars and their tick counts for one symbol and interval
+ * Prices are held as fixed-point cents, as in Quote, in primitive arrays; the newest slot is the bar still forming
+ */
+class CandleSeries {
+
+    private final String symbol;
+    private final CandleInterval interval;
+    private final int capacity;
+
+    // Guarded by this
+    private final long[] starts;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] closes;
+    private final long[] ticks;
+    private int newest = -1;
+    private int size;
+
+    CandleSeries(String symbol, CandleInterval interval, int capacity) {
+        this.symbol = symbol;
+        this.interval = interval;
+        this.capacity = capacity;
+        this.starts = new long[capacity];
+        this.opens = new long[capacity];
+        this.highs = new long[capacity];
+        this.lows = new long[capacity];
+        this.closes = new long[capacity];
+        this.ticks = new long[capacity];
+    }
+
+    /**
+     * Apply a price observation
+     * @param time epoch millis of the observation
+     * @param priceCents the price in cents
+     * @param completed receives the bar this observation completed, if any
+     * @return false if the observation belongs to a bar that has already closed and was ignored
+     */
+    synchronized boolean add(long time, long priceCents, Consumer<Candle> completed) {
+        long bucket = time - Math.floorMod(time, interval.getMillis());
+
+        if (size > 0 && bucket == starts[newest]) {
+            highs[newest] = Math.max(highs[newest], priceCents);
+            lows[newest] = Math.min(lows[newest], priceCents);
+            closes[newest] = priceCents;
+            ticks[newest]++;
+            return true;
+        }
+
+        if (size > 0 && bucket < starts[newest]) {
+            return false;
+        }
+
+        if (size > 0) {
+            completed.accept(toCandle(newest, true));
+        }
+
+        newest = (newest + 1) % capacity;
+        size = Math.min(size + 1, capacity);
+        starts[newest] = bucket;
+        opens[newest] = priceCents;
+        highs[newest] = priceCents;
+        lows[newest] = priceCents;
+        closes[newest] = priceCents;
+        ticks[newest] = 1;
+        return true;
+    }
+
+    /**
+     * Get the most recent bars, oldest first, including the bar still forming
+     * @param limit the maximum number of bars
+     * @return the bars
+     */
+    synchronized List<Candle> latest(int limit) {
+        int count = Math.max(0, Math.min(limit, size));
+        List<Candle> candles = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) {
+            int slot = Math.floorMod(newest - i, capacity);
+            candles.add(toCandle(slot, i > 0));
+        }
+        return candles;
+    }
+
+    private Candle toCandle(int slot, boolean complete) {
+        return new Candle(symbol, interval.getLabel(), starts[slot], fromCents(opens[slot]), fromCents(highs[slot]),
+                fromCents(lows[slot]), fromCents(closes[slot]), ticks[slot], complete);
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return Quote.toDecimal(cents);
+    }
+}
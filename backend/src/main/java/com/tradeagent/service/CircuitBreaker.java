@@ -0,0 +1,118 @@
+package com.tradeagent.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Minimal consecutive-failure circuit breaker
+ * CLOSED lets calls through, OPEN short-circuits them until the open period elapses,
+ * HALF_OPEN lets a single trial call decide whether to close again
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationMs;
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder timesOpened = new LongAdder();
+
+    public CircuitBreaker(String name, int failureThreshold, long openDurationMs) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+    }
+
+    /**
+     * Check whether a call may proceed
+     * @return true if the call is allowed, false if it should be short-circuited
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDurationMs) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+
+        if (state == State.CLOSED) {
+            return true;
+        }
+
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+
+        shortCircuited.increment();
+        return false;
+    }
+
+    /**
+     * Record a successful call
+     */
+    public synchronized void recordSuccess() {
+        successes.increment();
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Record a failed call
+     */
+    public synchronized void recordFailure() {
+        failures.increment();
+        consecutiveFailures++;
+        trialInFlight = false;
+
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                timesOpened.increment();
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Release a call that was allowed but never reached the upstream
+     * Lets the next caller take the half-open trial instead
+     */
+    public synchronized void releaseTrial() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Get circuit breaker counters
+     * @return map of counter name to value
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("state", state.name());
+        stats.put("consecutiveFailures", consecutiveFailures);
+        stats.put("successes", successes.sum());
+        stats.put("failures", failures.sum());
+        stats.put("shortCircuited", shortCircuited.sum());
+        stats.put("timesOpened", timesOpened.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,245 @@
+package com.tradeagent.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.CompanyProfile;
+import com.tradeagent.model.Stock;
+import com.tradeagent.repository.CompanyProfileRepository;
+import com.tradeagent.repository.StockRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Two-tier company profile cache
+ * Profiles are served from memory, backed by MongoDB, and fetched from Finnhub only when neither tier has them.
+ * Entries older than the TTL are still served while a background task revalidates them upstream.
+ */
+@Service
+public class CompanyProfileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompanyProfileCache.class);
+
+    private static final Map<String, String> FALLBACK_NAMES = Map.of(
+            "AAPL", "Apple Inc.",
+            "GOOGL", "Alphabet Inc.",
+            "MSFT", "Microsoft Corporation",
+            "AMZN", "Amazon.com Inc.",
+            "TSLA", "Tesla Inc.",
+            "META", "Meta Platforms Inc.",
+            "NVDA", "NVIDIA Corporation",
+            "NFLX", "Netflix Inc.",
+            "AMD", "Advanced Micro Devices Inc.",
+            "INTC", "Intel Corporation");
+
+    @Autowired
+    private FinnhubService finnhubService;
+
+    @Autowired
+    private CompanyProfileRepository profileRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockGroupIndex stockGroupIndex;
+
+    @Value("${marketdata.profile.ttl-ms:604800000}")
+    private long ttlMs;
+
+    @Value("${marketdata.profile.warm-up-enabled:true}")
+    private boolean warmUpEnabled;
+
+    private final Map<String, CompanyProfile> profiles = new ConcurrentHashMap<>();
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    // One thread keeps upstream profile traffic trickling behind quote traffic in the rate limiter
+    private ExecutorService revalidationExecutor;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder storeHits = new LongAdder();
+    private final LongAdder upstreamFetches = new LongAdder();
+    private final LongAdder upstreamFailures = new LongAdder();
+    private final LongAdder fallbacksServed = new LongAdder();
+    private final LongAdder unlistedRequests = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        revalidationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "profile-revalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        revalidationExecutor.shutdownNow();
+    }
+
+    /**
+     * Get the company profile for a symbol
+     * @param symbol the stock symbol
+     * @return the cached profile, or a fallback profile if the symbol has never been fetched and upstream is
+     *         unavailable; empty if the symbol is not listed
+     */
+    public Optional<CompanyProfile> getProfile(String symbol) {
+        CompanyProfile profile = profiles.get(symbol);
+        if (profile != null) {
+            memoryHits.increment();
+            revalidateIfExpired(profile);
+            return Optional.of(profile);
+        }
+
+        // Arbitrary path values never reach MongoDB or upstream, and are never cached
+        if (!stockGroupIndex.isListed(symbol)) {
+            unlistedRequests.increment();
+            return Optional.empty();
+        }
+
+        Optional<CompanyProfile> stored = profileRepository.findById(symbol);
+        if (stored.isPresent()) {
+            storeHits.increment();
+            profiles.put(symbol, stored.get());
+            revalidateIfExpired(stored.get());
+            return stored;
+        }
+
+        try {
+            return Optional.of(fetch(symbol));
+        } catch (MarketDataUnavailableException e) {
+            // Not cached, so the next request tries upstream again
+            fallbacksServed.increment();
+            return Optional.of(fallbackProfile(symbol));
+        }
+    }
+
+    /**
+     * Load stored profiles into memory and fetch missing or expired ones for every listed stock
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!warmUpEnabled) {
+            return;
+        }
+
+        try {
+            for (CompanyProfile profile : profileRepository.findAll()) {
+                profiles.put(profile.getSymbol(), profile);
+            }
+            int scheduled = 0;
+            for (Stock stock : stockRepository.findAll()) {
+                CompanyProfile profile = profiles.get(stock.getSymbol());
+                if (profile == null || isExpired(profile)) {
+                    scheduleRevalidation(stock.getSymbol());
+                    scheduled++;
+                }
+            }
+            logger.info("Company profile cache warmed with {} profiles, {} scheduled for fetch", profiles.size(), scheduled);
+        } catch (Exception e) {
+            logger.warn("Failed to warm company profile cache: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Revalidate every expired profile held in memory
+     */
+    @Scheduled(initialDelayString = "${marketdata.profile.revalidate-ms:3600000}",
+               fixedDelayString = "${marketdata.profile.revalidate-ms:3600000}")
+    public void revalidateExpired() {
+        for (CompanyProfile profile : profiles.values()) {
+            revalidateIfExpired(profile);
+        }
+    }
+
+    /**
+     * Get profile cache counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", profiles.size());
+        stats.put("memoryHits", memoryHits.sum());
+        stats.put("storeHits", storeHits.sum());
+        stats.put("upstreamFetches", upstreamFetches.sum());
+        stats.put("upstreamFailures", upstreamFailures.sum());
+        stats.put("fallbacksServed", fallbacksServed.sum());
+        stats.put("unlistedRequests", unlistedRequests.sum());
+        stats.put("revalidations", revalidations.sum());
+        stats.put("revalidating", revalidating.size());
+        return stats;
+    }
+
+    private CompanyProfile fetch(String symbol) {
+        upstreamFetches.increment();
+        CompanyProfile profile;
+        try {
+            profile = finnhubService.getCompanyProfile(symbol);
+        } catch (MarketDataUnavailableException e) {
+            upstreamFailures.increment();
+            throw e;
+        }
+
+        profiles.put(symbol, profile);
+        try {
+            profileRepository.save(profile);
+        } catch (Exception e) {
+            logger.warn("Failed to store company profile for {}: {}", symbol, e.getMessage());
+        }
+        return profile;
+    }
+
+    private void revalidateIfExpired(CompanyProfile profile) {
+        if (isExpired(profile)) {
+            scheduleRevalidation(profile.getSymbol());
+        }
+    }
+
+    private boolean isExpired(CompanyProfile profile) {
+        return System.currentTimeMillis() - profile.getFetchedAt() > ttlMs;
+    }
+
+    private void scheduleRevalidation(String symbol) {
+        if (!revalidating.add(symbol)) {
+            return;
+        }
+        try {
+            revalidationExecutor.execute(() -> {
+                try {
+                    fetch(symbol);
+                    revalidations.increment();
+                } catch (MarketDataUnavailableException e) {
+                    // Keep serving the cached profile; it is retried on the next read or sweep
+                    logger.debug("Company profile revalidation failed for {}: {}", symbol, e.getMessage());
+                } finally {
+                    revalidating.remove(symbol);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            revalidating.remove(symbol);
+        }
+    }
+
+    private CompanyProfile fallbackProfile(String symbol) {
+        return new CompanyProfile(symbol, FALLBACK_NAMES.getOrDefault(symbol, symbol + " Corporation"),
+                "NASDAQ", "Technology", 1000000000.0);
+    }
+}
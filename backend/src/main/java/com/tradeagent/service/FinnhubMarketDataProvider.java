@@ -0,0 +1,34 @@
+package com.tradeagent.service;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.tradeagent.model.Quote;
+
+/**
+ * Market data provider backed by the live Finnhub API
+ */
+public class FinnhubMarketDataProvider implements MarketDataProvider {
+
+    private final FinnhubService finnhubService;
+
+    public FinnhubMarketDataProvider(FinnhubService finnhubService) {
+        this.finnhubService = finnhubService;
+    }
+
+    @Override
+    public Quote getQuote(String symbol, QuotePriority priority) {
+        return finnhubService.getStockQuote(symbol, priority);
+    }
+
+    @Override
+    public String getName() {
+        return "finnhub";
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        // Upstream counters are reported by FinnhubService itself
+        return Collections.emptyMap();
+    }
+}
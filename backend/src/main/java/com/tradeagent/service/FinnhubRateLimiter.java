@@ -0,0 +1,200 @@
+package com.tradeagent.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Token bucket guarding outbound Finnhub calls
+ * Callers over budget wait in a priority queue: order execution first, then interactive, then background.
+ * Callers that cannot get a token within their wait budget, or find the queue full, are rejected.
+ */
+@Service
+public class FinnhubRateLimiter {
+
+    @Value("${finnhub.rate-limit.calls-per-minute:60}")
+    private int callsPerMinute;
+
+    @Value("${finnhub.rate-limit.burst:10}")
+    private int burst;
+
+    @Value("${finnhub.rate-limit.max-queue-depth:200}")
+    private int maxQueueDepth;
+
+    @Value("${finnhub.rate-limit.order-max-wait-ms:10000}")
+    private long orderMaxWaitMs;
+
+    @Value("${finnhub.rate-limit.interactive-max-wait-ms:3000}")
+    private long interactiveMaxWaitMs;
+
+    @Value("${finnhub.rate-limit.background-max-wait-ms:1000}")
+    private long backgroundMaxWaitMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition tokenAvailable = lock.newCondition();
+
+    // Guarded by lock
+    private double tokens;
+    private long lastRefillNanos;
+    private double tokensPerNano;
+    private final int[] waiting = new int[QuotePriority.values().length];
+
+    private final LongAdder[] acquired = newCounters();
+    private final LongAdder[] rejected = newCounters();
+    private final LongAdder[] totalWaitMillis = newCounters();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        tokensPerNano = callsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        tokens = burst;
+        lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Take one token, waiting behind higher-priority callers if the bucket is empty
+     * @param priority the request priority
+     * @throws MarketDataUnavailableException if the queue is full or the wait budget runs out
+     */
+    public void acquire(QuotePriority priority) {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitFor(priority));
+        int level = priority.ordinal();
+
+        lock.lock();
+        try {
+            refill();
+            if (tokens >= 1 && !higherPriorityWaiting(level)) {
+                tokens -= 1;
+                acquired[level].increment();
+                return;
+            }
+
+            if (queueDepth() >= maxQueueDepth) {
+                rejected[level].increment();
+                throw new MarketDataUnavailableException("Market data request queue is full");
+            }
+
+            waiting[level]++;
+            try {
+                while (true) {
+                    refill();
+                    if (tokens >= 1 && !higherPriorityWaiting(level)) {
+                        tokens -= 1;
+                        acquired[level].increment();
+                        recordWait(level, System.nanoTime() - start);
+                        return;
+                    }
+
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        rejected[level].increment();
+                        throw new MarketDataUnavailableException("Market data rate limit exceeded");
+                    }
+
+                    // Sleep until the next token is due, or until another waiter hands over
+                    long untilNextToken = (long) Math.ceil((1 - tokens) / tokensPerNano);
+                    tokenAvailable.awaitNanos(Math.max(1, Math.min(remaining, untilNextToken)));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected[level].increment();
+                throw new MarketDataUnavailableException("Interrupted while waiting for market data budget", e);
+            } finally {
+                waiting[level]--;
+                tokenAvailable.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get rate limiter counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int[] waitingSnapshot;
+        lock.lock();
+        try {
+            waitingSnapshot = waiting.clone();
+            refill();
+            stats.put("callsPerMinute", callsPerMinute);
+            stats.put("burst", burst);
+            stats.put("availableTokens", Math.floor(tokens));
+            stats.put("queueDepth", queueDepth());
+        } finally {
+            lock.unlock();
+        }
+
+        Map<String, Object> byPriority = new LinkedHashMap<>();
+        for (QuotePriority priority : QuotePriority.values()) {
+            int level = priority.ordinal();
+            long count = acquired[level].sum();
+            Map<String, Object> priorityStats = new LinkedHashMap<>();
+            priorityStats.put("waiting", waitingSnapshot[level]);
+            priorityStats.put("acquired", count);
+            priorityStats.put("rejected", rejected[level].sum());
+            priorityStats.put("averageWaitMillis", count > 0 ? totalWaitMillis[level].sum() / (double) count : 0.0);
+            byPriority.put(priority.name(), priorityStats);
+        }
+        stats.put("priorities", byPriority);
+        stats.put("maxWaitMillis", maxWaitMillis.get());
+        return stats;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+
+    private boolean higherPriorityWaiting(int level) {
+        for (int i = 0; i < level; i++) {
+            if (waiting[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int queueDepth() {
+        int depth = 0;
+        for (int count : waiting) {
+            depth += count;
+        }
+        return depth;
+    }
+
+    private void recordWait(int level, long waitNanos) {
+        long waitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+        totalWaitMillis[level].add(waitMillis);
+        maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+    }
+
+    private long maxWaitFor(QuotePriority priority) {
+        switch (priority) {
+            case ORDER_EXECUTION: return orderMaxWaitMs;
+            case INTERACTIVE: return interactiveMaxWaitMs;
+            default: return backgroundMaxWaitMs;
+        }
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[QuotePriority.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
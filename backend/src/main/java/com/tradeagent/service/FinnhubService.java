@@ -1,19 +1,46 @@
 package com.tradeagent.service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.pool.PoolStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradeagent.model.CompanyProfile;
+import com.tradeagent.model.Quote;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 @Service
 public class FinnhubService {
@@ -26,111 +53,357 @@ public class FinnhubService {
     @Value("${finnhub.api.base-url}")
     private String baseUrl;
     
+    @Value("${finnhub.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+    
+    @Value("${finnhub.circuit-breaker.open-duration-ms:30000}")
+    private long openDurationMs;
+    
+    @Value("${finnhub.bulkhead.max-concurrent-calls:8}")
+    private int maxConcurrentCalls;
+    
+    @Value("${finnhub.bulkhead.max-wait-ms:250}")
+    private long bulkheadMaxWaitMs;
+    
+    @Value("${finnhub.async.admission-threads:4}")
+    private int admissionThreads;
+    
+    @Autowired
+    private FinnhubRateLimiter rateLimiter;
+    
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+    
+    @Autowired
+    private PoolingAsyncClientConnectionManager asyncConnectionManager;
+    
     private final RestTemplate restTemplate;
+    private final CloseableHttpAsyncClient asyncHttpClient;
     private final ObjectMapper objectMapper;
     
-    public FinnhubService() {
-        this.restTemplate = new RestTemplate();
+    // Last successfully fetched quote per symbol, served while upstream is unavailable
+    private final Map<String, Quote> lastKnownGood = new ConcurrentHashMap<>();
+    private final LongAdder lastKnownGoodServed = new LongAdder();
+    private final LongAdder bulkheadRejected = new LongAdder();
+    
+    private CircuitBreaker circuitBreaker;
+    private Semaphore bulkhead;
+    
+    // Waits for rate limit and bulkhead admission only; the HTTP exchange itself runs on the async client's I/O threads
+    private ExecutorService admissionExecutor;
+    
+    public FinnhubService(@Qualifier("finnhubRestTemplate") RestTemplate restTemplate,
+                          @Qualifier("finnhubAsyncHttpClient") CloseableHttpAsyncClient asyncHttpClient) {
+        this.restTemplate = restTemplate;
+        this.asyncHttpClient = asyncHttpClient;
         this.objectMapper = new ObjectMapper();
     }
     
-    public Map<String, Object> getStockQuote(String symbol) {
+    @PostConstruct
+    void init() {
+        circuitBreaker = new CircuitBreaker("finnhub-quote", failureThreshold, openDurationMs);
+        bulkhead = new Semaphore(maxConcurrentCalls);
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        admissionExecutor = Executors.newFixedThreadPool(admissionThreads, runnable -> {
+            Thread thread = new Thread(runnable, "finnhub-admission-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        admissionExecutor.shutdownNow();
+    }
+    
+    public Quote getStockQuote(String symbol) {
+        return getStockQuote(symbol, QuotePriority.INTERACTIVE);
+    }
+    
+    /**
+     * Fetch a stock quote within the Finnhub rate limit, circuit breaker and bulkhead
+     * If upstream cannot be used, the last known good quote is returned marked stale, with its original fetch time
+     * @param symbol the stock symbol
+     * @param priority the priority used when waiting for rate limit budget
+     * @return the quote
+     * @throws MarketDataUnavailableException if upstream is unavailable and no earlier quote exists
+     */
+    public Quote getStockQuote(String symbol, QuotePriority priority) {
+        if (!circuitBreaker.allowRequest()) {
+            return getLastKnownGood(symbol, "circuit open");
+        }
+        
         try {
-            String url = String.format("%s/quote?symbol=%s&token=%s", baseUrl, symbol, apiKey);
-            logger.info("Fetching stock quote for symbol: {} from URL: {}", symbol, url);
-            
-            String response = restTemplate.getForObject(url, String.class);
-            JsonNode jsonNode = objectMapper.readTree(response);
-            
-            Map<String, Object> stockData = new HashMap<>();
-            stockData.put("symbol", symbol);
-            stockData.put("currentPrice", roundToTwoDecimals(jsonNode.get("c").asDouble()));
-            stockData.put("change", roundToTwoDecimals(jsonNode.get("d").asDouble()));
-            stockData.put("changePercent", roundToTwoDecimals(jsonNode.get("dp").asDouble()));
-            stockData.put("highPrice", roundToTwoDecimals(jsonNode.get("h").asDouble()));
-            stockData.put("lowPrice", roundToTwoDecimals(jsonNode.get("l").asDouble()));
-            stockData.put("openPrice", roundToTwoDecimals(jsonNode.get("o").asDouble()));
-            stockData.put("previousClose", roundToTwoDecimals(jsonNode.get("pc").asDouble()));
-            
-            logger.info("Successfully fetched data for {}: Current Price = {}", symbol, stockData.get("currentPrice"));
-            return stockData;
-            
+            rateLimiter.acquire(priority);
+        } catch (MarketDataUnavailableException e) {
+            circuitBreaker.releaseTrial();
+            return getLastKnownGood(symbol, e.getMessage());
+        }
+        
+        if (!acquireBulkhead()) {
+            circuitBreaker.releaseTrial();
+            bulkheadRejected.increment();
+            return getLastKnownGood(symbol, "too many concurrent upstream calls");
+        }
+        
+        try {
+            Quote quote = fetchQuote(symbol);
+            circuitBreaker.recordSuccess();
+            lastKnownGood.put(symbol, quote);
+            return quote;
         } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
+                // Over budget is not an outage; do not trip the breaker for it
+                circuitBreaker.releaseTrial();
+                logger.warn("Finnhub rate limit hit fetching data for symbol {}", symbol);
+                return getLastKnownGood(symbol, "upstream rate limit");
+            }
+            circuitBreaker.recordFailure();
             logger.error("HTTP error fetching data for symbol {}: {}", symbol, e.getMessage());
-            return getFallbackData(symbol);
+            return getLastKnownGood(symbol, e.getMessage());
         } catch (Exception e) {
+            circuitBreaker.recordFailure();
             logger.error("Error fetching stock data for symbol {}: {}", symbol, e.getMessage());
-            return getFallbackData(symbol);
+            return getLastKnownGood(symbol, e.getMessage());
+        } finally {
+            bulkhead.release();
+        }
+    }
+    
+    /**
+     * Fetch a stock quote without blocking the caller
+     * Applies the same rate limit, circuit breaker, bulkhead and last-known-good fallback as getStockQuote
+     * Raw upstream API: it bypasses the MarketDataProvider selection and the QuoteRequestCoalescer, so it must not be
+     * called from request paths; those go through StockService
+     * @param symbol the stock symbol
+     * @param priority the priority used when waiting for rate limit budget
+     * @return a future completed with the quote, or exceptionally with MarketDataUnavailableException
+     */
+    public CompletableFuture<Quote> getStockQuoteAsync(String symbol, QuotePriority priority) {
+        CompletableFuture<Quote> result = new CompletableFuture<>();
+        
+        if (!circuitBreaker.allowRequest()) {
+            completeWithLastKnownGood(result, symbol, "circuit open");
+            return result;
+        }
+        
+        try {
+            admissionExecutor.execute(() -> admitAndSend(symbol, priority, result));
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.releaseTrial();
+            completeWithLastKnownGood(result, symbol, "async admission rejected");
+        }
+        return result;
+    }
+    
+    /**
+     * Fetch quotes for several symbols without blocking the caller
+     * Finnhub has no multi-symbol quote endpoint, so the calls are issued concurrently over pooled connections
+     * Raw upstream API like getStockQuoteAsync; not for request paths
+     * @param symbols the stock symbols
+     * @param priority the priority used when waiting for rate limit budget
+     * @return a future completed with a map of symbol to quote; symbols that failed are omitted
+     */
+    public CompletableFuture<Map<String, Quote>> getStockQuotesAsync(Collection<String> symbols,
+                                                                     QuotePriority priority) {
+        Map<String, CompletableFuture<Quote>> futures = new LinkedHashMap<>();
+        for (String symbol : new LinkedHashSet<>(symbols)) {
+            futures.put(symbol, getStockQuoteAsync(symbol, priority));
+        }
+        
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, error) -> {
+                    Map<String, Quote> quotes = new HashMap<>();
+                    for (Map.Entry<String, CompletableFuture<Quote>> entry : futures.entrySet()) {
+                        if (!entry.getValue().isCompletedExceptionally()) {
+                            quotes.put(entry.getKey(), entry.getValue().join());
+                        }
+                    }
+                    return quotes;
+                });
+    }
+    
+    /**
+     * Get circuit breaker, bulkhead, fallback and connection pool counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuitBreaker", circuitBreaker.getStats());
+        stats.put("bulkheadAvailable", bulkhead.availablePermits());
+        stats.put("bulkheadRejected", bulkheadRejected.sum());
+        stats.put("lastKnownGoodSymbols", lastKnownGood.size());
+        stats.put("lastKnownGoodServed", lastKnownGoodServed.sum());
+        stats.put("connectionPool", poolStats(connectionManager.getTotalStats()));
+        stats.put("asyncConnectionPool", poolStats(asyncConnectionManager.getTotalStats()));
+        return stats;
+    }
+    
+    private void admitAndSend(String symbol, QuotePriority priority, CompletableFuture<Quote> result) {
+        try {
+            rateLimiter.acquire(priority);
+        } catch (MarketDataUnavailableException e) {
+            circuitBreaker.releaseTrial();
+            completeWithLastKnownGood(result, symbol, e.getMessage());
+            return;
+        }
+        
+        if (!acquireBulkhead()) {
+            circuitBreaker.releaseTrial();
+            bulkheadRejected.increment();
+            completeWithLastKnownGood(result, symbol, "too many concurrent upstream calls");
+            return;
+        }
+        
+        logger.debug("Fetching stock quote asynchronously for symbol: {}", symbol);
+        SimpleHttpRequest request = SimpleRequestBuilder.get(quoteUrl(symbol)).build();
+        
+        try {
+            asyncHttpClient.execute(request, new FutureCallback<SimpleHttpResponse>() {
+                @Override
+                public void completed(SimpleHttpResponse response) {
+                    bulkhead.release();
+                    handleAsyncResponse(symbol, response, result);
+                }
+                
+                @Override
+                public void failed(Exception e) {
+                    bulkhead.release();
+                    circuitBreaker.recordFailure();
+                    logger.error("Error fetching stock data for symbol {}: {}", symbol, e.getMessage());
+                    completeWithLastKnownGood(result, symbol, e.getMessage());
+                }
+                
+                @Override
+                public void cancelled() {
+                    bulkhead.release();
+                    circuitBreaker.releaseTrial();
+                    completeWithLastKnownGood(result, symbol, "request cancelled");
+                }
+            });
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            circuitBreaker.recordFailure();
+            completeWithLastKnownGood(result, symbol, e.getMessage());
         }
     }
     
-    public Map<String, Object> getCompanyProfile(String symbol) {
+    private void handleAsyncResponse(String symbol, SimpleHttpResponse response,
+                                     CompletableFuture<Quote> result) {
+        int status = response.getCode();
+        if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            circuitBreaker.releaseTrial();
+            logger.warn("Finnhub rate limit hit fetching data for symbol {}", symbol);
+            completeWithLastKnownGood(result, symbol, "upstream rate limit");
+            return;
+        }
+        if (status >= 400) {
+            circuitBreaker.recordFailure();
+            logger.error("HTTP error fetching data for symbol {}: {}", symbol, status);
+            completeWithLastKnownGood(result, symbol, "HTTP " + status);
+            return;
+        }
+        
+        try {
+            Quote quote = QuoteJson.parse(response.getBodyBytes(), symbol, System.currentTimeMillis());
+            circuitBreaker.recordSuccess();
+            lastKnownGood.put(symbol, quote);
+            result.complete(quote);
+        } catch (Exception e) {
+            circuitBreaker.recordFailure();
+            logger.error("Error parsing stock data for symbol {}: {}", symbol, e.getMessage());
+            completeWithLastKnownGood(result, symbol, e.getMessage());
+        }
+    }
+    
+    private void completeWithLastKnownGood(CompletableFuture<Quote> result, String symbol, String reason) {
         try {
+            result.complete(getLastKnownGood(symbol, reason));
+        } catch (MarketDataUnavailableException e) {
+            result.completeExceptionally(e);
+        }
+    }
+    
+    private Quote fetchQuote(String symbol) {
+        logger.debug("Fetching stock quote for symbol: {}", symbol);
+        // Parse straight from the response stream, without an intermediate String or tree
+        Quote quote = restTemplate.execute(quoteUrl(symbol), HttpMethod.GET, null,
+                response -> QuoteJson.parse(response.getBody(), symbol, System.currentTimeMillis()));
+        logger.debug("Fetched {}: current price {}", symbol, quote.getCurrentPrice());
+        return quote;
+    }
+    
+    private String quoteUrl(String symbol) {
+        return String.format("%s/quote?symbol=%s&token=%s", baseUrl, symbol, apiKey);
+    }
+    
+    private Map<String, Object> poolStats(PoolStats poolStats) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("leased", poolStats.getLeased());
+        stats.put("available", poolStats.getAvailable());
+        stats.put("pending", poolStats.getPending());
+        stats.put("max", poolStats.getMax());
+        return stats;
+    }
+    
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(bulkheadMaxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private Quote getLastKnownGood(String symbol, String reason) {
+        Quote lastQuote = lastKnownGood.get(symbol);
+        if (lastQuote == null) {
+            throw new MarketDataUnavailableException("Market data unavailable for " + symbol + ": " + reason);
+        }
+        
+        lastKnownGoodServed.increment();
+        logger.warn("Serving last known good quote for {} ({}), {} ms old", symbol, reason,
+                System.currentTimeMillis() - lastQuote.getAsOf());
+        return lastQuote.asStale();
+    }
+    
+    /**
+     * Fetch a company profile from upstream within the Finnhub rate limit
+     * @param symbol the stock symbol
+     * @return the profile, stamped with the fetch time
+     * @throws MarketDataUnavailableException if upstream fails or has no profile for the symbol
+     */
+    public CompanyProfile getCompanyProfile(String symbol) {
+        try {
+            rateLimiter.acquire(QuotePriority.BACKGROUND);
             String url = String.format("%s/stock/profile2?symbol=%s&token=%s", baseUrl, symbol, apiKey);
             logger.info("Fetching company profile for symbol: {}", symbol);
             
             String response = restTemplate.getForObject(url, String.class);
             JsonNode jsonNode = objectMapper.readTree(response);
             
-            Map<String, Object> companyData = new HashMap<>();
-            companyData.put("name", jsonNode.get("name").asText());
-            companyData.put("ticker", jsonNode.get("ticker").asText());
-            companyData.put("exchange", jsonNode.get("exchange").asText());
-            companyData.put("industry", jsonNode.get("finnhubIndustry").asText());
-            companyData.put("marketCapitalization", jsonNode.get("marketCapitalization").asDouble());
+            // Unknown symbols come back as an empty object
+            if (jsonNode == null || !jsonNode.hasNonNull("name")) {
+                throw new MarketDataUnavailableException("No company profile for " + symbol);
+            }
             
-            return companyData;
+            CompanyProfile profile = new CompanyProfile(symbol, jsonNode.get("name").asText(),
+                    jsonNode.path("exchange").asText(null), jsonNode.path("finnhubIndustry").asText(null),
+                    jsonNode.path("marketCapitalization").asDouble());
+            profile.setTicker(jsonNode.path("ticker").asText(symbol));
+            profile.setCountry(jsonNode.path("country").asText(null));
+            profile.setCurrency(jsonNode.path("currency").asText(null));
+            profile.setLogo(jsonNode.path("logo").asText(null));
+            profile.setWebUrl(jsonNode.path("weburl").asText(null));
+            profile.setFetchedAt(System.currentTimeMillis());
+            return profile;
             
+        } catch (MarketDataUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error fetching company profile for symbol {}: {}", symbol, e.getMessage());
-            return getFallbackCompanyData(symbol);
+            throw new MarketDataUnavailableException("Company profile unavailable for " + symbol, e);
         }
     }
-    
-    private BigDecimal roundToTwoDecimals(double value) {
-        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
-    }
-    
-    private Map<String, Object> getFallbackData(String symbol) {
-        // Fallback to mock data if API fails
-        Map<String, Object> fallbackData = new HashMap<>();
-        fallbackData.put("symbol", symbol);
-        fallbackData.put("currentPrice", BigDecimal.valueOf(150.00));
-        fallbackData.put("change", BigDecimal.valueOf(2.50));
-        fallbackData.put("changePercent", BigDecimal.valueOf(1.69));
-        fallbackData.put("highPrice", BigDecimal.valueOf(152.00));
-        fallbackData.put("lowPrice", BigDecimal.valueOf(148.00));
-        fallbackData.put("openPrice", BigDecimal.valueOf(149.00));
-        fallbackData.put("previousClose", BigDecimal.valueOf(147.50));
-        
-        logger.warn("Using fallback data for symbol: {}", symbol);
-        return fallbackData;
-    }
-    
-    private Map<String, Object> getFallbackCompanyData(String symbol) {
-        Map<String, Object> fallbackData = new HashMap<>();
-        fallbackData.put("name", getCompanyName(symbol));
-        fallbackData.put("ticker", symbol);
-        fallbackData.put("exchange", "NASDAQ");
-        fallbackData.put("industry", "Technology");
-        fallbackData.put("marketCapitalization", 1000000000.0);
-        
-        return fallbackData;
-    }
-    
-    private String getCompanyName(String symbol) {
-        Map<String, String> companyNames = new HashMap<>();
-        companyNames.put("AAPL", "Apple Inc.");
-        companyNames.put("GOOGL", "Alphabet Inc.");
-        companyNames.put("MSFT", "Microsoft Corporation");
-        companyNames.put("AMZN", "Amazon.com Inc.");
-        companyNames.put("TSLA", "Tesla Inc.");
-        companyNames.put("META", "Meta Platforms Inc.");
-        companyNames.put("NVDA", "NVIDIA Corporation");
-        companyNames.put("NFLX", "Netflix Inc.");
-        companyNames.put("AMD", "Advanced Micro Devices Inc.");
-        companyNames.put("INTC", "Intel Corporation");
-        
-        return companyNames.getOrDefault(symbol, symbol + " Corporation");
-    }
-} 
\ No newline at end of file
+}
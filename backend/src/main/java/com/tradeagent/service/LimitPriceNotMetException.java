@@ -0,0 +1,12 @@
+package com.tradeagent.service;
+
+/**
+ * Thrown when a limit order reaches execution but the execution quote is worse than its limit
+ * Nothing has been changed; the order can wait for the next price
+ */
+public class LimitPriceNotMetException extends RuntimeException {
+
+    public LimitPriceNotMetException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,33 @@
+package com.tradeagent.service;
+
+import java.util.Map;
+
+import com.tradeagent.model.Quote;
+
+/**
+ * Source of stock quotes for the market data pipeline
+ * Implementations: live Finnhub, a recording decorator and a replay of a recorded session
+ */
+public interface MarketDataProvider {
+
+    /**
+     * Get the latest quote for a symbol
+     * @param symbol the stock symbol
+     * @param priority the priority of the request
+     * @return the quote
+     * @throws MarketDataUnavailableException if no quote can be provided
+     */
+    Quote getQuote(String symbol, QuotePriority priority);
+
+    /**
+     * Get the provider name, as used in the marketdata.provider property
+     * @return the provider name
+     */
+    String getName();
+
+    /**
+     * Get provider counters
+     * @return map of counter name to value
+     */
+    Map<String, Object> getStats();
+}
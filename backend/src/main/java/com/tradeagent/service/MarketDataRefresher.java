@@ -0,0 +1,252 @@
+package com.tradeagent.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.Stock;
+import com.tradeagent.repository.StockRepository;
+
+/**
+ * Background market data refresher
+ * Polls upstream quotes on an adaptive per-symbol schedule and writes them into the PriceBook,
+ * so no read path has to wait for an upstream round-trip
+ */
+@Service
+public class MarketDataRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataRefresher.class);
+
+    private static final ZoneId MARKET_ZONE = ZoneId.of("America/New_York");
+    private static final LocalTime MARKET_OPEN = LocalTime.of(9, 30);
+    private static final LocalTime MARKET_CLOSE = LocalTime.of(16, 0);
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private BulkQuoteFetcher bulkQuoteFetcher;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${marketdata.refresher.enabled:true}")
+    private boolean enabled;
+
+    @Value("${marketdata.refresher.min-interval-ms:2000}")
+    private long minIntervalMs;
+
+    @Value("${marketdata.refresher.max-interval-ms:30000}")
+    private long maxIntervalMs;
+
+    @Value("${marketdata.refresher.off-hours-interval-ms:900000}")
+    private long offHoursIntervalMs;
+
+    @Value("${marketdata.refresher.held-weight:4}")
+    private double heldWeight;
+
+    @Value("${marketdata.refresher.demand-decay:0.5}")
+    private double demandDecay;
+
+    // Symbols being tracked and when each is next due for a refresh
+    private final Map<String, Long> nextDue = new ConcurrentHashMap<>();
+    private final Map<String, Double> demandScores = new ConcurrentHashMap<>();
+    private volatile Map<String, Long> heldQuantities = new HashMap<>();
+
+    private final LongAdder cycles = new LongAdder();
+    private final LongAdder symbolsRefreshed = new LongAdder();
+    private final LongAdder symbolsFailed = new LongAdder();
+    private volatile long lastCycleMillis;
+
+    /**
+     * Reload the tracked symbol universe and the held quantity per symbol
+     */
+    @Scheduled(initialDelayString = "${marketdata.refresher.universe-initial-delay-ms:0}",
+               fixedDelayString = "${marketdata.refresher.universe-refresh-ms:60000}")
+    public void reloadUniverse() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            for (Stock stock : stockRepository.findAll()) {
+                track(stock.getSymbol());
+            }
+            heldQuantities = loadHeldQuantities();
+        } catch (Exception e) {
+            logger.warn("Failed to reload market data universe: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Refresh every symbol whose adaptive interval has elapsed
+     */
+    @Scheduled(fixedDelayString = "${marketdata.refresher.tick-ms:1000}")
+    public void refreshDueSymbols() {
+        if (!enabled || nextDue.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        updateDemandScores();
+
+        List<String> due = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : nextDue.entrySet()) {
+            if (entry.getValue() <= now) {
+                due.add(entry.getKey());
+            }
+        }
+
+        if (due.isEmpty()) {
+            return;
+        }
+
+        boolean marketOpen = isMarketOpen(ZonedDateTime.now(MARKET_ZONE));
+        for (String symbol : due) {
+            nextDue.put(symbol, now + intervalFor(symbol, marketOpen));
+        }
+
+        refresh(due);
+    }
+
+    /**
+     * Refresh the given symbols immediately, regardless of their schedule
+     * @param symbols the stock symbols
+     */
+    public void refreshNow(Collection<String> symbols) {
+        for (String symbol : symbols) {
+            track(symbol);
+        }
+        refresh(symbols);
+    }
+
+    /**
+     * Start tracking a symbol; it is refreshed on the next tick
+     * @param symbol the stock symbol
+     */
+    public void track(String symbol) {
+        nextDue.putIfAbsent(symbol, 0L);
+    }
+
+    /**
+     * Get refresher counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("marketOpen", isMarketOpen(ZonedDateTime.now(MARKET_ZONE)));
+        stats.put("trackedSymbols", nextDue.size());
+        stats.put("cycles", cycles.sum());
+        stats.put("symbolsRefreshed", symbolsRefreshed.sum());
+        stats.put("symbolsFailed", symbolsFailed.sum());
+        stats.put("lastCycleMillis", lastCycleMillis);
+        return stats;
+    }
+
+    private void refresh(Collection<String> symbols) {
+        long start = System.currentTimeMillis();
+        Map<String, Quote> quotes = bulkQuoteFetcher.fetchFreshQuotes(symbols);
+
+        int refreshed = 0;
+        long retryAt = System.currentTimeMillis() + minIntervalMs;
+        for (String symbol : symbols) {
+            Quote quote = quotes.get(symbol);
+            if (quote == null || quote.isStale()) {
+                // A failure or last-known-good fallback is not a refresh; bring the symbol forward so it is retried
+                nextDue.computeIfPresent(symbol, (key, due) -> Math.min(due, retryAt));
+                continue;
+            }
+            priceBook.update(symbol, quote);
+            refreshed++;
+        }
+
+        cycles.increment();
+        symbolsRefreshed.add(refreshed);
+        symbolsFailed.add(symbols.size() - refreshed);
+        lastCycleMillis = System.currentTimeMillis() - start;
+        logger.debug("Refreshed {}/{} symbols in {} ms", refreshed, symbols.size(), lastCycleMillis);
+    }
+
+    /**
+     * Compute the refresh interval for a symbol
+     * Symbols that are read often or held by users refresh faster; everything slows down off-hours
+     */
+    long intervalFor(String symbol, boolean marketOpen) {
+        if (!marketOpen) {
+            return offHoursIntervalMs;
+        }
+
+        double weight = 1.0 + demandScores.getOrDefault(symbol, 0.0);
+        if (heldQuantities.getOrDefault(symbol, 0L) > 0) {
+            weight += heldWeight;
+        }
+
+        long interval = (long) (maxIntervalMs / weight);
+        return Math.max(minIntervalMs, Math.min(maxIntervalMs, interval));
+    }
+
+    private void updateDemandScores() {
+        Map<String, Long> reads = priceBook.drainDemand();
+
+        for (Map.Entry<String, Double> entry : demandScores.entrySet()) {
+            entry.setValue(entry.getValue() * demandDecay);
+        }
+        for (Map.Entry<String, Long> entry : reads.entrySet()) {
+            demandScores.merge(entry.getKey(), entry.getValue().doubleValue(), Double::sum);
+            track(entry.getKey());
+        }
+    }
+
+    private Map<String, Long> loadHeldQuantities() {
+        // Project holdings only, so portfolio user references are not resolved
+        Query query = new Query();
+        query.fields().include("holdings");
+
+        Map<String, Long> held = new HashMap<>();
+        for (Document portfolio : mongoTemplate.find(query, Document.class, "portfolios")) {
+            Document holdings = portfolio.get("holdings", Document.class);
+            if (holdings == null) {
+                continue;
+            }
+            for (Map.Entry<String, Object> holding : holdings.entrySet()) {
+                if (holding.getValue() instanceof Number) {
+                    held.merge(holding.getKey(), ((Number) holding.getValue()).longValue(), Long::sum);
+                }
+            }
+        }
+        return held;
+    }
+
+    static boolean isMarketOpen(ZonedDateTime time) {
+        DayOfWeek day = time.getDayOfWeek();
+        if (day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY) {
+            return false;
+        }
+        LocalTime localTime = time.toLocalTime();
+        return !localTime.isBefore(MARKET_OPEN) && localTime.isBefore(MARKET_CLOSE);
+    }
+}
@@ -0,0 +1,16 @@
+package com.tradeagent.service;
+
+/**
+ * Thrown when a quote cannot be obtained from upstream and no safe substitute exists
+ * Callers should keep their last known data instead of inventing a price
+ */
+public class MarketDataUnavailableException extends RuntimeException {
+
+    public MarketDataUnavailableException(String message) {
+        super(message);
+    }
+
+    public MarketDataUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,96 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+
+import com.tradeagent.model.Portfolio;
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.Stock;
+import com.tradeagent.model.TransactionType;
+import com.tradeagent.model.User;
+
+/**
+ * Everything one order executes against
+ * The instrument and quote are resolved once, before any stage runs, and never replaced, so the price that is
+ * validated is the price that is booked and journaled.
+ */
+public class OrderContext {
+
+    private final User user;
+    private final String symbol;
+    private final TransactionType side;
+    private final int quantity;
+    private final Stock instrument;
+    private final Quote quote;
+    private Portfolio portfolio;
+    private BigDecimal price;
+    private BigDecimal total;
+
+    OrderContext(User user, String symbol, TransactionType side, int quantity, Stock instrument, Quote quote,
+                 Portfolio portfolio) {
+        this.user = user;
+        this.symbol = symbol;
+        this.side = side;
+        this.quantity = quantity;
+        this.instrument = instrument;
+        this.quote = quote;
+        this.portfolio = portfolio;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public TransactionType getSide() {
+        return side;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Stock getInstrument() {
+        return instrument;
+    }
+
+    public Quote getQuote() {
+        return quote;
+    }
+
+    /**
+     * Get the user's portfolio
+     * @return the stored post-image once the position stage has run; before that the portfolio as resolved,
+     *         not yet saved if the user had none
+     */
+    public Portfolio getPortfolio() {
+        return portfolio;
+    }
+
+    /**
+     * Get the execution price per share, set by the pricing stage
+     * @return the price, or null before pricing
+     */
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    /**
+     * Get the order value, set by the pricing stage
+     * @return price times quantity, or null before pricing
+     */
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    void positionUpdated(Portfolio portfolio) {
+        this.portfolio = portfolio;
+    }
+
+    void price(BigDecimal price) {
+        this.price = price;
+        this.total = price.multiply(BigDecimal.valueOf(quantity));
+    }
+}
@@ -0,0 +1,459 @@
+package com.tradeagent.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.OrderStatus;
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.Transaction;
+import com.tradeagent.model.TransactionType;
+import com.tradeagent.model.User;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Asynchronous order entry
+ * Submitted orders are acknowledged as soon as they are claimed into a pre-allocated ring buffer. Three stages
+ * follow, each on its own thread: risk checks walk the ring in sequence, execution hands accepted orders to the
+ * account lanes of the OrderSequencer, and persistence saves executed transactions in batches. Results are kept
+ * in memory for polling until the retention period runs out. On shutdown, intake stops and every accepted order is
+ * executed and saved before the stages exit.
+ */
+@Service
+public class OrderEntryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEntryService.class);
+
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    @Autowired
+    private OrderExecutionPipeline orderExecutionPipeline;
+
+    @Autowired
+    private OrderSequencer orderSequencer;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${trading.orders.ring-size:4096}")
+    private int ringSize;
+
+    @Value("${trading.orders.max-quantity:1000000}")
+    private int maxQuantity;
+
+    @Value("${trading.orders.persist-batch-size:256}")
+    private int persistBatchSize;
+
+    @Value("${trading.orders.retention-ms:600000}")
+    private long retentionMs;
+
+    @Value("${trading.orders.drain-timeout-ms:10000}")
+    private long drainTimeoutMs;
+
+    // Slots are allocated once and reused; a slot holds the ticket of sequence s while published[s & mask] == s
+    private OrderTicket[] slots;
+    private long[] published;
+    private int mask;
+
+    // Last sequence claimed by a producer, and last sequence each stage has finished with
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final AtomicLong riskSequence = new AtomicLong(-1);
+    private final AtomicLong executionSequence = new AtomicLong(-1);
+
+    private final BlockingQueue<OrderTicket> executedOrders = new LinkedBlockingQueue<>();
+    private final Map<String, OrderTicket> tickets = new ConcurrentHashMap<>();
+    private final AtomicInteger onLanes = new AtomicInteger();
+
+    private Thread riskThread;
+    private Thread executionThread;
+    private Thread persistenceThread;
+    private volatile boolean running;
+    private volatile boolean accepting;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder ringFull = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder filled = new LongAdder();
+    private final LongAdder persistBatches = new LongAdder();
+    private final LongAdder persistFailures = new LongAdder();
+    private final StageTimer riskTimer = new StageTimer();
+    private final StageTimer executionTimer = new StageTimer();
+    private final StageTimer persistenceTimer = new StageTimer();
+    private final StageTimer endToEndTimer = new StageTimer();
+
+    @PostConstruct
+    void init() {
+        int capacity = Integer.highestOneBit(Math.max(2, ringSize - 1)) << 1;
+        slots = new OrderTicket[capacity];
+        published = new long[capacity];
+        Arrays.fill(published, -1L);
+        mask = capacity - 1;
+
+        running = true;
+        accepting = true;
+        riskThread = startStage("order-entry-risk", this::riskLoop);
+        executionThread = startStage("order-entry-execution", this::executionLoop);
+        persistenceThread = startStage("order-entry-persistence", this::persistenceLoop);
+    }
+
+    /**
+     * Stop taking orders, then run and save everything already acknowledged
+     * Runs before the OrderSequencer shuts down, since this service depends on it
+     */
+    @PreDestroy
+    void shutdown() {
+        accepting = false;
+        long deadline = System.currentTimeMillis() + drainTimeoutMs;
+        // Executed orders have moved cash and shares; they must reach the journal before the stages stop
+        awaitUntil(() -> executionSequence.get() >= claimed.get() && onLanes.get() == 0, deadline);
+        running = false;
+        try {
+            riskThread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            executionThread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            persistenceThread.join(Math.max(1, deadline - System.currentTimeMillis()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Claimed while intake was closing, after the stages had drained
+        for (long sequence = executionSequence.get() + 1; sequence <= claimed.get(); sequence++) {
+            int index = (int) (sequence & mask);
+            if ((long) PUBLISHED.getAcquire(published, index) == sequence && slots[index] != null) {
+                reject(slots[index], "Order service is shutting down");
+            }
+        }
+        if (persistenceThread.isAlive()) {
+            logger.error("Order entry did not drain within {} ms; {} executed orders are not journaled",
+                    drainTimeoutMs, executedOrders.size());
+            persistenceThread.interrupt();
+        }
+    }
+
+    /**
+     * Acknowledge an order and queue it for asynchronous execution
+     * Only the request shape is checked here; everything else happens in the stages
+     * @param user the user placing the order
+     * @param symbol the stock symbol
+     * @param side buy or sell
+     * @param quantity the number of shares
+     * @return the ticket to poll for the result
+     * @throws OrderQueueFullException if the ring buffer has no free slot, or on shutdown
+     */
+    public OrderTicket submit(User user, String symbol, TransactionType side, Integer quantity) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new RuntimeException("Stock symbol is required");
+        }
+        if (side == null) {
+            throw new RuntimeException("Order side is required");
+        }
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be at least 1");
+        }
+
+        if (!accepting) {
+            throw new OrderQueueFullException("Order service is shutting down");
+        }
+
+        long sequence;
+        do {
+            sequence = claimed.get() + 1;
+            // The slot is free once execution has moved past the sequence that last used it
+            if (sequence - slots.length > executionSequence.get()) {
+                ringFull.increment();
+                throw new OrderQueueFullException("Too many pending orders; please retry shortly");
+            }
+        } while (!claimed.compareAndSet(sequence - 1, sequence));
+
+        OrderTicket ticket = new OrderTicket(UUID.randomUUID().toString(), user, symbol.toUpperCase(), side, quantity);
+        tickets.put(ticket.getId(), ticket);
+        int index = (int) (sequence & mask);
+        slots[index] = ticket;
+        PUBLISHED.setRelease(published, index, sequence);
+        submitted.increment();
+        return ticket;
+    }
+
+    /**
+     * Get an order submitted by a user
+     * @param user the user asking
+     * @param orderId the order id
+     * @return the ticket, or empty if it is unknown, expired or belongs to someone else
+     */
+    public Optional<OrderTicket> getOrder(User user, String orderId) {
+        OrderTicket ticket = tickets.get(orderId);
+        if (ticket == null || !ticket.getUser().getId().equals(user.getId())) {
+            return Optional.empty();
+        }
+        return Optional.of(ticket);
+    }
+
+    /**
+     * Drop completed orders older than the retention period
+     */
+    @Scheduled(fixedDelayString = "${trading.orders.purge-ms:60000}")
+    public void purgeCompleted() {
+        long cutoff = System.currentTimeMillis() - retentionMs;
+        Iterator<OrderTicket> iterator = tickets.values().iterator();
+        while (iterator.hasNext()) {
+            OrderTicket ticket = iterator.next();
+            if (ticket.isCompleted() && ticket.getCompletedAt() < cutoff) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Get order entry counters, with latency per stage
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ringCapacity", slots.length);
+        stats.put("ringDepth", claimed.get() - executionSequence.get());
+        stats.put("awaitingPersistence", executedOrders.size());
+        stats.put("tracked", tickets.size());
+        stats.put("submitted", submitted.sum());
+        stats.put("ringFull", ringFull.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("filled", filled.sum());
+        stats.put("persistBatches", persistBatches.sum());
+        stats.put("persistFailures", persistFailures.sum());
+        stats.put("riskStage", riskTimer.getStats());
+        stats.put("executionStage", executionTimer.getStats());
+        stats.put("persistenceStage", persistenceTimer.getStats());
+        stats.put("endToEnd", endToEndTimer.getStats());
+        return stats;
+    }
+
+    /**
+     * Risk stage: cheap in-memory checks, in ring order, on every published order
+     */
+    private void riskLoop() {
+        while (running) {
+            long next = riskSequence.get() + 1;
+            int index = (int) (next & mask);
+            if ((long) PUBLISHED.getAcquire(published, index) != next) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            OrderTicket ticket = slots[index];
+            long started = System.nanoTime();
+            try {
+                String reason = checkRisk(ticket);
+                if (reason != null) {
+                    reject(ticket, reason);
+                } else {
+                    ticket.accept();
+                }
+            } catch (RuntimeException e) {
+                reject(ticket, e.getMessage());
+            }
+            riskTimer.record(System.nanoTime() - started);
+            riskSequence.set(next);
+        }
+    }
+
+    /**
+     * Execution stage: hand accepted orders to their account's lane, in ring order, then free the slot
+     */
+    private void executionLoop() {
+        while (running) {
+            long next = executionSequence.get() + 1;
+            if (riskSequence.get() < next) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            int index = (int) (next & mask);
+            OrderTicket ticket = slots[index];
+            slots[index] = null;
+            if (ticket.getStatus() != OrderStatus.REJECTED) {
+                dispatch(ticket);
+            }
+            executionSequence.set(next);
+        }
+    }
+
+    private void dispatch(OrderTicket ticket) {
+        long queuedAt = System.nanoTime();
+        onLanes.incrementAndGet();
+        try {
+            orderSequencer.submit(ticket.getUser().getId(), () -> orderExecutionPipeline.executeUnjournaled(
+                    ticket.getUser(), ticket.getSymbol(), ticket.getSide(), ticket.getQuantity()))
+                    .whenComplete((transaction, error) -> {
+                        executionTimer.record(System.nanoTime() - queuedAt);
+                        if (error != null) {
+                            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                    ? error.getCause() : error;
+                            reject(ticket, cause.getMessage());
+                        } else {
+                            // Fixed before the first save attempt, so a retried batch overwrites instead of duplicating
+                            transaction.setId(new ObjectId().toHexString());
+                            transaction.setTransactionDate(LocalDateTime.now());
+                            ticket.executed(transaction);
+                            executedOrders.add(ticket);
+                        }
+                        onLanes.decrementAndGet();
+                    });
+        } catch (OrderQueueFullException e) {
+            onLanes.decrementAndGet();
+            reject(ticket, e.getMessage());
+        }
+    }
+
+    /**
+     * Persistence stage: save executed transactions in batches
+     * A failed batch is retried; the orders stay EXECUTED, never rejected, since their cash and shares have moved.
+     * After shutdown begins the loop keeps going until nothing is left to save.
+     */
+    private void persistenceLoop() {
+        List<OrderTicket> batch = new ArrayList<>(persistBatchSize);
+        while (running || !batch.isEmpty() || !executedOrders.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    OrderTicket first = executedOrders.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    executedOrders.drainTo(batch, persistBatchSize - 1);
+                }
+                persist(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                persistFailures.increment();
+                logger.warn("Failed to save {} order transactions, retrying: {}", batch.size(), e.getMessage());
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private void persist(List<OrderTicket> batch) {
+        long started = System.nanoTime();
+        // Upserts by the id assigned at execution, so a batch that partly landed before failing can be replayed
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class);
+        for (OrderTicket ticket : batch) {
+            Transaction transaction = ticket.getTransaction();
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(transaction.getId())), transaction,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+        for (OrderTicket ticket : batch) {
+            ticket.fill(ticket.getTransaction());
+            filled.increment();
+            endToEndTimer.record(TimeUnit.MILLISECONDS.toNanos(ticket.getCompletedAt() - ticket.getSubmittedAt()));
+        }
+        persistBatches.increment();
+        persistenceTimer.record(System.nanoTime() - started);
+    }
+
+    /**
+     * Check an order against limits that need no database access
+     * @return the rejection reason, or null if the order may proceed
+     */
+    private String checkRisk(OrderTicket ticket) {
+        if (ticket.getQuantity() > maxQuantity) {
+            return "Quantity exceeds the maximum of " + maxQuantity + " shares per order";
+        }
+        if (stockService.getInstrument(ticket.getSymbol()).isEmpty()) {
+            return "Stock not found: " + ticket.getSymbol();
+        }
+        if (ticket.getSide() == TransactionType.BUY) {
+            // Indicative only; the execution stage re-prices and the balance update is conditional
+            Quote quote = priceBook.getQuote(ticket.getSymbol());
+            if (quote != null) {
+                BigDecimal notional = Quote.toDecimal(quote.getCurrentPrice())
+                        .multiply(BigDecimal.valueOf(ticket.getQuantity()));
+                if (ticket.getUser().getBalance().compareTo(notional) < 0) {
+                    return "Insufficient balance for this transaction";
+                }
+            }
+        }
+        return null;
+    }
+
+    private void reject(OrderTicket ticket, String reason) {
+        ticket.reject(reason);
+        rejected.increment();
+    }
+
+    private void awaitUntil(BooleanSupplier condition, long deadline) {
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private Thread startStage(String name, Runnable loop) {
+        Thread thread = new Thread(loop, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Count, mean and max of one stage's latency
+     */
+    private static class StageTimer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> getStats() {
+            long samples = count.sum();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", samples);
+            stats.put("averageMicros", samples > 0 ? totalNanos.sum() / 1000.0 / samples : 0.0);
+            stats.put("maxMicros", maxNanos.get() / 1000.0);
+            return stats;
+        }
+    }
+}
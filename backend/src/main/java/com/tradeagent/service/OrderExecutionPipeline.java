@@ -0,0 +1,194 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.Portfolio;
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.Stock;
+import com.tradeagent.model.Transaction;
+import com.tradeagent.model.TransactionType;
+import com.tradeagent.model.User;
+import com.tradeagent.repository.TransactionRepository;
+
+/**
+ * Staged execution of market orders
+ * An order first resolves its context: the instrument from the in-memory catalog, one quote from the price book
+ * and the user's portfolio. Validation, pricing, position update and journaling then all run against that context,
+ * so each order costs one portfolio read and three writes (balance, position, transaction).
+ * Balance and position changes are conditional updates applied by MongoDB, never read-modify-write.
+ */
+@Service
+public class OrderExecutionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExecutionPipeline.class);
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PortfolioService portfolioService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Execute a market order
+     * @param user the user placing the order
+     * @param symbol the stock symbol
+     * @param side buy or sell
+     * @param quantity the number of shares
+     * @return the journaled transaction
+     * @throws MarketDataUnavailableException if no sufficiently recent quote can be obtained
+     * @throws RuntimeException if the order fails validation
+     */
+    public Transaction execute(User user, String symbol, TransactionType side, Integer quantity) {
+        return run(user, symbol, side, quantity, null, null, true);
+    }
+
+    /**
+     * Execute a triggered resting order, which may only fill at its limit price or better
+     * @param user the user placing the order
+     * @param symbol the stock symbol
+     * @param side buy or sell
+     * @param quantity the number of shares
+     * @param limitPrice the highest price to buy at or the lowest to sell at, or null for a market order
+     * @param restingOrderId the resting order being filled, journaled with the transaction
+     * @return the journaled transaction
+     * @throws LimitPriceNotMetException if the execution quote is worse than the limit
+     * @throws MarketDataUnavailableException if no sufficiently recent quote can be obtained
+     * @throws RuntimeException if the order fails validation
+     */
+    public Transaction execute(User user, String symbol, TransactionType side, Integer quantity,
+                               BigDecimal limitPrice, String restingOrderId) {
+        return run(user, symbol, side, quantity, limitPrice, restingOrderId, true);
+    }
+
+    /**
+     * Execute a market order but leave its transaction record for the caller to save, typically in a batch
+     * Cash and shares have moved by the time this returns; only the journal write is deferred
+     * @param user the user placing the order
+     * @param symbol the stock symbol
+     * @param side buy or sell
+     * @param quantity the number of shares
+     * @return the transaction record, not yet saved
+     * @throws MarketDataUnavailableException if no sufficiently recent quote can be obtained
+     * @throws RuntimeException if the order fails validation
+     */
+    public Transaction executeUnjournaled(User user, String symbol, TransactionType side, Integer quantity) {
+        return run(user, symbol, side, quantity, null, null, false);
+    }
+
+    private Transaction run(User user, String symbol, TransactionType side, Integer quantity, BigDecimal limitPrice,
+                            String restingOrderId, boolean save) {
+        try {
+            OrderContext order = resolve(user, symbol, side, quantity);
+            validate(order);
+            price(order, limitPrice);
+            updatePosition(order);
+            Transaction transaction = journal(order, restingOrderId, save);
+            executed.increment();
+            return transaction;
+        } catch (RuntimeException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Get order execution counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("executed", executed.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    /**
+     * Resolve the instrument, quote and portfolio the order executes against
+     */
+    private OrderContext resolve(User user, String symbol, TransactionType side, Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be at least 1");
+        }
+        Stock instrument = stockService.getInstrument(symbol)
+                .orElseThrow(() -> new RuntimeException("Stock not found: " + symbol));
+        Quote quote = stockService.getExecutionQuote(symbol);
+        Portfolio portfolio = portfolioService.findPortfolio(user).orElseGet(() -> new Portfolio(user));
+        return new OrderContext(user, symbol, side, quantity, instrument, quote, portfolio);
+    }
+
+    private void validate(OrderContext order) {
+        if (order.getSide() == TransactionType.SELL && order.getPortfolio().getQuantity(order.getSymbol()) < order.getQuantity()) {
+            throw new RuntimeException("Insufficient shares to sell");
+        }
+    }
+
+    private void price(OrderContext order, BigDecimal limitPrice) {
+        BigDecimal price = Quote.toDecimal(order.getQuote().getCurrentPrice());
+        if (limitPrice != null) {
+            int comparison = price.compareTo(limitPrice);
+            if (order.getSide() == TransactionType.BUY ? comparison > 0 : comparison < 0) {
+                throw new LimitPriceNotMetException("Price " + price + " is worse than the limit " + limitPrice);
+            }
+        }
+        order.price(price);
+        if (order.getSide() == TransactionType.BUY && !userService.hasSufficientBalance(order.getUser(), order.getTotal())) {
+            throw new RuntimeException("Insufficient balance for this transaction");
+        }
+    }
+
+    /**
+     * Move cash and shares with conditional server-side updates
+     * The second update is compensated if it fails, so a failed order never leaves only one side applied
+     */
+    private void updatePosition(OrderContext order) {
+        User user = order.getUser();
+        if (order.getSide() == TransactionType.BUY) {
+            userService.deductBalance(user, order.getTotal());
+            try {
+                order.positionUpdated(portfolioService.addPosition(order.getPortfolio(), order.getSymbol(),
+                        order.getQuantity(), order.getPrice()));
+            } catch (RuntimeException e) {
+                userService.addBalance(user, order.getTotal());
+                throw e;
+            }
+        } else {
+            Portfolio before = order.getPortfolio();
+            order.positionUpdated(portfolioService.removePosition(before, order.getSymbol(), order.getQuantity()));
+            try {
+                userService.addBalance(user, order.getTotal());
+            } catch (RuntimeException e) {
+                portfolioService.addPosition(order.getPortfolio(), order.getSymbol(), order.getQuantity(),
+                        before.getAveragePrice(order.getSymbol()));
+                throw e;
+            }
+        }
+    }
+
+    private Transaction journal(OrderContext order, String restingOrderId, boolean save) {
+        Transaction transaction = new Transaction(order.getUser(), order.getSymbol(),
+                order.getInstrument().getCompanyName(), order.getSide(), order.getQuantity(), order.getPrice());
+        transaction.setNotes((order.getSide() == TransactionType.BUY ? "Buy" : "Sell")
+                + " order executed successfully");
+        transaction.setRestingOrderId(restingOrderId);
+        logger.debug("Executed {} {} x{} at {} (quote as of {})", order.getSide(), order.getSymbol(),
+                order.getQuantity(), order.getPrice(), order.getQuote().getAsOf());
+        return save ? transactionRepository.save(transaction) : transaction;
+    }
+}
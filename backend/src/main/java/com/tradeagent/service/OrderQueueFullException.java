@@ -0,0 +1,12 @@
+package com.tradeagent.service;
+
+/**
+ * Thrown when an order cannot be queued because its account's lane is full
+ * Callers should retry after a short delay
+ */
+public class OrderQueueFullException extends RuntimeException {
+
+    public OrderQueueFullException(String message) {
+        super(message);
+    }
+}
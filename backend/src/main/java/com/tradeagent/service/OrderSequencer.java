@@ -0,0 +1,280 @@
+package com.tradeagent.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Per-account single-writer order sequencing
+ * Accounts are hashed onto a fixed set of lanes, each drained by one thread, so orders for one account run strictly
+ * in submission order while orders for accounts on different lanes run in parallel. A full lane pushes back on
+ * submitters instead of growing without bound. On shutdown, intake stops and the lanes finish what they hold.
+ */
+@Service
+public class OrderSequencer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSequencer.class);
+
+    private static final long IDLE_POLL_MS = 100;
+
+    @Value("${trading.sequencer.lanes:8}")
+    private int laneCount;
+
+    @Value("${trading.sequencer.queue-capacity:1024}")
+    private int queueCapacity;
+
+    @Value("${trading.sequencer.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    @Value("${trading.sequencer.drain-timeout-ms:10000}")
+    private long drainTimeoutMs;
+
+    private Lane[] lanes;
+    private volatile boolean accepting;
+
+    @PostConstruct
+    void init() {
+        lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, queueCapacity);
+            lanes[i].thread.start();
+        }
+        accepting = true;
+    }
+
+    /**
+     * Stop taking work and let every lane finish what it has queued
+     * An order is never interrupted part way; work still queued when the drain timeout runs out is failed instead
+     */
+    @PreDestroy
+    void shutdown() {
+        accepting = false;
+        for (Lane lane : lanes) {
+            lane.stopping = true;
+        }
+
+        long deadline = System.currentTimeMillis() + drainTimeoutMs;
+        try {
+            for (Lane lane : lanes) {
+                lane.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        int abandoned = 0;
+        for (Lane lane : lanes) {
+            List<LaneTask<?>> leftover = new ArrayList<>();
+            lane.queue.drainTo(leftover);
+            for (LaneTask<?> task : leftover) {
+                task.future.completeExceptionally(new OrderQueueFullException("Order service is shutting down"));
+            }
+            abandoned += leftover.size();
+        }
+        if (abandoned > 0) {
+            logger.warn("Order lanes did not drain within {} ms; failed {} queued orders", drainTimeoutMs, abandoned);
+        }
+    }
+
+    /**
+     * Queue work on the lane of an account
+     * @param accountId the account the work belongs to
+     * @param work the work to run
+     * @return a future completed with the work's result, or exceptionally with what it threw
+     * @throws OrderQueueFullException if the lane stays full for the whole offer timeout, or on shutdown
+     */
+    public <T> CompletableFuture<T> submit(String accountId, Supplier<T> work) {
+        return enqueue(accountId, work, offerTimeoutMs);
+    }
+
+    /**
+     * Queue work on the lane of an account without waiting for room
+     * For callers that must never block, such as price tick listeners
+     * @param accountId the account the work belongs to
+     * @param work the work to run
+     * @return a future completed with the work's result, or exceptionally with what it threw
+     * @throws OrderQueueFullException if the lane is full, or on shutdown
+     */
+    public <T> CompletableFuture<T> trySubmit(String accountId, Supplier<T> work) {
+        return enqueue(accountId, work, 0);
+    }
+
+    private <T> CompletableFuture<T> enqueue(String accountId, Supplier<T> work, long timeoutMs) {
+        Lane lane = laneFor(accountId);
+        LaneTask<T> task = new LaneTask<>(work);
+        if (!accepting) {
+            lane.rejected.increment();
+            throw new OrderQueueFullException("Order service is shutting down");
+        }
+        try {
+            if (!lane.queue.offer(task, timeoutMs, TimeUnit.MILLISECONDS)) {
+                lane.rejected.increment();
+                throw new OrderQueueFullException("Too many pending orders; please retry shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lane.rejected.increment();
+            throw new OrderQueueFullException("Interrupted while queueing order");
+        }
+        // Shutdown began while offering; the lane may already have stopped, so take the task back if it is still queued
+        if (!accepting && lane.queue.remove(task)) {
+            lane.rejected.increment();
+            throw new OrderQueueFullException("Order service is shutting down");
+        }
+        return task.future;
+    }
+
+    /**
+     * Run work on the lane of an account and wait for it
+     * @param accountId the account the work belongs to
+     * @param work the work to run
+     * @return the work's result
+     * @throws OrderQueueFullException if the lane stays full for the whole offer timeout, or on shutdown
+     * @throws RuntimeException whatever the work threw
+     */
+    public <T> T execute(String accountId, Supplier<T> work) {
+        try {
+            return submit(accountId, work).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Get sequencer counters, with queue depth and latency per lane
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> laneStats = new ArrayList<>(lanes.length);
+        long processed = 0;
+        long rejected = 0;
+        int depth = 0;
+        for (Lane lane : lanes) {
+            Map<String, Object> stats = lane.getStats();
+            processed += (long) stats.get("processed");
+            rejected += (long) stats.get("rejected");
+            depth += (int) stats.get("depth");
+            laneStats.add(stats);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lanes", lanes.length);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("depth", depth);
+        stats.put("processed", processed);
+        stats.put("rejected", rejected);
+        stats.put("perLane", laneStats);
+        return stats;
+    }
+
+    private Lane laneFor(String accountId) {
+        int hash = accountId.hashCode();
+        return lanes[Math.floorMod(hash ^ (hash >>> 16), lanes.length)];
+    }
+
+    /**
+     * One queue and the single thread that drains it
+     */
+    private static class Lane {
+        private final int index;
+        private final BlockingQueue<LaneTask<?>> queue;
+        private final Thread thread;
+        private volatile boolean stopping;
+
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAdder totalLatencyNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        Lane(int index, int capacity) {
+            this.index = index;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this::drain, "order-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void drain() {
+            while (true) {
+                LaneTask<?> task;
+                try {
+                    task = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (task == null) {
+                    // Checked after stopping is seen, so work offered before intake closed is never stranded
+                    if (stopping && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                long started = System.nanoTime();
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    logger.error("Order lane {} task failed unexpectedly: {}", index, t.getMessage());
+                }
+                long finished = System.nanoTime();
+                processed.increment();
+                totalWaitNanos.add(started - task.enqueuedAt);
+                totalLatencyNanos.add(finished - task.enqueuedAt);
+                maxLatencyNanos.accumulateAndGet(finished - task.enqueuedAt, Math::max);
+            }
+        }
+
+        Map<String, Object> getStats() {
+            long count = processed.sum();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("lane", index);
+            stats.put("depth", queue.size());
+            stats.put("processed", count);
+            stats.put("rejected", rejected.sum());
+            stats.put("averageWaitMicros", count > 0 ? totalWaitNanos.sum() / 1000.0 / count : 0.0);
+            stats.put("averageLatencyMicros", count > 0 ? totalLatencyNanos.sum() / 1000.0 / count : 0.0);
+            stats.put("maxLatencyMicros", maxLatencyNanos.get() / 1000.0);
+            return stats;
+        }
+    }
+
+    /**
+     * Queued work and the future its caller waits on
+     */
+    private static class LaneTask<T> {
+        private final Supplier<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long enqueuedAt = System.nanoTime();
+
+        LaneTask(Supplier<T> work) {
+            this.work = work;
+        }
+
+        void run() {
+            try {
+                future.complete(work.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.tradeagent.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tradeagent.model.OrderStatus;
+import com.tradeagent.model.Transaction;
+import com.tradeagent.model.TransactionType;
+import com.tradeagent.model.User;
+
+/**
+ * Status of one asynchronously submitted order, as returned to polling clients
+ * Written by the order entry stages and read by request threads, so mutable fields are volatile
+ */
+public class OrderTicket {
+
+    private final String id;
+    private final User user;
+    private final String symbol;
+    private final TransactionType side;
+    private final int quantity;
+    private final long submittedAt;
+
+    private volatile OrderStatus status = OrderStatus.PENDING;
+    private volatile String reason;
+    private volatile Transaction transaction;
+    private volatile long completedAt;
+
+    OrderTicket(String id, User user, String symbol, TransactionType side, int quantity) {
+        this.id = id;
+        this.user = user;
+        this.symbol = symbol;
+        this.side = side;
+        this.quantity = quantity;
+        this.submittedAt = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @JsonIgnore
+    public User getUser() {
+        return user;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public TransactionType getSide() {
+        return side;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Get why the order was rejected
+     * @return the reason, or null unless the order was rejected
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Get the transaction the order produced
+     * @return the transaction, or null until the order is executed
+     */
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    /**
+     * Get when the order reached a final status
+     * @return epoch millis, or 0 while the order is in flight
+     */
+    public long getCompletedAt() {
+        return completedAt;
+    }
+
+    @JsonIgnore
+    public boolean isCompleted() {
+        return status == OrderStatus.FILLED || status == OrderStatus.REJECTED;
+    }
+
+    void accept() {
+        status = OrderStatus.ACCEPTED;
+    }
+
+    void executed(Transaction transaction) {
+        this.transaction = transaction;
+        status = OrderStatus.EXECUTED;
+    }
+
+    void fill(Transaction transaction) {
+        this.transaction = transaction;
+        completedAt = System.currentTimeMillis();
+        status = OrderStatus.FILLED;
+    }
+
+    void reject(String reason) {
+        this.reason = reason;
+        completedAt = System.currentTimeMillis();
+        status = OrderStatus.REJECTED;
+    }
+}
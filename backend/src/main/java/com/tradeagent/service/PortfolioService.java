@@ -0,0 +1,129 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.Portfolio;
+import com.tradeagent.model.User;
+
+/**
+ * Atomic position updates on portfolios
+ * Every change is one conditional update executed by MongoDB that returns the post-image, so concurrent orders
+ * for one user never overwrite each other's holdings. Portfolios are read without resolving the user reference,
+ * since callers already hold the user.
+ */
+@Service
+public class PortfolioService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Find a user's portfolio
+     * @param user the user
+     * @return Optional containing the portfolio if the user has one
+     */
+    public Optional<Portfolio> findPortfolio(User user) {
+        Query query = Query.query(Criteria.where("user").is(user));
+        query.fields().exclude("user");
+        return Optional.ofNullable(withUser(mongoTemplate.findOne(query, Portfolio.class), user));
+    }
+
+    /**
+     * Find a user's portfolio, creating an empty one if the user has none
+     * One upsert by user, so concurrent first reads and orders end up sharing a single portfolio
+     * @param user the user
+     * @return the stored portfolio
+     */
+    public Portfolio getOrCreatePortfolio(User user) {
+        Query query = Query.query(Criteria.where("user").is(user));
+        query.fields().exclude("user");
+        Update update = new Update().setOnInsert("holdings", new Document()).setOnInsert("averagePrices", new Document());
+        return withUser(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true).upsert(true), Portfolio.class), user);
+    }
+
+    /**
+     * Add shares to a position and fold the price into its average price
+     * Creates the portfolio if it has not been stored yet
+     * @param portfolio the portfolio
+     * @param symbol the stock symbol
+     * @param quantity the number of shares bought
+     * @param price the price per share
+     * @return the portfolio as stored after the update
+     */
+    public Portfolio addPosition(Portfolio portfolio, String symbol, int quantity, BigDecimal price) {
+        Object held = new Document("$ifNull", List.of("$holdings." + symbol, 0));
+        Object heldPrice = new Document("$ifNull", List.of("$averagePrices." + symbol, Decimal128.POSITIVE_ZERO));
+        Object cost = new Document("$add", List.of(
+                new Document("$multiply", List.of(heldPrice, held)),
+                new Decimal128(price.multiply(BigDecimal.valueOf(quantity)))));
+        Object newQuantity = new Document("$add", List.of(held, quantity));
+        Object averagePrice = new Document("$round", List.of(new Document("$divide", List.of(cost, newQuantity)), 2));
+
+        // Both fields are computed from the pre-image within one stage
+        AggregationUpdate update = AggregationUpdate.from(List.of(context -> new Document("$set",
+                new Document("holdings." + symbol, newQuantity).append("averagePrices." + symbol, averagePrice))));
+
+        boolean stored = portfolio.getId() != null;
+        Query query = stored
+                ? Query.query(Criteria.where("_id").is(portfolio.getId()))
+                : Query.query(Criteria.where("user").is(portfolio.getUser()));
+        query.fields().exclude("user");
+        Portfolio updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true).upsert(!stored), Portfolio.class);
+        if (updated == null) {
+            throw new RuntimeException("Portfolio not found");
+        }
+        return withUser(updated, portfolio.getUser());
+    }
+
+    /**
+     * Remove shares from a position, only if the position holds at least that many
+     * A position that reaches zero is dropped along with its average price
+     * @param portfolio the stored portfolio
+     * @param symbol the stock symbol
+     * @param quantity the number of shares sold
+     * @return the portfolio as stored after the update
+     */
+    public Portfolio removePosition(Portfolio portfolio, String symbol, int quantity) {
+        String holding = "holdings." + symbol;
+        Query query = Query.query(Criteria.where("_id").is(portfolio.getId()).and(holding).gte(quantity));
+        query.fields().exclude("user");
+        Portfolio updated = mongoTemplate.findAndModify(query, new Update().inc(holding, -quantity),
+                FindAndModifyOptions.options().returnNew(true), Portfolio.class);
+        if (updated == null) {
+            throw new RuntimeException("Insufficient shares to sell");
+        }
+
+        if (updated.getQuantity(symbol) == 0) {
+            // Guarded on zero, so a concurrent buy landing in between keeps its shares
+            Query closed = Query.query(Criteria.where("_id").is(portfolio.getId()).and(holding).is(0));
+            if (mongoTemplate.updateFirst(closed, new Update().unset(holding).unset("averagePrices." + symbol),
+                    Portfolio.class).getModifiedCount() > 0) {
+                updated.getHoldings().remove(symbol);
+                updated.getAveragePrices().remove(symbol);
+            }
+        }
+        return withUser(updated, portfolio.getUser());
+    }
+
+    private Portfolio withUser(Portfolio portfolio, User user) {
+        if (portfolio != null) {
+            portfolio.setUser(user);
+        }
+        return portfolio;
+    }
+}
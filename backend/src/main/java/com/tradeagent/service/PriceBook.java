@@ -0,0 +1,337 @@
+package com.tradeagent.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.Quote;
+
+/**
+ * In-memory book of the latest quote per symbol
+ * Written by the market data refresher, read by every price read path.
+ * Each symbol owns a slot in parallel fixed-point long arrays; a per-slot sequence number works as a seqlock,
+ * so one writer updates a slot at a time without blocking readers, and readers retry until they see a
+ * consistent snapshot.
+ */
+@Service
+public class PriceBook {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceBook.class);
+
+    private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int capacity;
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    // Even while a slot is stable, odd while a writer holds it
+    private final long[] sequences;
+    private final long[] prices;
+    private final long[] previousCloses;
+    private final long[] opens;
+    private final long[] highs;
+    private final long[] lows;
+    private final long[] changes;
+    private final long[] changePercents;
+    private final long[] asOfs;
+    // Bumped only when a price field changes, unlike the sequence which moves on every accepted update
+    private final long[] versions;
+    private final boolean[] staleFlags;
+
+    private final Map<String, LongAdder> demand = new ConcurrentHashMap<>();
+    private final List<PriceBookListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder readMisses = new LongAdder();
+    private final LongAdder readRetries = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder staleUpdatesIgnored = new LongAdder();
+    private final LongAdder capacityRejected = new LongAdder();
+
+    public PriceBook(@Value("${marketdata.price-book.capacity:16384}") int capacity) {
+        this.capacity = capacity;
+        this.sequences = new long[capacity];
+        this.prices = new long[capacity];
+        this.previousCloses = new long[capacity];
+        this.opens = new long[capacity];
+        this.highs = new long[capacity];
+        this.lows = new long[capacity];
+        this.changes = new long[capacity];
+        this.changePercents = new long[capacity];
+        this.asOfs = new long[capacity];
+        this.versions = new long[capacity];
+        this.staleFlags = new boolean[capacity];
+    }
+
+    /**
+     * Get the latest quote for a symbol and count the read as demand
+     * @param symbol the stock symbol
+     * @return the quote, or null if the symbol has not been priced yet
+     */
+    public Quote getQuote(String symbol) {
+        reads.increment();
+
+        Integer assigned = slots.get(symbol);
+        if (assigned == null) {
+            readMisses.increment();
+            return null;
+        }
+        // Only symbols with a slot count, so arbitrary request strings cannot grow the demand map
+        demand.computeIfAbsent(symbol, key -> new LongAdder()).increment();
+        return read(symbol, assigned);
+    }
+
+    /**
+     * Get the latest quote for a symbol without counting the read as demand
+     * For bulk reads such as stream snapshots, which should not speed up refreshes
+     * @param symbol the stock symbol
+     * @return the quote, or null if the symbol has not been priced yet
+     */
+    public Quote peekQuote(String symbol) {
+        reads.increment();
+
+        Integer assigned = slots.get(symbol);
+        if (assigned == null) {
+            readMisses.increment();
+            return null;
+        }
+        return read(symbol, assigned);
+    }
+
+    /**
+     * Store the latest quote for a symbol
+     * The quote's fetch time is used as its age; a quote older than the stored one is ignored
+     * @param symbol the stock symbol
+     * @param quote the quote
+     */
+    public void update(String symbol, Quote quote) {
+        Integer assigned = slotFor(symbol);
+        if (assigned == null) {
+            capacityRejected.increment();
+            return;
+        }
+
+        int slot = assigned;
+        long sequence = acquire(slot);
+        boolean accepted = sequence == 0 || quote.getAsOf() >= asOfs[slot];
+        boolean changed = accepted && (sequence == 0 || !samePrices(slot, quote));
+        if (accepted) {
+            prices[slot] = quote.getCurrentPrice();
+            previousCloses[slot] = quote.getPreviousClose();
+            opens[slot] = quote.getOpenPrice();
+            highs[slot] = quote.getHighPrice();
+            lows[slot] = quote.getLowPrice();
+            changes[slot] = quote.getChange();
+            changePercents[slot] = quote.getChangePercent();
+            asOfs[slot] = quote.getAsOf();
+            staleFlags[slot] = quote.isStale();
+            if (changed) {
+                versions[slot]++;
+            }
+            SEQUENCES.setRelease(sequences, slot, sequence + 2);
+        } else {
+            SEQUENCES.setRelease(sequences, slot, sequence);
+        }
+
+        if (changed) {
+            // After the slot is published, so a version never runs ahead of the data it describes
+            version.incrementAndGet();
+        }
+        if (accepted) {
+            updates.increment();
+            notifyListeners(symbol, quote);
+        } else {
+            staleUpdatesIgnored.increment();
+        }
+    }
+
+    /**
+     * Register a listener for every quote accepted into the book
+     * @param listener the listener
+     */
+    public void addListener(PriceBookListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Get the time the symbol was last priced
+     * @param symbol the stock symbol
+     * @return epoch millis of the last update, or 0 if never priced
+     */
+    public long getUpdatedAt(String symbol) {
+        Integer assigned = slots.get(symbol);
+        return assigned != null ? readColumn(assigned, asOfs) : 0L;
+    }
+
+    /**
+     * Get the price version of a symbol
+     * Increases every time one of the symbol's price fields changes
+     * @param symbol the stock symbol
+     * @return the version, or 0 if never priced
+     */
+    public long getVersion(String symbol) {
+        Integer assigned = slots.get(symbol);
+        return assigned != null ? readColumn(assigned, versions) : 0L;
+    }
+
+    /**
+     * Get the price version of the whole book
+     * Increases every time any symbol's price fields change
+     * @return the version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Read and reset the demand counters accumulated since the last call
+     * @return map of symbol to number of reads
+     */
+    public Map<String, Long> drainDemand() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> entry : demand.entrySet()) {
+            long count = entry.getValue().sumThenReset();
+            if (count > 0) {
+                snapshot.put(entry.getKey(), count);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Get all priced symbols
+     * @return set of symbols present in the book
+     */
+    public Set<String> getSymbols() {
+        return Collections.unmodifiableSet(slots.keySet());
+    }
+
+    /**
+     * Get price book counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("symbols", slots.size());
+        stats.put("capacity", capacity);
+        stats.put("version", version.get());
+        stats.put("reads", reads.sum());
+        stats.put("readMisses", readMisses.sum());
+        stats.put("readRetries", readRetries.sum());
+        stats.put("updates", updates.sum());
+        stats.put("staleUpdatesIgnored", staleUpdatesIgnored.sum());
+        stats.put("capacityRejected", capacityRejected.sum());
+        return stats;
+    }
+
+    /**
+     * Find or assign the slot for a symbol
+     * @return the slot, or null if the book is full
+     */
+    private Integer slotFor(String symbol) {
+        Integer slot = slots.get(symbol);
+        if (slot != null) {
+            return slot;
+        }
+        return slots.computeIfAbsent(symbol, key -> {
+            int assigned = nextSlot.getAndIncrement();
+            if (assigned >= capacity) {
+                nextSlot.decrementAndGet();
+                logger.warn("Price book is full ({} symbols); not storing {}", capacity, key);
+                return null;
+            }
+            return assigned;
+        });
+    }
+
+    /**
+     * Read a whole slot consistently with its sequence
+     * @return the quote, or null if the slot's first write has not landed yet
+     */
+    private Quote read(String symbol, int slot) {
+        while (true) {
+            long sequence = (long) SEQUENCES.getAcquire(sequences, slot);
+            if ((sequence & 1) == 0) {
+                if (sequence == 0) {
+                    // Slot assigned but its first write has not landed yet
+                    readMisses.increment();
+                    return null;
+                }
+                Quote quote = new Quote(symbol, prices[slot], changes[slot], changePercents[slot], highs[slot],
+                        lows[slot], opens[slot], previousCloses[slot], asOfs[slot], staleFlags[slot]);
+                VarHandle.acquireFence();
+                if ((long) SEQUENCES.getVolatile(sequences, slot) == sequence) {
+                    return quote;
+                }
+            }
+            readRetries.increment();
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Read one column of a slot consistently with the slot's sequence
+     */
+    private long readColumn(int slot, long[] column) {
+        while (true) {
+            long sequence = (long) SEQUENCES.getAcquire(sequences, slot);
+            if ((sequence & 1) == 0) {
+                long value = column[slot];
+                VarHandle.acquireFence();
+                if ((long) SEQUENCES.getVolatile(sequences, slot) == sequence) {
+                    return value;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private boolean samePrices(int slot, Quote quote) {
+        return prices[slot] == quote.getCurrentPrice()
+                && previousCloses[slot] == quote.getPreviousClose()
+                && opens[slot] == quote.getOpenPrice()
+                && highs[slot] == quote.getHighPrice()
+                && lows[slot] == quote.getLowPrice()
+                && changes[slot] == quote.getChange()
+                && changePercents[slot] == quote.getChangePercent();
+    }
+
+    /**
+     * Take exclusive write access to a slot by moving its sequence from even to odd
+     * @return the even sequence the slot had before
+     */
+    private long acquire(int slot) {
+        while (true) {
+            long sequence = (long) SEQUENCES.getVolatile(sequences, slot);
+            if ((sequence & 1) == 0 && SEQUENCES.compareAndSet(sequences, slot, sequence, sequence + 1)) {
+                return sequence;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void notifyListeners(String symbol, Quote quote) {
+        for (PriceBookListener listener : listeners) {
+            try {
+                listener.onQuote(quote);
+            } catch (RuntimeException e) {
+                logger.warn("Price book listener failed for {}: {}", symbol, e.getMessage());
+            }
+        }
+    }
+}
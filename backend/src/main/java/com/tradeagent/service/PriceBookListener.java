@@ -0,0 +1,16 @@
+package com.tradeagent.service;
+
+import com.tradeagent.model.Quote;
+
+/**
+ * Callback for quotes accepted into the PriceBook
+ * Invoked on the updating thread, so implementations must be fast and non-blocking
+ */
+public interface PriceBookListener {
+
+    /**
+     * Handle a quote that was just stored
+     * @param quote the quote
+     */
+    void onQuote(Quote quote);
+}
@@ -0,0 +1,406 @@
+package com.tradeagent.service;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.tradeagent.model.Quote;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Server-Sent Events fan-out of price changes
+ * Listens to the PriceBook, drops quotes whose prices did not change and serializes each change once.
+ * Every subscriber has a conflating buffer holding only the latest change per symbol; buffers are flushed
+ * at a capped rate on a separate pool, so a slow client only delays itself, and a client that stays behind
+ * for too long is disconnected.
+ */
+@Service
+public class PriceStreamService implements PriceBookListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceStreamService.class);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Value("${marketdata.stream.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${marketdata.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${marketdata.stream.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${marketdata.stream.flush-interval-ms:250}")
+    private long flushIntervalMs;
+
+    @Value("${marketdata.stream.flush-threads:4}")
+    private int flushThreads;
+
+    @Value("${marketdata.stream.max-lag-ms:10000}")
+    private long maxLagMs;
+
+    @Value("${marketdata.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong nextSubscriberId = new AtomicLong();
+
+    // Last quote pushed per symbol, so unchanged refreshes are not streamed
+    private final Map<String, Quote> lastPublished = new ConcurrentHashMap<>();
+
+    private BlockingQueue<Quote> pending;
+    private Thread dispatcher;
+    private ScheduledExecutorService flushScheduler;
+    private ExecutorService flushExecutor;
+    private volatile boolean running;
+
+    private final LongAdder quotesReceived = new LongAdder();
+    private final LongAdder unchangedSkipped = new LongAdder();
+    private final LongAdder changesDropped = new LongAdder();
+    private final LongAdder changesPublished = new LongAdder();
+    private final LongAdder eventsConflated = new LongAdder();
+    private final LongAdder eventsSent = new LongAdder();
+    private final LongAdder subscribersRejected = new LongAdder();
+    private final LongAdder subscribersFailed = new LongAdder();
+    private final LongAdder subscribersLagging = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        pending = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "price-stream-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        flushExecutor = Executors.newFixedThreadPool(flushThreads, runnable -> {
+            Thread thread = new Thread(runnable, "price-stream-flush-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-stream-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler.scheduleWithFixedDelay(this::scheduleFlushes, flushIntervalMs, flushIntervalMs,
+                TimeUnit.MILLISECONDS);
+
+        priceBook.addListener(this);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        dispatcher.interrupt();
+        flushScheduler.shutdownNow();
+        flushExecutor.shutdownNow();
+        for (Subscriber subscriber : subscribers.values()) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    @Override
+    public void onQuote(Quote quote) {
+        quotesReceived.increment();
+        Quote previous = lastPublished.get(quote.getSymbol());
+        if (previous != null && samePrices(previous, quote)) {
+            unchangedSkipped.increment();
+            return;
+        }
+        // Never block the price book writer; a full queue means the dispatcher cannot keep up
+        if (!pending.offer(quote)) {
+            // Not recorded as published, so the next quote for the symbol still counts as a change
+            changesDropped.increment();
+            return;
+        }
+        lastPublished.put(quote.getSymbol(), quote);
+    }
+
+    /**
+     * Open a price stream
+     * The current price of every matching symbol is sent first, then each change as it happens
+     * @param symbols the symbols to stream, or null or empty for all symbols
+     * @return the emitter to return from the controller
+     * @throws IllegalStateException if the subscriber limit is reached
+     */
+    public SseEmitter subscribe(Collection<String> symbols) {
+        if (subscribers.size() >= maxSubscribers) {
+            subscribersRejected.increment();
+            throw new IllegalStateException("Too many price stream subscribers");
+        }
+
+        Set<String> filter = symbols == null || symbols.isEmpty() ? null : Set.copyOf(symbols);
+        long id = nextSubscriberId.incrementAndGet();
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(id, emitter, filter);
+
+        emitter.onCompletion(() -> subscribers.remove(id));
+        emitter.onTimeout(() -> subscribers.remove(id));
+        emitter.onError(e -> subscribers.remove(id));
+
+        // Register before taking the snapshot, so a change racing the snapshot is buffered rather than lost
+        subscribers.put(id, subscriber);
+        Collection<String> snapshotSymbols = filter != null ? filter : priceBook.getSymbols();
+        for (String symbol : snapshotSymbols) {
+            // A snapshot is not a read of interest; counting it would pin every symbol at the fastest refresh
+            Quote quote = priceBook.peekQuote(symbol);
+            if (quote != null) {
+                subscriber.offer(symbol, toJson(quote));
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Get price stream counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        long now = System.currentTimeMillis();
+        long maxLag = 0;
+        for (Subscriber subscriber : subscribers.values()) {
+            maxLag = Math.max(maxLag, subscriber.lagMillis(now));
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("maxSubscriberLagMillis", maxLag);
+        stats.put("pending", pending.size());
+        stats.put("quotesReceived", quotesReceived.sum());
+        stats.put("unchangedSkipped", unchangedSkipped.sum());
+        stats.put("changesDropped", changesDropped.sum());
+        stats.put("changesPublished", changesPublished.sum());
+        stats.put("eventsConflated", eventsConflated.sum());
+        stats.put("eventsSent", eventsSent.sum());
+        stats.put("subscribersRejected", subscribersRejected.sum());
+        stats.put("subscribersFailed", subscribersFailed.sum());
+        stats.put("subscribersLagging", subscribersLagging.sum());
+        return stats;
+    }
+
+    /**
+     * Get lag and delivery counters per subscriber, most lagging first
+     * @param limit the maximum number of subscribers to return
+     * @return list of per-subscriber counter maps
+     */
+    public List<Map<String, Object>> getSubscriberStats(int limit) {
+        long now = System.currentTimeMillis();
+        List<Subscriber> ordered = new ArrayList<>(subscribers.values());
+        ordered.sort(Comparator.comparingLong((Subscriber subscriber) -> subscriber.lagMillis(now)).reversed());
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Subscriber subscriber : ordered.subList(0, Math.min(limit, ordered.size()))) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("id", subscriber.id);
+            stats.put("symbols", subscriber.symbols != null ? subscriber.symbols.size() : "all");
+            stats.put("connectedMillis", now - subscriber.connectedAt);
+            stats.put("lagMillis", subscriber.lagMillis(now));
+            stats.put("pendingSymbols", subscriber.latest.size());
+            stats.put("flushing", subscriber.flushing.get());
+            stats.put("eventsSent", subscriber.eventsSent.sum());
+            stats.put("eventsConflated", subscriber.eventsConflated.sum());
+            result.add(stats);
+        }
+        return result;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                Quote quote = pending.take();
+                publish(quote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Price stream dispatch failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Hand a change to every matching subscriber's buffer; never touches a connection
+     */
+    private void publish(Quote quote) {
+        changesPublished.increment();
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        // Serialized once and shared by every subscriber
+        String json = toJson(quote);
+        for (Subscriber subscriber : subscribers.values()) {
+            if (subscriber.symbols == null || subscriber.symbols.contains(quote.getSymbol())) {
+                subscriber.offer(quote.getSymbol(), json);
+            }
+        }
+    }
+
+    /**
+     * Start a flush for every subscriber with buffered changes or a heartbeat due, and cut off lagging ones
+     */
+    private void scheduleFlushes() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers.values()) {
+            try {
+                if (subscriber.lagMillis(now) > maxLagMs) {
+                    subscribersLagging.increment();
+                    logger.info("Disconnecting price stream subscriber {}: {} ms behind", subscriber.id,
+                            subscriber.lagMillis(now));
+                    disconnect(subscriber, new IOException("Subscriber too slow"));
+                    continue;
+                }
+
+                boolean heartbeatDue = now - subscriber.lastSentAt >= heartbeatMs;
+                if ((subscriber.latest.isEmpty() && !heartbeatDue) || !subscriber.flushing.compareAndSet(false, true)) {
+                    continue;
+                }
+                flushExecutor.execute(() -> flush(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.flushing.set(false);
+            } catch (RuntimeException e) {
+                logger.warn("Price stream flush scheduling failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void flush(Subscriber subscriber) {
+        try {
+            if (subscriber.latest.isEmpty()) {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else {
+                // The oldest change leaves the buffer now; later ones restart the lag clock
+                subscriber.pendingSince.set(0);
+                Iterator<Map.Entry<String, String>> iterator = subscriber.latest.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, String> entry = iterator.next();
+                    String json = entry.getValue();
+                    // Only remove the value we send; a newer one stays for the next flush
+                    subscriber.latest.remove(entry.getKey(), json);
+                    subscriber.emitter.send(SseEmitter.event().name("price").data(json, MediaType.APPLICATION_JSON));
+                    subscriber.eventsSent.increment();
+                    eventsSent.increment();
+                }
+            }
+            subscriber.lastSentAt = System.currentTimeMillis();
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping price stream subscriber {}: {}", subscriber.id, e.getMessage());
+            disconnect(subscriber, e);
+        } finally {
+            subscriber.flushing.set(false);
+        }
+    }
+
+    private void disconnect(Subscriber subscriber, Exception cause) {
+        if (subscribers.remove(subscriber.id) != null) {
+            subscribersFailed.increment();
+            subscriber.emitter.completeWithError(cause);
+        }
+    }
+
+    private static boolean samePrices(Quote a, Quote b) {
+        return a.getCurrentPrice() == b.getCurrentPrice()
+                && a.getPreviousClose() == b.getPreviousClose()
+                && a.getHighPrice() == b.getHighPrice()
+                && a.getLowPrice() == b.getLowPrice()
+                && a.getOpenPrice() == b.getOpenPrice();
+    }
+
+    /**
+     * Serialize a price change using the Stock field names, so clients can merge it into their stock list
+     */
+    static String toJson(Quote quote) {
+        StringWriter writer = new StringWriter(192);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeStringField("symbol", quote.getSymbol());
+            generator.writeNumberField("currentPrice", Quote.toDecimal(quote.getCurrentPrice()));
+            generator.writeNumberField("previousClose", Quote.toDecimal(quote.getPreviousClose()));
+            generator.writeNumberField("changeAmount", Quote.toDecimal(quote.getChange()));
+            generator.writeNumberField("changePercent", Quote.toDecimal(quote.getChangePercent()));
+            generator.writeNumberField("openPrice", Quote.toDecimal(quote.getOpenPrice()));
+            generator.writeNumberField("dayHigh", Quote.toDecimal(quote.getHighPrice()));
+            generator.writeNumberField("dayLow", Quote.toDecimal(quote.getLowPrice()));
+            generator.writeNumberField("asOf", quote.getAsOf());
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize price update for " + quote.getSymbol(), e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * One open stream, its symbol filter and its conflating buffer; a null filter means every symbol
+     */
+    private class Subscriber {
+        private final long id;
+        private final SseEmitter emitter;
+        private final Set<String> symbols;
+        private final long connectedAt = System.currentTimeMillis();
+
+        // Latest serialized change per symbol not yet sent; older ones are overwritten
+        private final Map<String, String> latest = new ConcurrentHashMap<>();
+        // When the oldest unsent change was buffered, or 0 if the buffer was flushed since
+        private final AtomicLong pendingSince = new AtomicLong();
+        private final AtomicBoolean flushing = new AtomicBoolean();
+        private volatile long lastSentAt = System.currentTimeMillis();
+
+        private final LongAdder eventsSent = new LongAdder();
+        private final LongAdder eventsConflated = new LongAdder();
+
+        Subscriber(long id, SseEmitter emitter, Set<String> symbols) {
+            this.id = id;
+            this.emitter = emitter;
+            this.symbols = symbols;
+        }
+
+        void offer(String symbol, String json) {
+            if (latest.put(symbol, json) != null) {
+                eventsConflated.increment();
+                PriceStreamService.this.eventsConflated.increment();
+            }
+            pendingSince.compareAndSet(0, System.currentTimeMillis());
+        }
+
+        long lagMillis(long now) {
+            long since = pendingSince.get();
+            return since == 0 ? 0 : now - since;
+        }
+    }
+}
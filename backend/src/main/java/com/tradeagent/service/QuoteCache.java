@@ -0,0 +1,229 @@
+package com.tradeagent.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import com.tradeagent.model.Quote;
+
+/**
+ * Bounded in-memory quote cache in front of the upstream quote source
+ * Serves fresh entries directly, serves stale entries while a single background refresh runs.
+ * Reads are lock-free; writes go through one lock that also keeps store order, so the least recently stored
+ * entry is evicted in O(1) and the bound is never exceeded.
+ */
+@Service
+public class QuoteCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteCache.class);
+
+    @Autowired
+    private QuoteRequestCoalescer quoteRequestCoalescer;
+
+    @Value("${marketdata.quote-cache.ttl-ms:5000}")
+    private long defaultTtlMs;
+
+    @Value("${marketdata.quote-cache.max-stale-ms:60000}")
+    private long maxStaleMs;
+
+    @Value("${marketdata.quote-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${marketdata.quote-cache.refresh-threads:4}")
+    private int refreshThreads;
+
+    // Comma separated SYMBOL=ttlMs overrides, e.g. "TSLA=1000,INTC=30000"
+    @Value("${marketdata.quote-cache.symbol-ttl-ms:}")
+    private String symbolTtlOverrides;
+
+    private final Map<String, CachedQuote> entries = new ConcurrentHashMap<>();
+    // Same entries, oldest store first; guarded by itself, which every write to entries holds
+    private final LinkedHashMap<String, CachedQuote> storeOrder = new LinkedHashMap<>();
+    private final Map<String, Long> symbolTtls = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private ExecutorService refreshExecutor;
+
+    @PostConstruct
+    void init() {
+        parseSymbolTtls();
+        AtomicInteger threadCount = new AtomicInteger();
+        refreshExecutor = Executors.newFixedThreadPool(refreshThreads, runnable -> {
+            Thread thread = new Thread(runnable, "quote-refresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Get a quote for the symbol, going upstream only on a miss
+     * Expired entries within the stale window are returned as-is while one refresh runs in the background
+     * @param symbol the stock symbol
+     * @return the quote
+     */
+    public Quote getQuote(String symbol) {
+        long now = System.currentTimeMillis();
+        CachedQuote cached = entries.get(symbol);
+
+        if (cached != null) {
+            long age = now - cached.fetchedAt;
+            long ttl = getTtl(symbol);
+
+            if (age < ttl) {
+                hits.increment();
+                return cached.data;
+            }
+
+            if (age < ttl + maxStaleMs) {
+                staleHits.increment();
+                scheduleRefresh(symbol, cached);
+                return cached.data;
+            }
+        }
+
+        misses.increment();
+        return load(symbol, QuotePriority.INTERACTIVE);
+    }
+
+    /**
+     * Drop a cached quote so the next lookup goes upstream
+     * @param symbol the stock symbol
+     */
+    public void invalidate(String symbol) {
+        synchronized (storeOrder) {
+            storeOrder.remove(symbol);
+            entries.remove(symbol);
+        }
+    }
+
+    /**
+     * Get cache counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.sum());
+        stats.put("staleHits", staleHits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("refreshes", refreshes.sum());
+        stats.put("refreshFailures", refreshFailures.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private Quote load(String symbol, QuotePriority priority) {
+        Quote data = quoteRequestCoalescer.getQuote(symbol, priority);
+        // Last-known-good fallbacks are passed through but not cached, so the next read retries upstream
+        if (!data.isStale()) {
+            store(symbol, data);
+        }
+        return data;
+    }
+
+    private void scheduleRefresh(String symbol, CachedQuote cached) {
+        // Only the caller that flips the flag triggers the upstream call
+        if (!cached.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refreshes.increment();
+                    load(symbol, QuotePriority.BACKGROUND);
+                } catch (Exception e) {
+                    refreshFailures.increment();
+                    logger.warn("Background quote refresh failed for {}: {}", symbol, e.getMessage());
+                } finally {
+                    cached.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cached.refreshing.set(false);
+        }
+    }
+
+    private void store(String symbol, Quote data) {
+        CachedQuote cached = new CachedQuote(data, System.currentTimeMillis());
+        synchronized (storeOrder) {
+            // Re-inserted, so a refreshed entry moves to the young end
+            storeOrder.remove(symbol);
+            storeOrder.put(symbol, cached);
+            entries.put(symbol, cached);
+
+            Iterator<String> oldest = storeOrder.keySet().iterator();
+            while (storeOrder.size() > maxEntries) {
+                entries.remove(oldest.next());
+                oldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private long getTtl(String symbol) {
+        return symbolTtls.getOrDefault(symbol, defaultTtlMs);
+    }
+
+    private void parseSymbolTtls() {
+        if (symbolTtlOverrides == null || symbolTtlOverrides.isBlank()) {
+            return;
+        }
+
+        for (String pair : symbolTtlOverrides.split(",")) {
+            String[] parts = pair.trim().split("=");
+            if (parts.length != 2) {
+                logger.warn("Ignoring malformed quote TTL override: {}", pair);
+                continue;
+            }
+            try {
+                symbolTtls.put(parts[0].trim(), Long.parseLong(parts[1].trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring malformed quote TTL override: {}", pair);
+            }
+        }
+    }
+
+    /**
+     * Cache entry holding an immutable quote and its refresh flag
+     */
+    private static class CachedQuote {
+        private final Quote data;
+        private final long fetchedAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        CachedQuote(Quote data, long fetchedAt) {
+            this.data = data;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.tradeagent.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.tradeagent.model.Quote;
+
+/**
+ * Streaming JSON codec for quotes
+ * Reads Finnhub quote responses (c, d, dp, h, l, o, pc) in a single pass straight into fixed-point values,
+ * without building a tree or boxing numbers. Recorded sessions use the same field names plus symbol and asOf.
+ */
+public final class QuoteJson {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private QuoteJson() {
+    }
+
+    /**
+     * Parse a quote from response bytes
+     * @param content the JSON bytes
+     * @param symbol the symbol, unless the content carries one
+     * @param asOf the fetch time, unless the content carries one
+     * @return the quote
+     * @throws IOException if the content is not a valid quote object
+     */
+    public static Quote parse(byte[] content, String symbol, long asOf) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(content)) {
+            return read(parser, symbol, asOf);
+        }
+    }
+
+    /**
+     * Parse a quote from a response stream
+     * @param content the JSON stream; it is not closed
+     * @param symbol the symbol, unless the content carries one
+     * @param asOf the fetch time, unless the content carries one
+     * @return the quote
+     * @throws IOException if the content is not a valid quote object
+     */
+    public static Quote parse(InputStream content, String symbol, long asOf) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(content)) {
+            return read(parser, symbol, asOf);
+        }
+    }
+
+    /**
+     * Write a quote as a single-line JSON object including symbol and asOf
+     * @param quote the quote
+     * @return the JSON text
+     * @throws IOException if writing fails
+     */
+    public static String write(Quote quote) throws IOException {
+        StringWriter writer = new StringWriter(160);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeStringField("symbol", quote.getSymbol());
+            generator.writeNumberField("asOf", quote.getAsOf());
+            generator.writeNumberField("c", Quote.toDecimal(quote.getCurrentPrice()));
+            generator.writeNumberField("d", Quote.toDecimal(quote.getChange()));
+            generator.writeNumberField("dp", Quote.toDecimal(quote.getChangePercent()));
+            generator.writeNumberField("h", Quote.toDecimal(quote.getHighPrice()));
+            generator.writeNumberField("l", Quote.toDecimal(quote.getLowPrice()));
+            generator.writeNumberField("o", Quote.toDecimal(quote.getOpenPrice()));
+            generator.writeNumberField("pc", Quote.toDecimal(quote.getPreviousClose()));
+            generator.writeEndObject();
+        }
+        return writer.toString();
+    }
+
+    private static Quote read(JsonParser parser, String symbol, long asOf) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object for quote " + symbol);
+        }
+
+        long current = 0;
+        long change = 0;
+        long changePercent = 0;
+        long high = 0;
+        long low = 0;
+        long open = 0;
+        long previousClose = 0;
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            // Field names come back interned, so the switch compares cached hashes
+            switch (field) {
+                case "c": current = readFixed(parser, token); break;
+                case "d": change = readFixed(parser, token); break;
+                case "dp": changePercent = readFixed(parser, token); break;
+                case "h": high = readFixed(parser, token); break;
+                case "l": low = readFixed(parser, token); break;
+                case "o": open = readFixed(parser, token); break;
+                case "pc": previousClose = readFixed(parser, token); break;
+                case "symbol": symbol = parser.getText(); break;
+                case "asOf": asOf = parser.getLongValue(); break;
+                default: parser.skipChildren(); break;
+            }
+        }
+
+        return new Quote(symbol, current, change, changePercent, high, low, open, previousClose, asOf, false);
+    }
+
+    /**
+     * Read the current number token as a fixed-point value with two decimals, rounding half up
+     * Plain decimals are converted from the parser's character buffer without creating number objects
+     */
+    private static long readFixed(JsonParser parser, JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue() * 100;
+        }
+        if (token != JsonToken.VALUE_NUMBER_FLOAT) {
+            // Finnhub sends null for fields it has no value for
+            parser.skipChildren();
+            return 0;
+        }
+
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int end = offset + parser.getTextLength();
+
+        int i = offset;
+        boolean negative = chars[i] == '-';
+        if (negative) {
+            i++;
+        }
+
+        long whole = 0;
+        while (i < end && chars[i] != '.') {
+            char c = chars[i++];
+            if (c < '0' || c > '9') {
+                // Exponent notation; rare enough to go through double
+                return Quote.toFixed(parser.getDoubleValue());
+            }
+            whole = whole * 10 + (c - '0');
+        }
+
+        long fraction = 0;
+        int digits = 0;
+        boolean roundUp = false;
+        for (i++; i < end; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return Quote.toFixed(parser.getDoubleValue());
+            }
+            if (digits < 2) {
+                fraction = fraction * 10 + (c - '0');
+                digits++;
+            } else if (digits == 2) {
+                roundUp = c >= '5';
+                digits++;
+            }
+        }
+        while (digits < 2) {
+            fraction *= 10;
+            digits++;
+        }
+
+        long value = whole * 100 + fraction + (roundUp ? 1 : 0);
+        return negative ? -value : value;
+    }
+}
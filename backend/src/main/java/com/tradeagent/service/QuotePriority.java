@@ -0,0 +1,13 @@
+package com.tradeagent.service;
+
+/**
+ * Enum representing the priority of an outbound quote request
+ * ORDER_EXECUTION: Quotes needed to price an order
+ * INTERACTIVE: Quotes needed to answer a user request
+ * BACKGROUND: Quotes fetched by the refresher or cache revalidation
+ */
+public enum QuotePriority {
+    ORDER_EXECUTION,
+    INTERACTIVE,
+    BACKGROUND
+}
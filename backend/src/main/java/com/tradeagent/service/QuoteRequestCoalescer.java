@@ -0,0 +1,106 @@
+package com.tradeagent.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.Quote;
+
+/**
+ * Single-flight deduplication of upstream quote calls
+ * Concurrent lookups for the same symbol share one upstream request and its future. A caller only joins a flight
+ * started at its own priority or a more urgent one, so an order never waits behind a background refresh and
+ * inherits its smaller wait budget.
+ */
+@Service
+public class QuoteRequestCoalescer {
+
+    @Autowired
+    private MarketDataProvider marketDataProvider;
+
+    // One map of in-flight calls per priority, indexed by ordinal
+    private final List<Map<String, CompletableFuture<Quote>>> inFlight = new ArrayList<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder upstreamCalls = new LongAdder();
+    private final LongAdder coalescedCalls = new LongAdder();
+
+    public QuoteRequestCoalescer() {
+        for (int i = 0; i < QuotePriority.values().length; i++) {
+            inFlight.add(new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Get a quote, joining an in-flight upstream call for the symbol at this priority or a higher one
+     * @param symbol the stock symbol
+     * @param priority the rate limit priority used if this caller performs the upstream call
+     * @return the quote
+     */
+    public Quote getQuote(String symbol, QuotePriority priority) {
+        calls.increment();
+
+        // Priorities are declared most urgent first
+        for (int i = 0; i < priority.ordinal(); i++) {
+            CompletableFuture<Quote> higher = inFlight.get(i).get(symbol);
+            if (higher != null) {
+                coalescedCalls.increment();
+                return await(higher);
+            }
+        }
+
+        Map<String, CompletableFuture<Quote>> flights = inFlight.get(priority.ordinal());
+        CompletableFuture<Quote> future = new CompletableFuture<>();
+        CompletableFuture<Quote> existing = flights.putIfAbsent(symbol, future);
+
+        if (existing != null) {
+            coalescedCalls.increment();
+            return await(existing);
+        }
+
+        // This caller owns the upstream call; everyone arriving meanwhile waits on its future
+        try {
+            upstreamCalls.increment();
+            Quote quote = marketDataProvider.getQuote(symbol, priority);
+            future.complete(quote);
+            return quote;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(symbol, future);
+        }
+    }
+
+    /**
+     * Get coalescing counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("calls", calls.sum());
+        stats.put("upstreamCalls", upstreamCalls.sum());
+        stats.put("coalescedCalls", coalescedCalls.sum());
+        stats.put("inFlight", inFlight.stream().mapToInt(Map::size).sum());
+        return stats;
+    }
+
+    private Quote await(CompletableFuture<Quote> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
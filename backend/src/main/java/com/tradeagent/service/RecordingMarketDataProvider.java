@@ -0,0 +1,93 @@
+package com.tradeagent.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.tradeagent.model.Quote;
+
+/**
+ * Decorator that appends every fresh quote returned by another provider to a local file
+ * One JSON object per line in Finnhub quote form plus symbol and asOf, as written by QuoteJson.
+ * The file can be played back with ReplayMarketDataProvider.
+ */
+public class RecordingMarketDataProvider implements MarketDataProvider, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordingMarketDataProvider.class);
+
+    private final MarketDataProvider delegate;
+    private final Path file;
+
+    // Guarded by this
+    private final BufferedWriter writer;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder recordFailures = new LongAdder();
+
+    public RecordingMarketDataProvider(MarketDataProvider delegate, Path file) throws IOException {
+        this.delegate = delegate;
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        logger.info("Recording market data from {} to {}", delegate.getName(), file.toAbsolutePath());
+    }
+
+    @Override
+    public Quote getQuote(String symbol, QuotePriority priority) {
+        Quote quote = delegate.getQuote(symbol, priority);
+
+        // Last-known-good fallbacks repeat an earlier quote; recording them would distort the replayed session
+        if (!quote.isStale()) {
+            record(quote);
+        }
+        return quote;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName() + "+recording";
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("file", file.toAbsolutePath().toString());
+        stats.put("recorded", recorded.sum());
+        stats.put("recordFailures", recordFailures.sum());
+        stats.put("delegate", delegate.getStats());
+        return stats;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private void record(Quote quote) {
+        try {
+            String json = QuoteJson.write(quote);
+            synchronized (this) {
+                writer.write(json);
+                writer.newLine();
+                writer.flush();
+            }
+            recorded.increment();
+        } catch (IOException e) {
+            recordFailures.increment();
+            logger.warn("Failed to record quote for {}: {}", quote.getSymbol(), e.getMessage());
+        }
+    }
+}
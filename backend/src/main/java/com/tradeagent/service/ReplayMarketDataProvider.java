@@ -0,0 +1,184 @@
+package com.tradeagent.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.tradeagent.model.Quote;
+
+/**
+ * Market data provider that plays back a session written by RecordingMarketDataProvider
+ * The recorded timeline is replayed at a configurable speed (1.0 = real time) from the moment the
+ * provider is created; each lookup returns the latest recorded quote at the current replay time.
+ */
+public class ReplayMarketDataProvider implements MarketDataProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayMarketDataProvider.class);
+
+    private final Path file;
+    private final double speed;
+    private final boolean loop;
+    private final LongSupplier clock;
+
+    private final Map<String, SymbolTrack> tracks = new HashMap<>();
+    private final long sessionStart;
+    private final long sessionDuration;
+    private final long replayStart;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder unknownSymbols = new LongAdder();
+
+    public ReplayMarketDataProvider(Path file, double speed, boolean loop) throws IOException {
+        this(file, speed, loop, System::currentTimeMillis);
+    }
+
+    ReplayMarketDataProvider(Path file, double speed, boolean loop, LongSupplier clock) throws IOException {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("Replay speed must be positive: " + speed);
+        }
+        this.file = file;
+        this.speed = speed;
+        this.loop = loop;
+        this.clock = clock;
+
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (Map.Entry<String, SymbolTrack> entry : load(file).entrySet()) {
+            SymbolTrack track = entry.getValue();
+            tracks.put(entry.getKey(), track);
+            first = Math.min(first, track.times[0]);
+            last = Math.max(last, track.times[track.times.length - 1]);
+        }
+
+        this.sessionStart = tracks.isEmpty() ? 0L : first;
+        this.sessionDuration = tracks.isEmpty() ? 0L : last - first;
+        this.replayStart = clock.getAsLong();
+        logger.info("Replaying {} symbols over {} ms from {} at {}x", tracks.size(), sessionDuration,
+                file.toAbsolutePath(), speed);
+    }
+
+    @Override
+    public Quote getQuote(String symbol, QuotePriority priority) {
+        lookups.increment();
+
+        SymbolTrack track = tracks.get(symbol);
+        if (track == null) {
+            unknownSymbols.increment();
+            throw new MarketDataUnavailableException("No recorded market data for " + symbol);
+        }
+
+        long now = clock.getAsLong();
+        int index = track.indexAt(replayTime(now));
+
+        // Replayed quotes are fresh as far as the rest of the pipeline is concerned
+        return track.quotes[index].withAsOf(now);
+    }
+
+    @Override
+    public String getName() {
+        return "replay";
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("file", file.toAbsolutePath().toString());
+        stats.put("symbols", tracks.size());
+        stats.put("speed", speed);
+        stats.put("loop", loop);
+        stats.put("sessionDurationMs", sessionDuration);
+        stats.put("replayOffsetMs", replayTime(clock.getAsLong()) - sessionStart);
+        stats.put("lookups", lookups.sum());
+        stats.put("unknownSymbols", unknownSymbols.sum());
+        return stats;
+    }
+
+    /**
+     * Map wall-clock time onto the recorded timeline
+     */
+    private long replayTime(long now) {
+        long elapsed = (long) ((now - replayStart) * speed);
+        long offset;
+        if (sessionDuration == 0) {
+            offset = 0;
+        } else if (loop) {
+            offset = elapsed % (sessionDuration + 1);
+        } else {
+            offset = Math.min(elapsed, sessionDuration);
+        }
+        return sessionStart + offset;
+    }
+
+    private Map<String, SymbolTrack> load(Path file) throws IOException {
+        Map<String, List<Quote>> recorded = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Quote quote = QuoteJson.parse(line.getBytes(StandardCharsets.UTF_8), null, 0L);
+                recorded.computeIfAbsent(quote.getSymbol(), key -> new ArrayList<>()).add(quote);
+            }
+        }
+
+        Map<String, SymbolTrack> loaded = new HashMap<>();
+        for (Map.Entry<String, List<Quote>> entry : recorded.entrySet()) {
+            loaded.put(entry.getKey(), new SymbolTrack(entry.getValue()));
+        }
+        return loaded;
+    }
+
+    /**
+     * Recorded quotes for one symbol, ordered by recording time
+     */
+    private static class SymbolTrack {
+        private final long[] times;
+        private final Quote[] quotes;
+
+        SymbolTrack(List<Quote> recorded) {
+            // Appends from concurrent callers can be slightly out of order; sort by time
+            quotes = recorded.toArray(new Quote[0]);
+            Arrays.sort(quotes, Comparator.comparingLong(Quote::getAsOf));
+
+            times = new long[quotes.length];
+            for (int i = 0; i < quotes.length; i++) {
+                times[i] = quotes[i].getAsOf();
+            }
+        }
+
+        /**
+         * Index of the latest quote recorded at or before the given time, or the first quote if none
+         */
+        int indexAt(long time) {
+            int low = 0;
+            int high = times.length - 1;
+            int found = 0;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] <= time) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,636 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.RestingOrder;
+import com.tradeagent.model.RestingOrderStatus;
+import com.tradeagent.model.RestingOrderType;
+import com.tradeagent.model.Transaction;
+import com.tradeagent.model.TransactionType;
+import com.tradeagent.model.User;
+import com.tradeagent.repository.RestingOrderRepository;
+import com.tradeagent.repository.TransactionRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Limit, stop and stop-limit orders resting until the price reaches them
+ * Each symbol keeps two trees sorted by trigger price: orders that fire when the price rises to their trigger
+ * (sell limits, buy stops) and orders that fire when it falls to it (buy limits, sell stops). A tick only takes
+ * the crossed orders off the front of each tree, in O(k log n), and queues them on their owners' order lanes.
+ * On the lane an order is first claimed as EXECUTING with a conditional update, so it can execute at most once, and
+ * its fill is journaled with the order id and recorded before the lane moves on. Orders are persisted when placed,
+ * stop-limit conversions are written by a background writer, and active orders are reloaded and reconciled on startup.
+ */
+@Service
+public class RestingOrderBook implements PriceBookListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestingOrderBook.class);
+
+    private static final List<RestingOrderStatus> ACTIVE = List.of(RestingOrderStatus.OPEN, RestingOrderStatus.TRIGGERED);
+    private static final List<RestingOrderStatus> EXECUTING = List.of(RestingOrderStatus.EXECUTING);
+
+    // Earlier arrivals fire first among orders with the same trigger
+    private static final Comparator<Entry> RISING = Comparator.<Entry>comparingLong(entry -> entry.trigger)
+            .thenComparingLong(entry -> entry.sequence);
+    private static final Comparator<Entry> FALLING = Comparator.<Entry>comparingLong(entry -> -entry.trigger)
+            .thenComparingLong(entry -> entry.sequence);
+
+    @Autowired
+    private OrderSequencer orderSequencer;
+
+    @Autowired
+    private OrderExecutionPipeline orderExecutionPipeline;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private RestingOrderRepository restingOrderRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${trading.resting-orders.max-per-user:100}")
+    private int maxPerUser;
+
+    @Value("${trading.orders.max-quantity:1000000}")
+    private int maxQuantity;
+
+    private final Map<String, Book> books = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> openPerUser = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ExecutorService writer;
+
+    private final LongAdder placed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder ticksEvaluated = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+    private final LongAdder triggered = new LongAdder();
+    private final LongAdder stopsConverted = new LongAdder();
+    private final LongAdder filled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder requeued = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder reconciled = new LongAdder();
+    private final LongAdder persistFailures = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resting-order-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        priceBook.addListener(this);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        writer.shutdown();
+        if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+            logger.warn("Resting order writer did not drain before shutdown");
+        }
+    }
+
+    /**
+     * Reload active orders once the application has started
+     * An order left EXECUTING by a crash is filled if its transaction was journaled, and put back on the book if not
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        try {
+            List<RestingOrderStatus> statuses = new ArrayList<>(ACTIVE);
+            statuses.addAll(EXECUTING);
+            List<RestingOrder> active = new ArrayList<>(restingOrderRepository.findByStatusIn(statuses));
+            active.sort(Comparator.comparing(RestingOrder::getCreatedAt,
+                    Comparator.nullsFirst(Comparator.naturalOrder())));
+            int rested = 0;
+            for (RestingOrder order : active) {
+                if (order.getStatus() == RestingOrderStatus.EXECUTING && !reconcile(order)) {
+                    continue;
+                }
+                openPerUser.computeIfAbsent(order.getUserId(), key -> new AtomicInteger()).incrementAndGet();
+                rest(new Entry(order, sequence.incrementAndGet()));
+                rested++;
+            }
+            logger.info("Recovered {} resting orders across {} symbols", rested, books.size());
+        } catch (Exception e) {
+            logger.warn("Failed to recover resting orders: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Place a resting order
+     * An order the current price already crosses is triggered straight away
+     * @param user the user placing the order
+     * @param stockSymbol the stock symbol
+     * @param side buy or sell
+     * @param type limit, stop or stop-limit
+     * @param quantity the number of shares
+     * @param limitPrice the limit price, for limit and stop-limit orders
+     * @param stopPrice the stop price, for stop and stop-limit orders
+     * @return the stored order
+     * @throws RuntimeException if the order is invalid or the user has too many open orders
+     */
+    public RestingOrder place(User user, String stockSymbol, TransactionType side, RestingOrderType type,
+                              Integer quantity, BigDecimal limitPrice, BigDecimal stopPrice) {
+        if (side == null || type == null) {
+            throw new RuntimeException("Order side and type are required");
+        }
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be at least 1");
+        }
+        if (quantity > maxQuantity) {
+            throw new RuntimeException("Quantity exceeds the maximum of " + maxQuantity + " shares per order");
+        }
+        String symbol = stockSymbol != null ? stockSymbol.trim().toUpperCase() : "";
+        if (stockService.getInstrument(symbol).isEmpty()) {
+            throw new RuntimeException("Stock not found: " + symbol);
+        }
+        BigDecimal limit = checkPrice("Limit", limitPrice, type != RestingOrderType.STOP);
+        BigDecimal stop = checkPrice("Stop", stopPrice, type != RestingOrderType.LIMIT);
+
+        AtomicInteger open = openPerUser.computeIfAbsent(user.getId(), key -> new AtomicInteger());
+        if (open.incrementAndGet() > maxPerUser) {
+            open.decrementAndGet();
+            throw new RuntimeException("You already have " + maxPerUser + " open orders");
+        }
+        RestingOrder order;
+        try {
+            order = restingOrderRepository.save(new RestingOrder(user.getId(), symbol, side, type, quantity, limit, stop));
+        } catch (RuntimeException e) {
+            open.decrementAndGet();
+            throw e;
+        }
+        rest(new Entry(order, sequence.incrementAndGet()));
+        placed.increment();
+
+        Quote quote = priceBook.getQuote(symbol);
+        if (quote != null) {
+            onQuote(quote);
+        }
+        return order;
+    }
+
+    /**
+     * Cancel an open or triggered order
+     * @param user the order's owner
+     * @param orderId the order id
+     * @return the cancelled order
+     * @throws RuntimeException if the user has no such active order, or it is executing
+     */
+    public RestingOrder cancel(User user, String orderId) {
+        Entry entry = entries.get(orderId);
+        if (entry == null || !entry.order.getUserId().equals(user.getId())) {
+            throw new RuntimeException("Open order not found");
+        }
+        Book book = books.get(entry.order.getStockSymbol());
+        synchronized (book) {
+            if (entry.executing) {
+                throw new RuntimeException("Order is executing and can no longer be cancelled");
+            }
+            if (!book.remove(entry)) {
+                throw new RuntimeException("Open order not found");
+            }
+        }
+        cancelled.increment();
+        // Waits for the write so a following read sees the cancellation
+        finish(entry, RestingOrderStatus.CANCELLED, new Update()).join();
+        return entry.order;
+    }
+
+    /**
+     * Get a user's resting orders, including finished ones
+     * @param user the user
+     * @return the orders, newest first
+     */
+    public List<RestingOrder> getOrders(User user) {
+        return restingOrderRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+    }
+
+    @Override
+    public void onQuote(Quote quote) {
+        Book book = books.get(quote.getSymbol());
+        long price = quote.getCurrentPrice();
+        if (book == null || quote.isStale() || price <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Entry> fired = new ArrayList<>();
+        List<Entry> converted = new ArrayList<>();
+        synchronized (book) {
+            List<Entry> crossed = new ArrayList<>();
+            book.drain(price, crossed);
+            for (Entry entry : crossed) {
+                if (entry.awaitingStopLimit()) {
+                    entry.convertToLimit();
+                    book.add(entry);
+                    converted.add(entry);
+                } else {
+                    entry.executing = true;
+                    fired.add(entry);
+                }
+            }
+            if (!converted.isEmpty()) {
+                // A converted stop-limit may already be inside its limit
+                crossed.clear();
+                book.drain(price, crossed);
+                for (Entry entry : crossed) {
+                    entry.executing = true;
+                    fired.add(entry);
+                }
+            }
+        }
+        ticksEvaluated.increment();
+        evaluationNanos.add(System.nanoTime() - start);
+
+        for (Entry entry : converted) {
+            stopsConverted.increment();
+            // Conditional, so a late write cannot overwrite the claim of an order that fired in this tick
+            persist(entry.order.getId(), List.of(RestingOrderStatus.OPEN),
+                    new Update().set("status", RestingOrderStatus.TRIGGERED));
+        }
+        for (Entry entry : fired) {
+            triggered.increment();
+            dispatch(entry);
+        }
+    }
+
+    /**
+     * Get resting order counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        long ticks = ticksEvaluated.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("openOrders", entries.size());
+        stats.put("symbols", books.size());
+        stats.put("placed", placed.sum());
+        stats.put("cancelled", cancelled.sum());
+        stats.put("ticksEvaluated", ticks);
+        stats.put("avgEvaluationMicros", ticks > 0 ? evaluationNanos.sum() / ticks / 1000 : 0L);
+        stats.put("triggered", triggered.sum());
+        stats.put("stopsConverted", stopsConverted.sum());
+        stats.put("filled", filled.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("requeued", requeued.sum());
+        stats.put("abandoned", abandoned.sum());
+        stats.put("reconciled", reconciled.sum());
+        stats.put("persistFailures", persistFailures.sum());
+        return stats;
+    }
+
+    private BigDecimal checkPrice(String name, BigDecimal price, boolean required) {
+        if (!required) {
+            if (price != null) {
+                throw new RuntimeException(name + " price does not apply to this order type");
+            }
+            return null;
+        }
+        if (price == null || price.signum() <= 0) {
+            throw new RuntimeException(name + " price must be greater than 0");
+        }
+        if (price.stripTrailingZeros().scale() > Quote.SCALE) {
+            throw new RuntimeException(name + " price must have at most " + Quote.SCALE + " decimal places");
+        }
+        return price.setScale(Quote.SCALE, RoundingMode.UNNECESSARY);
+    }
+
+    private void rest(Entry entry) {
+        entries.put(entry.order.getId(), entry);
+        Book book = books.computeIfAbsent(entry.order.getStockSymbol(), key -> new Book());
+        synchronized (book) {
+            book.add(entry);
+        }
+    }
+
+    /**
+     * Queue a triggered order on its owner's order lane without waiting; the outcome arrives on the lane
+     */
+    private void dispatch(Entry entry) {
+        RestingOrder order = entry.order;
+        BigDecimal limit = entry.limitPhase ? order.getLimitPrice() : null;
+        // Read here, on the tick thread that last changed it, for the lane to restore if execution is retried
+        RestingOrderStatus restingStatus = order.getStatus();
+        try {
+            orderSequencer.trySubmit(order.getUserId(), () -> execute(order, limit, restingStatus))
+                    .whenComplete((transaction, error) -> complete(entry, transaction, error));
+        } catch (RuntimeException e) {
+            complete(entry, null, e);
+        }
+    }
+
+    /**
+     * Claim, execute and record a triggered order; runs on the owner's order lane
+     * Every status write here is synchronous and conditional on the claim, so the stored status is settled before
+     * the lane takes its next order
+     */
+    private Transaction execute(RestingOrder order, BigDecimal limit, RestingOrderStatus restingStatus) {
+        boolean claimed;
+        try {
+            claimed = transition(order.getId(), ACTIVE, new Update().set("status", RestingOrderStatus.EXECUTING));
+        } catch (RuntimeException e) {
+            throw new RetryLaterException("Could not claim order: " + e.getMessage());
+        }
+        if (!claimed) {
+            throw new AbandonedException("Order is no longer active in storage");
+        }
+
+        Transaction transaction;
+        try {
+            User user = userService.findById(order.getUserId())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            transaction = orderExecutionPipeline.execute(user, order.getStockSymbol(), order.getSide(),
+                    order.getQuantity(), limit, order.getId());
+        } catch (RuntimeException e) {
+            if (isRetryable(e)) {
+                // Nothing moved; hand the claim back so the order can fire again
+                release(order, restingStatus);
+            } else {
+                record(order.getId(), new Update().set("status", RestingOrderStatus.REJECTED).set("reason", e.getMessage()));
+            }
+            throw e;
+        }
+        record(order.getId(), new Update()
+                .set("status", RestingOrderStatus.FILLED)
+                .set("transactionId", transaction.getId())
+                .set("executionPrice", transaction.getPricePerShare()));
+        return transaction;
+    }
+
+    /**
+     * Apply the lane's outcome to the in-memory book
+     */
+    private void complete(Entry entry, Transaction transaction, Throwable error) {
+        if (error == null) {
+            filled.increment();
+            entry.order.setTransactionId(transaction.getId());
+            entry.order.setExecutionPrice(transaction.getPricePerShare());
+            retire(entry, RestingOrderStatus.FILLED);
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (isRetryable(cause)) {
+            // Transient: the order goes back on the book and waits for the next crossing tick
+            requeued.increment();
+            Book book = books.get(entry.order.getStockSymbol());
+            synchronized (book) {
+                entry.executing = false;
+                book.add(entry);
+            }
+            return;
+        }
+        if (cause instanceof AbandonedException) {
+            // Storage disagrees with the book; leave the stored order for recovery to settle
+            abandoned.increment();
+            logger.warn("Resting order {} dropped from the book: {}", entry.order.getId(), cause.getMessage());
+            retire(entry, entry.order.getStatus());
+            return;
+        }
+        rejected.increment();
+        logger.info("Resting order {} rejected: {}", entry.order.getId(), cause.getMessage());
+        entry.order.setReason(cause.getMessage());
+        retire(entry, RestingOrderStatus.REJECTED);
+    }
+
+    private boolean isRetryable(Throwable cause) {
+        return cause instanceof LimitPriceNotMetException || cause instanceof MarketDataUnavailableException
+                || cause instanceof OrderQueueFullException || cause instanceof RetryLaterException;
+    }
+
+    /**
+     * Return an EXECUTING order to the status it rested with before it was claimed
+     * If that write fails the order stays EXECUTING in storage, so it is dropped from the book for recovery instead
+     */
+    private void release(RestingOrder order, RestingOrderStatus restingStatus) {
+        try {
+            transition(order.getId(), EXECUTING, new Update().set("status", restingStatus));
+        } catch (RuntimeException e) {
+            persistFailures.increment();
+            throw new AbandonedException("Could not release order after a retryable failure: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the final status of a claimed order
+     * A failed write leaves the order EXECUTING, which recovery settles from the journal, so it is logged and not thrown
+     */
+    private void record(String orderId, Update update) {
+        try {
+            transition(orderId, EXECUTING, update);
+        } catch (RuntimeException e) {
+            persistFailures.increment();
+            logger.error("Failed to record the outcome of resting order {}; recovery will reconcile it: {}",
+                    orderId, e.getMessage());
+        }
+    }
+
+    /**
+     * Settle an order a crash left EXECUTING, using the transaction journaled with its id
+     * @return true if the order executed nothing and goes back on the book
+     */
+    private boolean reconcile(RestingOrder order) {
+        reconciled.increment();
+        Optional<Transaction> transaction = transactionRepository.findByRestingOrderId(order.getId());
+        if (transaction.isPresent()) {
+            transition(order.getId(), EXECUTING, new Update()
+                    .set("status", RestingOrderStatus.FILLED)
+                    .set("transactionId", transaction.get().getId())
+                    .set("executionPrice", transaction.get().getPricePerShare()));
+            logger.info("Resting order {} was filled before restart by transaction {}", order.getId(),
+                    transaction.get().getId());
+            return false;
+        }
+        // Only a stop-limit in its limit phase executes with a limit, so that is the only one that was TRIGGERED
+        RestingOrderStatus restingStatus = order.getType() == RestingOrderType.STOP_LIMIT
+                ? RestingOrderStatus.TRIGGERED : RestingOrderStatus.OPEN;
+        transition(order.getId(), EXECUTING, new Update().set("status", restingStatus));
+        order.setStatus(restingStatus);
+        return true;
+    }
+
+    /**
+     * Retire an order that is no longer on the book; its stored status has already been written
+     */
+    private void retire(Entry entry, RestingOrderStatus status) {
+        RestingOrder order = entry.order;
+        entries.remove(order.getId());
+        AtomicInteger open = openPerUser.get(order.getUserId());
+        if (open != null) {
+            open.decrementAndGet();
+        }
+        order.setStatus(status);
+    }
+
+    /**
+     * Retire a cancelled order and record its final status
+     */
+    private CompletableFuture<Void> finish(Entry entry, RestingOrderStatus status, Update update) {
+        retire(entry, status);
+        return persist(entry.order.getId(), ACTIVE, update.set("status", status));
+    }
+
+    /**
+     * Write a status change on the writer thread, so changes to one order land in the order they were made
+     * After shutdown the write runs on the caller's thread instead of being lost
+     */
+    private CompletableFuture<Void> persist(String orderId, List<RestingOrderStatus> from, Update update) {
+        Runnable write = () -> {
+            try {
+                transition(orderId, from, update);
+            } catch (RuntimeException e) {
+                persistFailures.increment();
+                logger.warn("Failed to persist resting order {}: {}", orderId, e.getMessage());
+            }
+        };
+        try {
+            return CompletableFuture.runAsync(write, writer);
+        } catch (RejectedExecutionException e) {
+            write.run();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Update an order only while it is in one of the given statuses
+     * @return true if the order was in one of them
+     */
+    private boolean transition(String orderId, List<RestingOrderStatus> from, Update update) {
+        Query query = Query.query(Criteria.where("_id").is(orderId).and("status").in(from));
+        return mongoTemplate.updateFirst(query, update.set("updatedAt", LocalDateTime.now()), RestingOrder.class)
+                .getMatchedCount() > 0;
+    }
+
+    /**
+     * The claim could not be attempted; the order goes back on the book
+     */
+    private static final class RetryLaterException extends RuntimeException {
+        RetryLaterException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * The stored order is not in the state the book expects; it leaves the book without a status change
+     */
+    private static final class AbandonedException extends RuntimeException {
+        AbandonedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * One order on the book
+     * The trigger only changes while the entry is off the book, so the trees stay sorted
+     */
+    private static final class Entry {
+        private final RestingOrder order;
+        private final long sequence;
+        private long trigger;
+        private boolean limitPhase;
+        // Off the book and queued for execution; guarded by the book's lock
+        private boolean executing;
+
+        Entry(RestingOrder order, long sequence) {
+            this.order = order;
+            this.sequence = sequence;
+            this.limitPhase = order.getType() == RestingOrderType.LIMIT
+                    || order.getStatus() == RestingOrderStatus.TRIGGERED;
+            this.trigger = toFixed(limitPhase ? order.getLimitPrice() : order.getStopPrice());
+        }
+
+        boolean awaitingStopLimit() {
+            return !limitPhase && order.getType() == RestingOrderType.STOP_LIMIT;
+        }
+
+        void convertToLimit() {
+            limitPhase = true;
+            trigger = toFixed(order.getLimitPrice());
+            order.setStatus(RestingOrderStatus.TRIGGERED);
+        }
+
+        /**
+         * Sell limits and buy stops fire when the price rises to their trigger; buy limits and sell stops when it falls
+         */
+        boolean firesOnRise() {
+            return limitPhase == (order.getSide() == TransactionType.SELL);
+        }
+
+        private static long toFixed(BigDecimal price) {
+            return price.movePointRight(Quote.SCALE).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        }
+    }
+
+    /**
+     * The resting orders of one symbol
+     */
+    private static final class Book {
+        private final TreeSet<Entry> rising = new TreeSet<>(RISING);
+        private final TreeSet<Entry> falling = new TreeSet<>(FALLING);
+
+        void add(Entry entry) {
+            (entry.firesOnRise() ? rising : falling).add(entry);
+        }
+
+        boolean remove(Entry entry) {
+            return (entry.firesOnRise() ? rising : falling).remove(entry);
+        }
+
+        /**
+         * Take every order the price has reached off the front of the trees
+         */
+        void drain(long price, List<Entry> crossed) {
+            while (!rising.isEmpty() && rising.first().trigger <= price) {
+                crossed.add(rising.pollFirst());
+            }
+            while (!falling.isEmpty() && falling.first().trigger >= price) {
+                crossed.add(falling.pollFirst());
+            }
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.Stock;
+import com.tradeagent.repository.StockRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory sector and industry indexes over the price book
+ * Holds the stock catalog grouped by sector and by industry, and keeps per-group aggregates current on every
+ * accepted quote, so group listings and dashboards never scan the collection.
+ * The equal-weighted index level of a group starts at 100 and uses the first price seen for each member as its base.
+ */
+@Service
+public class StockGroupIndex implements PriceBookListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockGroupIndex.class);
+
+    private static final BigDecimal BASE_LEVEL = BigDecimal.valueOf(100);
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    private final Map<String, Member> members = new ConcurrentHashMap<>();
+    private final Map<String, Group> sectors = new ConcurrentHashMap<>();
+    private final Map<String, Group> industries = new ConcurrentHashMap<>();
+
+    // Bumped after every catalog change and every quote applied to a listed stock
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder ticksIgnored = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        priceBook.addListener(this);
+    }
+
+    /**
+     * Load every stored stock once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            List<Stock> all = stockRepository.findAll();
+            for (Stock stock : all) {
+                index(stock);
+            }
+            logger.info("Stock group index built with {} stocks in {} sectors and {} industries",
+                    all.size(), sectors.size(), industries.size());
+        } catch (Exception e) {
+            logger.warn("Failed to build stock group index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Add or replace a stock, moving it between groups if its sector or industry changed
+     * The stock's aggregates are filled in by its next quote
+     * @param stock the stock
+     */
+    public void index(Stock stock) {
+        Member member = members.computeIfAbsent(stock.getSymbol(), Member::new);
+        synchronized (member) {
+            Group sector = sectors.computeIfAbsent(stock.getSector(), Group::new);
+            Group industry = industries.computeIfAbsent(stock.getIndustry(), Group::new);
+            if (member.sector != sector || member.industry != industry) {
+                if (member.sector != null) {
+                    member.sector.leave(member);
+                    member.industry.leave(member);
+                }
+                sector.join(member);
+                industry.join(member);
+                member.sector = sector;
+                member.industry = industry;
+            }
+            member.stock = new Stock(stock);
+        }
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void onQuote(Quote quote) {
+        Member member = members.get(quote.getSymbol());
+        if (member == null || quote.getCurrentPrice() <= 0) {
+            ticksIgnored.increment();
+            return;
+        }
+        synchronized (member) {
+            if (member.sector == null) {
+                // Quote raced the member's first index call
+                ticksIgnored.increment();
+                return;
+            }
+            ticks.increment();
+            if (member.basePrice == 0) {
+                member.basePrice = quote.getCurrentPrice();
+            }
+            long changePercent = quote.getChangePercent();
+            double ratio = (double) quote.getCurrentPrice() / member.basePrice;
+            member.sector.apply(member, changePercent, ratio);
+            member.industry.apply(member, changePercent, ratio);
+            member.priced = true;
+            member.changePercent = changePercent;
+            member.ratio = ratio;
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Check whether a symbol is in the stock catalog
+     * @param symbol the stock symbol
+     * @return true if the symbol has been indexed
+     */
+    public boolean isListed(String symbol) {
+        return members.containsKey(symbol);
+    }
+
+    /**
+     * Get the catalog record of a stock, without live prices
+     * @param symbol the stock symbol
+     * @return a copy of the indexed stock, or empty if the symbol is not indexed
+     */
+    public Optional<Stock> getStock(String symbol) {
+        Member member = members.get(symbol);
+        if (member == null) {
+            return Optional.empty();
+        }
+        synchronized (member) {
+            return member.stock != null ? Optional.of(new Stock(member.stock)) : Optional.empty();
+        }
+    }
+
+    /**
+     * Get the catalog record of every indexed stock, without live prices
+     * @return copies of the indexed stocks, sorted by symbol
+     */
+    public List<Stock> getStocks() {
+        List<Stock> stocks = new ArrayList<>(members.size());
+        for (Member member : members.values()) {
+            synchronized (member) {
+                if (member.stock != null) {
+                    stocks.add(new Stock(member.stock));
+                }
+            }
+        }
+        stocks.sort(Comparator.comparing(Stock::getSymbol));
+        return stocks;
+    }
+
+    /**
+     * Get the version of the catalog and of listed stocks' prices
+     * Quotes for symbols outside the catalog never move it; read it before reading what it describes
+     * @return the version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Get the stocks of a sector with live prices
+     * @param sector the sector
+     * @return the stocks, or an empty list if the sector is unknown
+     */
+    public List<Stock> getSectorStocks(String sector) {
+        return stocksOf(sectors.get(sector));
+    }
+
+    /**
+     * Get the stocks of an industry with live prices
+     * @param industry the industry
+     * @return the stocks, or an empty list if the industry is unknown
+     */
+    public List<Stock> getIndustryStocks(String industry) {
+        return stocksOf(industries.get(industry));
+    }
+
+    /**
+     * Get the aggregates of one sector
+     * @param sector the sector
+     * @return the aggregates, or null if the sector is unknown
+     */
+    public Map<String, Object> getSectorSummary(String sector) {
+        Group group = sectors.get(sector);
+        return group != null ? group.summary() : null;
+    }
+
+    /**
+     * Get the aggregates of every sector
+     * @return aggregates sorted by sector name
+     */
+    public List<Map<String, Object>> getSectorSummaries() {
+        return summaries(sectors);
+    }
+
+    /**
+     * Get the aggregates of every industry
+     * @return aggregates sorted by industry name
+     */
+    public List<Map<String, Object>> getIndustrySummaries() {
+        return summaries(industries);
+    }
+
+    /**
+     * Get group index counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("stocks", members.size());
+        stats.put("sectors", sectors.size());
+        stats.put("industries", industries.size());
+        stats.put("ticks", ticks.sum());
+        stats.put("ticksIgnored", ticksIgnored.sum());
+        return stats;
+    }
+
+    private List<Stock> stocksOf(Group group) {
+        if (group == null) {
+            return List.of();
+        }
+        List<Stock> stocks = new ArrayList<>();
+        for (Member member : group.members()) {
+            Stock stock;
+            synchronized (member) {
+                stock = new Stock(member.stock);
+            }
+            Quote quote = priceBook.getQuote(stock.getSymbol());
+            if (quote != null && quote.getCurrentPrice() > 0) {
+                stock.applyQuote(quote);
+            }
+            stocks.add(stock);
+        }
+        stocks.sort(Comparator.comparing(Stock::getSymbol));
+        return stocks;
+    }
+
+    private List<Map<String, Object>> summaries(Map<String, Group> groups) {
+        List<Map<String, Object>> summaries = new ArrayList<>();
+        for (Group group : groups.values()) {
+            summaries.add(group.summary());
+        }
+        summaries.sort(Comparator.comparing(summary -> (String) summary.get("name")));
+        return summaries;
+    }
+
+    /**
+     * One stock and the contribution it currently makes to its groups
+     */
+    private static class Member {
+        private final String symbol;
+        private Stock stock;
+        private Group sector;
+        private Group industry;
+        private long basePrice;
+        private boolean priced;
+        private long changePercent;
+        private double ratio;
+
+        Member(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+
+    /**
+     * Running aggregates of one sector or industry
+     * Each quote replaces its member's previous contribution, so updates are O(1) in the group size
+     */
+    private static class Group {
+        private final String name;
+        private final Set<Member> members = ConcurrentHashMap.newKeySet();
+        private int priced;
+        private long changePercentSum;
+        private int advancers;
+        private int decliners;
+        private double ratioSum;
+
+        Group(String name) {
+            this.name = name;
+        }
+
+        Set<Member> members() {
+            return members;
+        }
+
+        // Called with the member's lock held
+        void join(Member member) {
+            members.add(member);
+            if (member.priced) {
+                add(member.changePercent, member.ratio, 1);
+            }
+        }
+
+        // Called with the member's lock held
+        void leave(Member member) {
+            members.remove(member);
+            if (member.priced) {
+                add(member.changePercent, member.ratio, -1);
+            }
+        }
+
+        // Called with the member's lock held, before its last values are replaced
+        void apply(Member member, long changePercent, double ratio) {
+            synchronized (this) {
+                if (member.priced) {
+                    add(member.changePercent, member.ratio, -1);
+                }
+                add(changePercent, ratio, 1);
+            }
+        }
+
+        private synchronized void add(long changePercent, double ratio, int sign) {
+            priced += sign;
+            changePercentSum += sign * changePercent;
+            ratioSum += sign * ratio;
+            if (changePercent > 0) {
+                advancers += sign;
+            } else if (changePercent < 0) {
+                decliners += sign;
+            }
+        }
+
+        synchronized Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("name", name);
+            summary.put("stocks", members.size());
+            summary.put("priced", priced);
+            summary.put("advancers", advancers);
+            summary.put("decliners", decliners);
+            summary.put("unchanged", priced - advancers - decliners);
+            if (priced > 0) {
+                summary.put("averageChangePercent", Quote.toDecimal(changePercentSum)
+                        .divide(BigDecimal.valueOf(priced), 2, RoundingMode.HALF_UP));
+                summary.put("indexLevel", BASE_LEVEL.multiply(BigDecimal.valueOf(ratioSum / priced))
+                        .setScale(2, RoundingMode.HALF_UP));
+            } else {
+                summary.put("averageChangePercent", BigDecimal.ZERO);
+                summary.put("indexLevel", BASE_LEVEL);
+            }
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.tradeagent.service;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.Stock;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Write-behind persistence of stock prices
+ * Keeps only the latest quote per listed symbol and writes them on a fixed interval as one unordered bulk of
+ * $set updates on the price fields, so database writes follow the flush interval rather than the tick rate.
+ */
+@Service
+public class StockPriceWriter implements PriceBookListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockPriceWriter.class);
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private StockGroupIndex stockGroupIndex;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${marketdata.price-persistence.enabled:true}")
+    private boolean enabled;
+
+    @Value("${marketdata.price-persistence.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    private final Map<String, Quote> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        if (enabled) {
+            priceBook.addListener(this);
+        }
+    }
+
+    @Override
+    public void onQuote(Quote quote) {
+        if (!stockGroupIndex.isListed(quote.getSymbol())) {
+            return;
+        }
+        received.increment();
+        pending.compute(quote.getSymbol(), (symbol, current) -> {
+            if (current == null) {
+                return quote;
+            }
+            coalesced.increment();
+            return quote.getAsOf() >= current.getAsOf() ? quote : current;
+        });
+    }
+
+    /**
+     * Write the pending prices to MongoDB in unordered bulks
+     */
+    @Scheduled(fixedDelayString = "${marketdata.price-persistence.flush-ms:5000}")
+    public void flush() {
+        // Bounded by what was pending at the start, so a steady stream of ticks cannot keep one flush running
+        int remaining = pending.size();
+        while (remaining > 0) {
+            Map<String, Quote> batch = drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+            remaining -= batch.size();
+            try {
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Stock.class);
+                LocalDateTime now = LocalDateTime.now();
+                for (Quote quote : batch.values()) {
+                    bulk.updateOne(Query.query(Criteria.where("symbol").is(quote.getSymbol())), priceUpdate(quote, now));
+                }
+                bulk.execute();
+                flushes.increment();
+                written.add(batch.size());
+            } catch (Exception e) {
+                // Put the batch back unless a newer quote arrived meanwhile; it is retried on the next flush
+                flushFailures.increment();
+                logger.warn("Failed to persist {} stock prices: {}", batch.size(), e.getMessage());
+                for (Quote quote : batch.values()) {
+                    pending.merge(quote.getSymbol(), quote,
+                            (current, failed) -> current.getAsOf() >= failed.getAsOf() ? current : failed);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get price persistence counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pending", pending.size());
+        stats.put("received", received.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("written", written.sum());
+        stats.put("flushes", flushes.sum());
+        stats.put("flushFailures", flushFailures.sum());
+        return stats;
+    }
+
+    /**
+     * Take up to one batch of pending quotes
+     */
+    private Map<String, Quote> drain() {
+        Map<String, Quote> batch = new LinkedHashMap<>();
+        Iterator<String> symbols = pending.keySet().iterator();
+        while (symbols.hasNext() && batch.size() < flushBatchSize) {
+            String symbol = symbols.next();
+            Quote quote = pending.remove(symbol);
+            if (quote != null) {
+                batch.put(symbol, quote);
+            }
+        }
+        return batch;
+    }
+
+    private Update priceUpdate(Quote quote, LocalDateTime now) {
+        return new Update()
+                .set("currentPrice", Quote.toDecimal(quote.getCurrentPrice()))
+                .set("previousClose", Quote.toDecimal(quote.getPreviousClose()))
+                .set("changeAmount", Quote.toDecimal(quote.getChange()))
+                .set("changePercent", Quote.toDecimal(quote.getChangePercent()))
+                .set("openPrice", Quote.toDecimal(quote.getOpenPrice()))
+                .set("dayHigh", Quote.toDecimal(quote.getHighPrice()))
+                .set("dayLow", Quote.toDecimal(quote.getLowPrice()))
+                .set("lastUpdated", now);
+    }
+}
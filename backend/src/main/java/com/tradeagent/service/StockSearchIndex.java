@@ -0,0 +1,405 @@
+package com.tradeagent.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.Stock;
+import com.tradeagent.repository.StockRepository;
+
+/**
+ * In-memory stock search
+ * A trie over symbols answers prefix lookups, and an inverted index over company name and description tokens
+ * answers text queries; the last query token also matches as a prefix, for autocomplete.
+ * Stocks are indexed one at a time as StockService writes them.
+ */
+@Service
+public class StockSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockSearchIndex.class);
+
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "co", "corp", "corporation", "for",
+            "inc", "ltd", "of", "plc", "the");
+
+    // Scores per match kind; a symbol hit outranks any text hit
+    private static final int EXACT_SYMBOL = 1000;
+    private static final int SYMBOL_PREFIX = 500;
+    private static final int NAME_TOKEN = 10;
+    private static final int NAME_TOKEN_PREFIX = 6;
+    private static final int DESCRIPTION_TOKEN = 3;
+    private static final int DESCRIPTION_TOKEN_PREFIX = 2;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TrieNode symbolTrie = new TrieNode();
+    private final Map<String, IndexedStock> stocks = new HashMap<>();
+    // Token to symbol to field weight; sorted so token prefixes are a range scan
+    private final NavigableMap<String, Map<String, Integer>> postings = new TreeMap<>();
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder totalQueryNanos = new LongAdder();
+    private final AtomicLong maxQueryNanos = new AtomicLong();
+
+    /**
+     * Index every stored stock once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            List<Stock> all = stockRepository.findAll();
+            for (Stock stock : all) {
+                index(stock);
+            }
+            logger.info("Stock search index built with {} stocks and {} tokens", all.size(), postings.size());
+        } catch (Exception e) {
+            logger.warn("Failed to build stock search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Add or replace a stock in the index
+     * @param stock the stock
+     */
+    public void index(Stock stock) {
+        String symbol = stock.getSymbol().toUpperCase(Locale.ROOT);
+        Map<String, Integer> tokens = new HashMap<>();
+        for (String token : tokenize(stock.getDescription())) {
+            tokens.merge(token, DESCRIPTION_TOKEN, Math::max);
+        }
+        for (String token : tokenize(stock.getCompanyName())) {
+            tokens.merge(token, NAME_TOKEN, Math::max);
+        }
+        IndexedStock indexed = new IndexedStock(symbol, stock.getCompanyName(), stock.getSector(),
+                stock.getIndustry(), tokens);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(symbol);
+            stocks.put(symbol, indexed);
+            symbolTrie.insert(symbol);
+            for (Map.Entry<String, Integer> token : tokens.entrySet()) {
+                postings.computeIfAbsent(token.getKey(), key -> new HashMap<>()).put(symbol, token.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a stock from the index
+     * @param symbol the stock symbol
+     */
+    public void remove(String symbol) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(symbol.toUpperCase(Locale.ROOT));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search stocks by symbol prefix and company text
+     * Every query token must match the name or description, the last one possibly as a prefix;
+     * a query that is a symbol prefix also matches on its own
+     * @param query the user's query
+     * @param limit the maximum number of results
+     * @return matches, best first
+     */
+    public List<SearchResult> search(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            if (query == null || query.isBlank() || limit <= 0) {
+                return List.of();
+            }
+            lock.readLock().lock();
+            try {
+                return searchLocked(query.trim(), limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            queries.increment();
+            totalQueryNanos.add(elapsed);
+            maxQueryNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    /**
+     * Get search index counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        long queryCount = queries.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("stocks", stocks.size());
+            stats.put("tokens", postings.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("queries", queryCount);
+        stats.put("averageQueryMicros", queryCount > 0 ? totalQueryNanos.sum() / 1000.0 / queryCount : 0.0);
+        stats.put("maxQueryMicros", maxQueryNanos.get() / 1000.0);
+        return stats;
+    }
+
+    private List<SearchResult> searchLocked(String query, int limit) {
+        Map<String, Integer> scores = new HashMap<>();
+
+        // Symbol prefix matches, shorter symbols first so "A" ranks AAPL below A
+        String symbolQuery = query.toUpperCase(Locale.ROOT);
+        if (symbolQuery.indexOf(' ') < 0) {
+            for (String symbol : symbolTrie.withPrefix(symbolQuery, limit * 4)) {
+                int score = symbol.equals(symbolQuery) ? EXACT_SYMBOL : SYMBOL_PREFIX - (symbol.length() - symbolQuery.length());
+                scores.merge(symbol, score, Integer::sum);
+            }
+        }
+
+        // Text matches: every token must hit, the last one may be an unfinished word
+        List<String> tokens = tokenize(query);
+        if (!tokens.isEmpty()) {
+            Map<String, Integer> textScores = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                Map<String, Integer> tokenScores = scoreToken(tokens.get(i), i == tokens.size() - 1);
+                if (textScores == null) {
+                    textScores = tokenScores;
+                } else {
+                    textScores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<String, Integer> entry : textScores.entrySet()) {
+                        entry.setValue(entry.getValue() + tokenScores.get(entry.getKey()));
+                    }
+                }
+                if (textScores.isEmpty()) {
+                    break;
+                }
+            }
+            for (Map.Entry<String, Integer> entry : textScores.entrySet()) {
+                scores.merge(entry.getKey(), entry.getValue(), Integer::sum);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        List<SearchResult> results = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (Map.Entry<String, Integer> entry : ranked) {
+            if (results.size() == limit) {
+                break;
+            }
+            IndexedStock stock = stocks.get(entry.getKey());
+            results.add(new SearchResult(stock.symbol, stock.companyName, stock.sector, stock.industry,
+                    entry.getValue()));
+        }
+        return results;
+    }
+
+    /**
+     * Score every stock containing a token, or a word starting with it when prefix matching is allowed
+     */
+    private Map<String, Integer> scoreToken(String token, boolean allowPrefix) {
+        Map<String, Integer> scores = new HashMap<>();
+        Map<String, Integer> exact = postings.get(token);
+        if (exact != null) {
+            scores.putAll(exact);
+        }
+        if (allowPrefix) {
+            for (Map.Entry<String, Map<String, Integer>> posting
+                    : postings.subMap(token, false, token + Character.MAX_VALUE, false).entrySet()) {
+                for (Map.Entry<String, Integer> hit : posting.getValue().entrySet()) {
+                    int score = hit.getValue() == NAME_TOKEN ? NAME_TOKEN_PREFIX : DESCRIPTION_TOKEN_PREFIX;
+                    scores.merge(hit.getKey(), score, Math::max);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void removeLocked(String symbol) {
+        IndexedStock previous = stocks.remove(symbol);
+        if (previous == null) {
+            return;
+        }
+        symbolTrie.remove(symbol);
+        for (String token : previous.tokens.keySet()) {
+            Map<String, Integer> symbols = postings.get(token);
+            if (symbols != null) {
+                symbols.remove(symbol);
+                if (symbols.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Trie node with children kept in sorted parallel arrays, which is compact for the narrow symbol alphabet
+     */
+    private static class TrieNode {
+        private char[] keys = new char[0];
+        private TrieNode[] children = new TrieNode[0];
+        private String symbol;
+
+        void insert(String value) {
+            TrieNode node = this;
+            for (int i = 0; i < value.length(); i++) {
+                node = node.childFor(value.charAt(i));
+            }
+            node.symbol = value;
+        }
+
+        void remove(String value) {
+            TrieNode node = find(value);
+            if (node != null) {
+                // Empty branches are left in place; symbols are rarely delisted
+                node.symbol = null;
+            }
+        }
+
+        List<String> withPrefix(String prefix, int limit) {
+            List<String> found = new ArrayList<>();
+            TrieNode node = find(prefix);
+            if (node != null) {
+                node.collect(found, limit);
+            }
+            return found;
+        }
+
+        private TrieNode find(String value) {
+            TrieNode node = this;
+            for (int i = 0; i < value.length() && node != null; i++) {
+                int index = Arrays.binarySearch(node.keys, value.charAt(i));
+                node = index >= 0 ? node.children[index] : null;
+            }
+            return node;
+        }
+
+        // Breadth-first, so shorter symbols come before longer ones when the limit cuts the walk short
+        private void collect(List<String> found, int limit) {
+            List<TrieNode> level = List.of(this);
+            while (!level.isEmpty() && found.size() < limit) {
+                List<TrieNode> next = new ArrayList<>();
+                for (TrieNode node : level) {
+                    if (node.symbol != null && found.size() < limit) {
+                        found.add(node.symbol);
+                    }
+                    next.addAll(Arrays.asList(node.children));
+                }
+                level = next;
+            }
+        }
+
+        private TrieNode childFor(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            TrieNode[] newChildren = new TrieNode[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = new TrieNode();
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+    }
+
+    /**
+     * Searchable fields of one stock and the tokens it was indexed under
+     */
+    private static class IndexedStock {
+        private final String symbol;
+        private final String companyName;
+        private final String sector;
+        private final String industry;
+        private final Map<String, Integer> tokens;
+
+        IndexedStock(String symbol, String companyName, String sector, String industry, Map<String, Integer> tokens) {
+            this.symbol = symbol;
+            this.companyName = companyName;
+            this.sector = sector;
+            this.industry = industry;
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * One ranked search hit
+     */
+    public static class SearchResult {
+        private final String symbol;
+        private final String companyName;
+        private final String sector;
+        private final String industry;
+        private final int score;
+
+        SearchResult(String symbol, String companyName, String sector, String industry, int score) {
+            this.symbol = symbol;
+            this.companyName = companyName;
+            this.sector = sector;
+            this.industry = industry;
+            this.score = score;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public String getCompanyName() {
+            return companyName;
+        }
+
+        public String getSector() {
+            return sector;
+        }
+
+        public String getIndustry() {
+            return industry;
+        }
+
+        public int getScore() {
+            return score;
+        }
+    }
+}
@@ -2,22 +2,27 @@ package com.tradeagent.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.tradeagent.model.Quote;
 import com.tradeagent.model.Stock;
 import com.tradeagent.repository.StockRepository;
 
 /**
  * Service class for Stock entity operations
- * Handles stock data management with real-time Finnhub API integration
+ * Handles stock data management; prices are read from the in-memory PriceBook kept fresh by MarketDataRefresher
  */
 @Service
 public class StockService {
@@ -28,10 +33,37 @@ public class StockService {
     private StockRepository stockRepository;
     
     @Autowired
-    private FinnhubService finnhubService;
+    private QuoteCache quoteCache;
+    
+    @Autowired
+    private BulkQuoteFetcher bulkQuoteFetcher;
+    
+    @Autowired
+    private PriceBook priceBook;
+    
+    @Autowired
+    private MarketDataRefresher marketDataRefresher;
+    
+    @Autowired
+    private QuoteRequestCoalescer quoteRequestCoalescer;
+    
+    @Autowired
+    private StockSearchIndex stockSearchIndex;
+    
+    @Autowired
+    private StockGroupIndex stockGroupIndex;
+    
+    @Value("${marketdata.execution.max-quote-age-ms:15000}")
+    private long executionMaxQuoteAgeMs;
     
     private final Random random = new Random();
     
+    // Distinguishes ETags issued before a restart, when versions start again from zero
+    private final long versionEpoch = System.currentTimeMillis();
+    
+    // Bumped whenever stock documents are written through this service
+    private final AtomicLong catalogVersion = new AtomicLong();
+    
     /**
      * Get all available stocks with real-time prices
      * @return List of all stocks with updated prices
@@ -39,14 +71,26 @@ public class StockService {
     public List<Stock> getAllStocks() {
         List<Stock> stocks = stockRepository.findAll();
         
-        // Update prices with real-time data
-        for (Stock stock : stocks) {
-            updateStockWithRealTimeData(stock);
-        }
+        // Update prices with real-time data fetched concurrently
+        updateStocksWithRealTimeData(stocks);
         
         return stocks;
     }
     
+    /**
+     * Get every listed stock with real-time prices
+     * Served from the in-memory catalog; the database is only read while the catalog has not been built yet
+     * @return List of listed stocks, sorted by symbol when served from the catalog
+     */
+    public List<Stock> getListedStocks() {
+        List<Stock> stocks = stockGroupIndex.getStocks();
+        if (stocks.isEmpty()) {
+            return getAllStocks();
+        }
+        updateStocksWithRealTimeData(stocks);
+        return stocks;
+    }
+    
     /**
      * Find stock by symbol with real-time price update
      * @param symbol the stock symbol
@@ -65,36 +109,12 @@ public class StockService {
     }
     
     /**
-     * Update stock with real-time data from Finnhub API
+     * Update stock with the latest price from the price book
      * @param stock the stock to update
      */
     private void updateStockWithRealTimeData(Stock stock) {
         try {
-            Map<String, Object> realTimeData = finnhubService.getStockQuote(stock.getSymbol());
-            
-            if (realTimeData != null && realTimeData.containsKey("currentPrice")) {
-                BigDecimal newPrice = (BigDecimal) realTimeData.get("currentPrice");
-                BigDecimal previousClose = (BigDecimal) realTimeData.get("previousClose");
-                
-                // Only update if we got valid data
-                if (newPrice.compareTo(BigDecimal.ZERO) > 0) {
-                    stock.setPreviousClose(previousClose);
-                    stock.setCurrentPrice(newPrice);
-                    
-                    // Update additional fields if available
-                    if (realTimeData.containsKey("highPrice")) {
-                        stock.setDayHigh((BigDecimal) realTimeData.get("highPrice"));
-                    }
-                    if (realTimeData.containsKey("lowPrice")) {
-                        stock.setDayLow((BigDecimal) realTimeData.get("lowPrice"));
-                    }
-                    if (realTimeData.containsKey("openPrice")) {
-                        stock.setOpenPrice((BigDecimal) realTimeData.get("openPrice"));
-                    }
-                    
-                    logger.info("Updated {} with real-time price: {}", stock.getSymbol(), newPrice);
-                }
-            }
+            applyRealTimeData(stock, getLiveQuote(stock.getSymbol()));
         } catch (Exception e) {
             logger.warn("Failed to update real-time data for {}: {}", stock.getSymbol(), e.getMessage());
             // Continue with existing data if API call fails
@@ -102,21 +122,104 @@ public class StockService {
     }
     
     /**
-     * Get stocks by sector
+     * Get the latest quote for a symbol from the price book
+     * Symbols the refresher has not priced yet are fetched once and handed over to it
+     * @param symbol the stock symbol
+     * @return the quote
+     */
+    private Quote getLiveQuote(String symbol) {
+        Quote quote = priceBook.getQuote(symbol);
+        if (quote == null) {
+            quote = quoteCache.getQuote(symbol);
+            priceBook.update(symbol, quote);
+            marketDataRefresher.track(symbol);
+        }
+        return quote;
+    }
+    
+    /**
+     * Update a batch of stocks with prices from the price book
+     * Symbols not priced yet are fetched in parallel; those missing the batch deadline keep their last known values
+     * @param stocks the stocks to update
+     */
+    private void updateStocksWithRealTimeData(List<Stock> stocks) {
+        Map<String, Quote> quotes = new HashMap<>();
+        List<String> unpriced = new ArrayList<>();
+        
+        for (Stock stock : stocks) {
+            Quote quote = priceBook.getQuote(stock.getSymbol());
+            if (quote != null) {
+                quotes.put(stock.getSymbol(), quote);
+            } else {
+                unpriced.add(stock.getSymbol());
+            }
+        }
+        
+        if (!unpriced.isEmpty()) {
+            Map<String, Quote> fetched = bulkQuoteFetcher.fetchQuotes(unpriced);
+            for (Map.Entry<String, Quote> entry : fetched.entrySet()) {
+                priceBook.update(entry.getKey(), entry.getValue());
+                marketDataRefresher.track(entry.getKey());
+            }
+            quotes.putAll(fetched);
+        }
+        
+        for (Stock stock : stocks) {
+            Quote realTimeData = quotes.get(stock.getSymbol());
+            if (realTimeData == null) {
+                logger.debug("No fresh quote for {} within the batch deadline, keeping last known price", stock.getSymbol());
+                continue;
+            }
+            try {
+                applyRealTimeData(stock, realTimeData);
+            } catch (Exception e) {
+                logger.warn("Failed to apply real-time data for {}: {}", stock.getSymbol(), e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Copy quote fields onto the stock
+     * @param stock the stock to update
+     * @param realTimeData the quote
+     */
+    private void applyRealTimeData(Stock stock, Quote realTimeData) {
+        // Only update if we got valid data
+        if (realTimeData != null && realTimeData.getCurrentPrice() > 0) {
+            stock.applyQuote(realTimeData);
+            
+            logger.debug("Updated {} with real-time price: {}", stock.getSymbol(), stock.getCurrentPrice());
+        }
+    }
+    
+    /**
+     * Get stocks by sector with real-time prices
+     * Served from the in-memory group index; the database is only read for sectors the index does not know yet
      * @param sector the sector
      * @return List of stocks in the sector
      */
     public List<Stock> getStocksBySector(String sector) {
-        return stockRepository.findBySector(sector);
+        List<Stock> stocks = stockGroupIndex.getSectorStocks(sector);
+        if (stocks.isEmpty()) {
+            stocks = stockRepository.findBySector(sector);
+            updateStocksWithRealTimeData(stocks);
+        }
+        return stocks;
     }
     
     /**
-     * Get stocks by industry
+     * Get stocks by industry with real-time prices
+     * Served from the in-memory group index; the database is only read for industries the index does not know yet
      * @param industry the industry
      * @return List of stocks in the industry
      */
     public List<Stock> getStocksByIndustry(String industry) {
-        return stockRepository.findByIndustry(industry);
+        List<Stock> stocks = stockGroupIndex.getIndustryStocks(industry);
+        if (stocks.isEmpty()) {
+            stocks = stockRepository.findByIndustry(industry);
+            updateStocksWithRealTimeData(stocks);
+        }
+        return stocks;
     }
     
     /**
@@ -149,14 +252,14 @@ public class StockService {
     private void createStockWithRealTimeData(String symbol, String companyName, 
                                            String sector, String industry) {
         try {
-            Map<String, Object> realTimeData = finnhubService.getStockQuote(symbol);
+            Quote realTimeData = quoteCache.getQuote(symbol);
             
             BigDecimal currentPrice;
             BigDecimal previousClose;
             
-            if (realTimeData != null && realTimeData.containsKey("currentPrice")) {
-                currentPrice = (BigDecimal) realTimeData.get("currentPrice");
-                previousClose = (BigDecimal) realTimeData.get("previousClose");
+            if (realTimeData != null) {
+                currentPrice = Quote.toDecimal(realTimeData.getCurrentPrice());
+                previousClose = Quote.toDecimal(realTimeData.getPreviousClose());
             } else {
                 // Fallback to default prices if API fails
                 currentPrice = getDefaultPrice(symbol);
@@ -168,18 +271,16 @@ public class StockService {
             
             // Set additional fields if available
             if (realTimeData != null) {
-                if (realTimeData.containsKey("highPrice")) {
-                    stock.setDayHigh((BigDecimal) realTimeData.get("highPrice"));
-                }
-                if (realTimeData.containsKey("lowPrice")) {
-                    stock.setDayLow((BigDecimal) realTimeData.get("lowPrice"));
-                }
-                if (realTimeData.containsKey("openPrice")) {
-                    stock.setOpenPrice((BigDecimal) realTimeData.get("openPrice"));
-                }
+                stock.setDayHigh(Quote.toDecimal(realTimeData.getHighPrice()));
+                stock.setDayLow(Quote.toDecimal(realTimeData.getLowPrice()));
+                stock.setOpenPrice(Quote.toDecimal(realTimeData.getOpenPrice()));
             }
             
             stockRepository.save(stock);
+            catalogVersion.incrementAndGet();
+            stockSearchIndex.index(stock);
+            stockGroupIndex.index(stock);
+            marketDataRefresher.track(symbol);
             logger.info("Created stock {} with real-time price: {}", symbol, currentPrice);
             
         } catch (Exception e) {
@@ -200,6 +301,9 @@ public class StockService {
         Stock stock = new Stock(symbol, companyName, currentPrice, basePrice, sector, industry);
         stock.setDescription("Fallback stock data for " + companyName);
         stockRepository.save(stock);
+        catalogVersion.incrementAndGet();
+        stockSearchIndex.index(stock);
+        stockGroupIndex.index(stock);
         
         logger.warn("Created stock {} with fallback data", symbol);
     }
@@ -225,14 +329,14 @@ public class StockService {
     
     /**
      * Update stock prices with real-time data
+     * Prices reach the database through the StockPriceWriter, which persists every quote accepted into the price book
      */
     public void updateStockPrices() {
         List<Stock> stocks = stockRepository.findAll();
         
-        for (Stock stock : stocks) {
-            updateStockWithRealTimeData(stock);
-            stockRepository.save(stock);
-        }
+        // Explicit refresh requests go upstream through the refresher instead of waiting for the schedule
+        marketDataRefresher.refreshNow(stocks.stream().map(Stock::getSymbol).toList());
+        updateStocksWithRealTimeData(stocks);
         
         logger.info("Updated {} stocks with real-time prices", stocks.size());
     }
@@ -248,6 +352,61 @@ public class StockService {
                 .orElseThrow(() -> new RuntimeException("Stock not found: " + symbol));
     }
     
+    /**
+     * Get the quote an order should execute against
+     * Uses the price book when its quote is recent enough, otherwise fetches upstream
+     * ahead of browsing and background traffic
+     * @param symbol the stock symbol
+     * @return an immutable quote no older than the execution age limit
+     * @throws MarketDataUnavailableException if no sufficiently recent quote can be obtained
+     */
+    public Quote getExecutionQuote(String symbol) {
+        Quote quote = priceBook.getQuote(symbol);
+        if (quote == null || System.currentTimeMillis() - quote.getAsOf() > executionMaxQuoteAgeMs) {
+            priceBook.update(symbol, quoteRequestCoalescer.getQuote(symbol, QuotePriority.ORDER_EXECUTION));
+            marketDataRefresher.track(symbol);
+            quote = priceBook.getQuote(symbol);
+        }
+        
+        // Upstream may only have a last-known-good price; never execute against it
+        if (quote == null || quote.getCurrentPrice() <= 0
+                || System.currentTimeMillis() - quote.getAsOf() > executionMaxQuoteAgeMs) {
+            throw new MarketDataUnavailableException("Market data is stale for " + symbol + "; order rejected");
+        }
+        return quote;
+    }
+    
+    /**
+     * Get the catalog record of a stock without pricing it
+     * Served from the in-memory group index, falling back to the database for stocks not indexed yet
+     * @param symbol the stock symbol
+     * @return Optional containing the stock if found
+     */
+    public Optional<Stock> getInstrument(String symbol) {
+        Optional<Stock> stock = stockGroupIndex.getStock(symbol);
+        return stock.isPresent() ? stock : stockRepository.findBySymbol(symbol);
+    }
+    
+    /**
+     * Get the entity tag of the full stock listing
+     * Built from in-memory version counters only; read it before building the listing it describes
+     * Only quotes for listed stocks move it, so ticks for other symbols never invalidate the listing
+     * @return the strong ETag value, without quotes
+     */
+    public String getListingETag() {
+        return versionEpoch + "-" + catalogVersion.get() + "-" + stockGroupIndex.getVersion();
+    }
+    
+    /**
+     * Get the entity tag of a single stock
+     * Built from in-memory version counters only; read it before building the stock it describes
+     * @param symbol the stock symbol
+     * @return the strong ETag value, without quotes
+     */
+    public String getStockETag(String symbol) {
+        return versionEpoch + "-" + catalogVersion.get() + "-" + symbol + "-" + priceBook.getVersion(symbol);
+    }
+    
     /**
      * Check if stock exists
      * @param symbol the stock symbol
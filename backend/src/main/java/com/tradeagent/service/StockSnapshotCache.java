@@ -0,0 +1,161 @@
+package com.tradeagent.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradeagent.model.Stock;
+
+/**
+ * Pre-serialized stock responses
+ * The stock listing and each single-stock response are kept as encoded UTF-8 JSON, and optionally gzip, bytes
+ * tagged with the ETag they were built for. A response is rebuilt once when its ETag moves, and written
+ * as-is by every request in between.
+ */
+@Service
+public class StockSnapshotCache {
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${marketdata.snapshot.gzip-enabled:true}")
+    private boolean gzipEnabled;
+
+    private volatile Snapshot listing;
+    private final Object listingLock = new Object();
+    private final Map<String, Snapshot> stocks = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder listingRebuilds = new LongAdder();
+    private final LongAdder stockRebuilds = new LongAdder();
+
+    /**
+     * Get the encoded stock listing, rebuilding it from the in-memory catalog if listed stocks or their prices
+     * changed since it was built
+     * @return the snapshot
+     */
+    public Snapshot getListing() {
+        // Read the tag before building, so the bytes are never older than the tag they carry
+        String etag = stockService.getListingETag();
+        Snapshot current = listing;
+        if (current != null && current.etag.equals(etag)) {
+            hits.increment();
+            return current;
+        }
+
+        // One rebuild at a time; requests that queued behind it reuse its result
+        synchronized (listingLock) {
+            etag = stockService.getListingETag();
+            current = listing;
+            if (current != null && current.etag.equals(etag)) {
+                hits.increment();
+                return current;
+            }
+            List<Stock> all = stockService.getListedStocks();
+            current = encode(etag, all);
+            listing = current;
+            listingRebuilds.increment();
+            return current;
+        }
+    }
+
+    /**
+     * Get the encoded response for one stock, rebuilding it if the stock's price changed since it was built
+     * @param symbol the stock symbol
+     * @return the snapshot, or empty if the stock does not exist
+     */
+    public Optional<Snapshot> getStock(String symbol) {
+        String etag = stockService.getStockETag(symbol);
+        Snapshot current = stocks.get(symbol);
+        if (current != null && current.etag.equals(etag)) {
+            hits.increment();
+            return Optional.of(current);
+        }
+
+        Optional<Stock> stock = stockService.findBySymbol(symbol);
+        if (stock.isEmpty()) {
+            return Optional.empty();
+        }
+        Snapshot rebuilt = encode(etag, stock.get());
+        stocks.put(symbol, rebuilt);
+        stockRebuilds.increment();
+        return Optional.of(rebuilt);
+    }
+
+    /**
+     * Get snapshot counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Snapshot current = listing;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("listingRebuilds", listingRebuilds.sum());
+        stats.put("stockRebuilds", stockRebuilds.sum());
+        stats.put("stockSnapshots", stocks.size());
+        stats.put("listingBytes", current != null ? current.json.length : 0);
+        stats.put("listingGzipBytes", current != null && current.gzip != null ? current.gzip.length : 0);
+        return stats;
+    }
+
+    private Snapshot encode(String etag, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new Snapshot(etag, json, gzipEnabled ? gzip(json) : null);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode stock snapshot", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(content);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Encoded response body and the ETag it was built for
+     */
+    public static class Snapshot {
+        private final String etag;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        Snapshot(String etag, byte[] json, byte[] gzip) {
+            this.etag = etag;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * @return the gzip-encoded body, or null if gzip is disabled
+         */
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
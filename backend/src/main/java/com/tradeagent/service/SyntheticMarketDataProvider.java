@@ -0,0 +1,32 @@
+package com.tradeagent.service;
+
+import java.util.Map;
+
+import com.tradeagent.model.Quote;
+
+/**
+ * Market data provider serving the latest ticks of the synthetic market
+ */
+public class SyntheticMarketDataProvider implements MarketDataProvider {
+
+    private final SyntheticMarketGenerator generator;
+
+    public SyntheticMarketDataProvider(SyntheticMarketGenerator generator) {
+        this.generator = generator;
+    }
+
+    @Override
+    public Quote getQuote(String symbol, QuotePriority priority) {
+        return generator.getQuote(symbol);
+    }
+
+    @Override
+    public String getName() {
+        return "synthetic";
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        return generator.getStats();
+    }
+}
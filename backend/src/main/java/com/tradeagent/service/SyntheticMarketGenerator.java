@@ -0,0 +1,244 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.Stock;
+import com.tradeagent.repository.StockRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Synthetic high-frequency market for stress testing
+ * Generates correlated geometric Brownian motion prices for a configurable number of symbols and tick rate,
+ * and publishes every tick into the PriceBook, the same path real quotes take.
+ * Active only when marketdata.provider=synthetic.
+ */
+@Service
+public class SyntheticMarketGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticMarketGenerator.class);
+
+    // Trading seconds in a year (252 sessions of 6.5 hours), used to scale annualized drift and volatility
+    private static final double TRADING_SECONDS_PER_YEAR = 252 * 6.5 * 3600;
+
+    @Autowired
+    private PriceBook priceBook;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Value("${marketdata.provider:finnhub}")
+    private String provider;
+
+    @Value("${marketdata.synthetic.symbols:5000}")
+    private int symbolCount;
+
+    @Value("${marketdata.synthetic.ticks-per-second:10}")
+    private double ticksPerSecond;
+
+    @Value("${marketdata.synthetic.correlation:0.3}")
+    private double correlation;
+
+    @Value("${marketdata.synthetic.seed:42}")
+    private long seed;
+
+    @Value("${marketdata.synthetic.include-listed-stocks:true}")
+    private boolean includeListedStocks;
+
+    // Written by the tick thread only
+    private String[] symbols;
+    private double[] prices;
+    private double[] opens;
+    private double[] highs;
+    private double[] lows;
+    private double[] previousCloses;
+    private double[] drifts;
+    private double[] volatilities;
+    private SplittableRandom random;
+    private double dt;
+
+    // Latest published quote per symbol, readable from any thread
+    private AtomicReferenceArray<Quote> published;
+    private final Map<String, Integer> indexBySymbol = new HashMap<>();
+
+    private ScheduledExecutorService tickExecutor;
+    private volatile boolean running;
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder updatesPublished = new LongAdder();
+    private final LongAdder tickOverruns = new LongAdder();
+    private final LongAdder totalTickMicros = new LongAdder();
+    private final AtomicLong maxTickMicros = new AtomicLong();
+
+    /**
+     * Build the synthetic universe and start ticking, once listed stocks are initialized
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!"synthetic".equals(provider)) {
+            return;
+        }
+
+        List<Stock> listed = includeListedStocks ? stockRepository.findAll() : new ArrayList<>();
+        initUniverse(listed);
+
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ticksPerSecond);
+        tickExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "synthetic-market");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tickExecutor.scheduleAtFixedRate(() -> tick(periodNanos), 0, periodNanos, TimeUnit.NANOSECONDS);
+        running = true;
+
+        logger.info("Synthetic market started: {} symbols at {} ticks/s, correlation {}",
+                symbols.length, ticksPerSecond, correlation);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        if (tickExecutor != null) {
+            tickExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the latest generated quote for a symbol
+     * @param symbol the stock symbol
+     * @return the quote
+     * @throws MarketDataUnavailableException if the symbol is not part of the synthetic market
+     */
+    public Quote getQuote(String symbol) {
+        Integer index = running ? indexBySymbol.get(symbol) : null;
+        Quote quote = index != null ? published.get(index) : null;
+        if (quote == null) {
+            throw new MarketDataUnavailableException("No synthetic market data for " + symbol);
+        }
+        return quote;
+    }
+
+    /**
+     * Get generator counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        long tickCount = ticks.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running);
+        stats.put("symbols", running ? symbols.length : 0);
+        stats.put("ticksPerSecond", ticksPerSecond);
+        stats.put("ticks", tickCount);
+        stats.put("updatesPublished", updatesPublished.sum());
+        stats.put("tickOverruns", tickOverruns.sum());
+        stats.put("averageTickMillis", tickCount > 0 ? totalTickMicros.sum() / 1000.0 / tickCount : 0.0);
+        stats.put("maxTickMillis", maxTickMicros.get() / 1000.0);
+        return stats;
+    }
+
+    void initUniverse(List<Stock> listed) {
+        int total = listed.size() + symbolCount;
+        symbols = new String[total];
+        prices = new double[total];
+        opens = new double[total];
+        highs = new double[total];
+        lows = new double[total];
+        previousCloses = new double[total];
+        drifts = new double[total];
+        volatilities = new double[total];
+        published = new AtomicReferenceArray<>(total);
+        random = new SplittableRandom(seed);
+        dt = 1.0 / ticksPerSecond / TRADING_SECONDS_PER_YEAR;
+
+        int width = String.valueOf(symbolCount).length();
+        for (int i = 0; i < total; i++) {
+            double startPrice;
+            if (i < listed.size()) {
+                symbols[i] = listed.get(i).getSymbol();
+                BigDecimal current = listed.get(i).getCurrentPrice();
+                startPrice = current != null ? current.doubleValue() : 100.0;
+            } else {
+                symbols[i] = String.format("SYN%0" + width + "d", i - listed.size() + 1);
+                startPrice = 5 + random.nextDouble() * 495;
+            }
+
+            prices[i] = startPrice;
+            opens[i] = startPrice;
+            highs[i] = startPrice;
+            lows[i] = startPrice;
+            previousCloses[i] = startPrice;
+            drifts[i] = -0.05 + random.nextDouble() * 0.20;
+            volatilities[i] = 0.15 + random.nextDouble() * 0.45;
+            indexBySymbol.put(symbols[i], i);
+        }
+    }
+
+    /**
+     * Advance every symbol by one time step and publish the new quotes
+     * A single market factor shared by all symbols gives each pair the configured correlation
+     */
+    void tick(long periodNanos) {
+        long start = System.nanoTime();
+        try {
+            double sqrtDt = Math.sqrt(dt);
+            double marketWeight = Math.sqrt(correlation);
+            double idiosyncraticWeight = Math.sqrt(1 - correlation);
+            double marketShock = random.nextGaussian();
+            long now = System.currentTimeMillis();
+
+            for (int i = 0; i < symbols.length; i++) {
+                double shock = marketWeight * marketShock + idiosyncraticWeight * random.nextGaussian();
+                double sigma = volatilities[i];
+                prices[i] *= Math.exp((drifts[i] - 0.5 * sigma * sigma) * dt + sigma * sqrtDt * shock);
+                highs[i] = Math.max(highs[i], prices[i]);
+                lows[i] = Math.min(lows[i], prices[i]);
+
+                Quote quote = toQuote(i, now);
+                published.set(i, quote);
+                priceBook.update(symbols[i], quote);
+            }
+
+            ticks.increment();
+            updatesPublished.add(symbols.length);
+        } catch (Exception e) {
+            logger.error("Synthetic market tick failed: {}", e.getMessage());
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+        totalTickMicros.add(elapsedMicros);
+        maxTickMicros.accumulateAndGet(elapsedMicros, Math::max);
+        if (elapsedNanos > periodNanos) {
+            tickOverruns.increment();
+        }
+    }
+
+    private Quote toQuote(int i, long now) {
+        long price = Quote.toFixed(prices[i]);
+        long previousClose = Quote.toFixed(previousCloses[i]);
+        long change = price - previousClose;
+        return new Quote(symbols[i], price, change, Quote.toFixed(change * 100.0 / previousClose),
+                Quote.toFixed(highs[i]), Quote.toFixed(lows[i]), Quote.toFixed(opens[i]), previousClose, now, false);
+    }
+}
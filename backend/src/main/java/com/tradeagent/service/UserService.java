@@ -5,6 +5,11 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -25,6 +30,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
     /**
      * Register a new user
      * @param username the username
@@ -141,27 +149,39 @@ public class UserService {
     
     /**
      * Deduct amount from user balance
-     * @param user the user
+     * A single conditional update on the server, so concurrent orders cannot overdraw the balance or lose updates
+     * @param user the user; its balance is replaced with the stored post-image
      * @param amount the amount to deduct
      * @return the updated user
      */
     public User deductBalance(User user, BigDecimal amount) {
-        if (!hasSufficientBalance(user, amount)) {
+        Query query = Query.query(Criteria.where("_id").is(user.getId()).and("balance").gte(amount));
+        User updated = mongoTemplate.findAndModify(query, new Update().inc("balance", amount.negate()),
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        if (updated == null) {
             throw new RuntimeException("Insufficient balance");
         }
         
-        user.setBalance(user.getBalance().subtract(amount));
-        return userRepository.save(user);
+        user.setBalance(updated.getBalance());
+        return updated;
     }
     
     /**
      * Add amount to user balance
-     * @param user the user
+     * A single server-side increment, so concurrent credits are never lost
+     * @param user the user; its balance is replaced with the stored post-image
      * @param amount the amount to add
      * @return the updated user
      */
     public User addBalance(User user, BigDecimal amount) {
-        user.setBalance(user.getBalance().add(amount));
-        return userRepository.save(user);
+        Query query = Query.query(Criteria.where("_id").is(user.getId()));
+        User updated = mongoTemplate.findAndModify(query, new Update().inc("balance", amount),
+                FindAndModifyOptions.options().returnNew(true), User.class);
+        if (updated == null) {
+            throw new RuntimeException("User not found");
+        }
+        
+        user.setBalance(updated.getBalance());
+        return updated;
     }
 } 
\ No newline at end of file
@@ -7,7 +7,9 @@ import org.springframework.test.context.TestPropertySource;
 @SpringBootTest
 @TestPropertySource(properties = {
     "spring.data.mongodb.uri=mongodb://localhost:27017/test",
-    "app.jwt.secret=testSecret123456789012345678901234567890"
+    "app.jwt.secret=testSecret123456789012345678901234567890",
+    "app.decimal-migration.enabled=false",
+    "app.mongo-indexes.enabled=false"
 })
 class TradeAgentApplicationTests {
 
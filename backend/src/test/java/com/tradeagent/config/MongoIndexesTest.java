@@ -0,0 +1,131 @@
+package com.tradeagent.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.tradeagent.model.Portfolio;
+import com.tradeagent.model.RestingOrder;
+import com.tradeagent.model.Transaction;
+import com.tradeagent.model.TransactionType;
+
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+class MongoIndexesTest {
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static MongoClient client;
+
+    @BeforeAll
+    static void startMongod() {
+        try {
+            mongod = Mongod.instance().start(Version.Main.V6_0);
+            client = MongoClients.create("mongodb://" + mongod.current().getServerAddress());
+        } catch (RuntimeException e) {
+            // No mongod binary available, for example without network access; the embedded test is skipped
+            mongod = null;
+        }
+    }
+
+    @AfterAll
+    static void stopMongod() {
+        if (client != null) {
+            client.close();
+        }
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+
+    @Test
+    void testRun_CreatesUniqueSparseRestingOrderIndex() {
+        // Given
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        IndexOperations transactionIndexes = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(Transaction.class)).thenReturn(transactionIndexes);
+        when(mongoTemplate.indexOps(Portfolio.class)).thenReturn(mock(IndexOperations.class));
+        when(mongoTemplate.indexOps(RestingOrder.class)).thenReturn(mock(IndexOperations.class));
+
+        // When
+        indexes(mongoTemplate).run();
+
+        // Then
+        ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(transactionIndexes).ensureIndex(index.capture());
+        assertEquals(new Document("restingOrderId", 1), index.getValue().getIndexKeys());
+        assertEquals(true, index.getValue().getIndexOptions().get("unique"));
+        assertEquals(true, index.getValue().getIndexOptions().get("sparse"));
+    }
+
+    @Test
+    void testRun_CreatesUniquePortfolioUserIndex() {
+        // Given
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        IndexOperations portfolioIndexes = mock(IndexOperations.class);
+        when(mongoTemplate.indexOps(Transaction.class)).thenReturn(mock(IndexOperations.class));
+        when(mongoTemplate.indexOps(Portfolio.class)).thenReturn(portfolioIndexes);
+        when(mongoTemplate.indexOps(RestingOrder.class)).thenReturn(mock(IndexOperations.class));
+
+        // When
+        indexes(mongoTemplate).run();
+
+        // Then
+        ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+        verify(portfolioIndexes).ensureIndex(index.capture());
+        assertEquals(new Document("user", 1), index.getValue().getIndexKeys());
+        assertEquals(true, index.getValue().getIndexOptions().get("unique"));
+    }
+
+    @Test
+    void testRun_SecondTransactionForOneRestingOrderIsRejected() {
+        assumeTrue(mongod != null, "embedded mongod is not available");
+
+        // Given
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "mongo-indexes-test");
+        mongoTemplate.dropCollection(Transaction.class);
+        indexes(mongoTemplate).run();
+        mongoTemplate.insert(transaction(null));
+        mongoTemplate.insert(transaction(null));
+        mongoTemplate.insert(transaction("order-1"));
+
+        // When / Then
+        assertThrows(DuplicateKeyException.class, () -> mongoTemplate.insert(transaction("order-1")));
+        assertEquals(3, mongoTemplate.count(new Query(), Transaction.class));
+    }
+
+    private MongoIndexes indexes(MongoTemplate mongoTemplate) {
+        MongoIndexes indexes = new MongoIndexes();
+        ReflectionTestUtils.setField(indexes, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(indexes, "enabled", true);
+        return indexes;
+    }
+
+    private Transaction transaction(String restingOrderId) {
+        Transaction transaction = new Transaction(null, "AAPL", "Apple Inc.", TransactionType.BUY, 1,
+                new BigDecimal("150.00"));
+        transaction.setRestingOrderId(restingOrderId);
+        return transaction;
+    }
+}
@@ -0,0 +1,44 @@
+package com.tradeagent.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class StreamTicketServiceTest {
+
+    @Test
+    void testRedeem_TicketIsSingleUse() {
+        // Given
+        StreamTicketService streamTicketService = service(30000L);
+        String ticket = streamTicketService.issue("alice");
+
+        // When
+        String first = streamTicketService.redeem(ticket);
+        String second = streamTicketService.redeem(ticket);
+
+        // Then
+        assertEquals("alice", first);
+        assertNull(second);
+        assertNotEquals(ticket, streamTicketService.issue("alice"));
+    }
+
+    @Test
+    void testRedeem_ExpiredTicketIsRefused() {
+        // Given
+        StreamTicketService streamTicketService = service(-1L);
+        String ticket = streamTicketService.issue("alice");
+
+        // When / Then
+        assertNull(streamTicketService.redeem(ticket));
+        assertNull(streamTicketService.redeem("never-issued"));
+    }
+
+    private StreamTicketService service(long ttlMs) {
+        StreamTicketService streamTicketService = new StreamTicketService();
+        ReflectionTestUtils.setField(streamTicketService, "ttlMs", ttlMs);
+        return streamTicketService;
+    }
+}
@@ -0,0 +1,94 @@
+package com.tradeagent.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tradeagent.model.Quote;
+
+@ExtendWith(MockitoExtension.class)
+class BulkQuoteFetcherTest {
+
+    @Mock
+    private QuoteCache quoteCache;
+
+    @Mock
+    private QuoteRequestCoalescer quoteRequestCoalescer;
+
+    @InjectMocks
+    private BulkQuoteFetcher bulkQuoteFetcher;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkQuoteFetcher, "maxConcurrency", 4);
+        ReflectionTestUtils.setField(bulkQuoteFetcher, "deadlineMs", 200L);
+        bulkQuoteFetcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        bulkQuoteFetcher.shutdown();
+    }
+
+    @Test
+    void testFetchQuotes_SlowSymbolsAreDroppedAtTheDeadline() {
+        // Given
+        when(quoteCache.getQuote("AAPL")).thenReturn(quote("AAPL", 15000));
+        when(quoteCache.getQuote("MSFT")).thenReturn(quote("MSFT", 30000));
+        when(quoteCache.getQuote("SLOW")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return quote("SLOW", 100);
+        });
+
+        // When
+        long start = System.nanoTime();
+        Map<String, Quote> result = bulkQuoteFetcher.fetchQuotes(List.of("AAPL", "SLOW", "MSFT"));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(15000L, result.get("AAPL").getCurrentPrice());
+        assertEquals(30000L, result.get("MSFT").getCurrentPrice());
+        assertTrue(elapsedMs < 2000, "batch should return at its deadline, took " + elapsedMs + " ms");
+        assertEquals(1L, bulkQuoteFetcher.getStats().get("symbolsMissedDeadline"));
+        assertEquals(0L, bulkQuoteFetcher.getStats().get("symbolsFailed"));
+    }
+
+    @Test
+    void testFetchQuotes_FailedSymbolsAreCountedAndLeftOut() {
+        // Given
+        when(quoteCache.getQuote("AAPL")).thenReturn(quote("AAPL", 15000));
+        when(quoteCache.getQuote("BAD")).thenThrow(new MarketDataUnavailableException("down"));
+
+        // When
+        Map<String, Quote> result = bulkQuoteFetcher.fetchQuotes(List.of("AAPL", "BAD"));
+
+        // Then
+        assertEquals(1, result.size());
+        assertTrue(result.containsKey("AAPL"));
+        assertEquals(1L, bulkQuoteFetcher.getStats().get("symbolsFailed"));
+        assertEquals(0L, bulkQuoteFetcher.getStats().get("symbolsMissedDeadline"));
+    }
+
+    private Quote quote(String symbol, long priceCents) {
+        return new Quote(symbol, priceCents, 0, 0, priceCents, priceCents, priceCents, priceCents,
+                System.currentTimeMillis(), false);
+    }
+}
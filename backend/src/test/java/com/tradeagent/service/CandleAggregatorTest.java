@@ -0,0 +1,96 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tradeagent.model.Candle;
+import com.tradeagent.model.Quote;
+
+class CandleAggregatorTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private CandleAggregator candleAggregator;
+
+    @BeforeEach
+    void setUp() {
+        candleAggregator = new CandleAggregator();
+        ReflectionTestUtils.setField(candleAggregator, "priceBook", new PriceBook(1024));
+        ReflectionTestUtils.setField(candleAggregator, "capacity", 3);
+        ReflectionTestUtils.setField(candleAggregator, "maxPending", 100);
+        candleAggregator.init();
+    }
+
+    @Test
+    void testOnQuote_BuildsOneMinuteBars() {
+        // Given
+        long start = 100 * MINUTE;
+
+        // When
+        candleAggregator.onQuote(quote("150.00", start));
+        candleAggregator.onQuote(quote("152.50", start + 10_000));
+        candleAggregator.onQuote(quote("149.25", start + 20_000));
+        candleAggregator.onQuote(quote("151.00", start + MINUTE));
+
+        // Then
+        List<Candle> candles = candleAggregator.getCandles("AAPL", CandleInterval.ONE_MINUTE, 10);
+        assertEquals(2, candles.size());
+
+        Candle first = candles.get(0);
+        assertEquals(start, first.getStart());
+        assertEquals(new BigDecimal("150.00"), first.getOpen());
+        assertEquals(new BigDecimal("152.50"), first.getHigh());
+        assertEquals(new BigDecimal("149.25"), first.getLow());
+        assertEquals(new BigDecimal("149.25"), first.getClose());
+        assertEquals(3, first.getTicks());
+        assertTrue(first.isComplete());
+        assertFalse(candles.get(1).isComplete());
+
+        assertEquals(1, candleAggregator.getCandles("AAPL", CandleInterval.FIVE_MINUTES, 10).size());
+        assertEquals(1L, candleAggregator.getStats().get("barsCompleted"));
+    }
+
+    @Test
+    void testOnQuote_RingBufferKeepsNewestBars() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            candleAggregator.onQuote(quote("150.00", i * MINUTE));
+        }
+
+        // When
+        List<Candle> candles = candleAggregator.getCandles("AAPL", CandleInterval.ONE_MINUTE, 10);
+
+        // Then
+        assertEquals(3, candles.size());
+        assertEquals(2 * MINUTE, candles.get(0).getStart());
+        assertEquals(4 * MINUTE, candles.get(2).getStart());
+    }
+
+    @Test
+    void testOnQuote_LateObservationIsCountedAndIgnored() {
+        // Given
+        candleAggregator.onQuote(quote("150.00", 10 * MINUTE));
+        candleAggregator.onQuote(quote("151.00", 11 * MINUTE));
+
+        // When
+        candleAggregator.onQuote(quote("999.00", 10 * MINUTE + 30_000));
+
+        // Then
+        List<Candle> candles = candleAggregator.getCandles("AAPL", CandleInterval.ONE_MINUTE, 10);
+        assertEquals(new BigDecimal("150.00"), candles.get(0).getHigh());
+        assertEquals(new BigDecimal("151.00"), candles.get(1).getHigh());
+        assertEquals(1L, candleAggregator.getStats().get("lateObservations"));
+    }
+
+    private Quote quote(String price, long asOf) {
+        long priceCents = new BigDecimal(price).movePointRight(Quote.SCALE).longValueExact();
+        return new Quote("AAPL", priceCents, 0, 0, priceCents, priceCents, priceCents, priceCents, asOf, false);
+    }
+}
@@ -0,0 +1,53 @@
+package com.tradeagent.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    @Test
+    void testRecordFailure_OpensAfterThreshold() {
+        // Given
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", 2, 60000);
+
+        // When
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void testAllowRequest_HalfOpenAllowsSingleTrial() {
+        // Given
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", 1, 0);
+        circuitBreaker.recordFailure();
+
+        // When & Then
+        assertTrue(circuitBreaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.allowRequest());
+
+        circuitBreaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.allowRequest());
+    }
+
+    @Test
+    void testReleaseTrial_LetsNextCallerTakeTrial() {
+        // Given
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", 1, 0);
+        circuitBreaker.recordFailure();
+        assertTrue(circuitBreaker.allowRequest());
+
+        // When
+        circuitBreaker.releaseTrial();
+
+        // Then
+        assertTrue(circuitBreaker.allowRequest());
+    }
+}
@@ -0,0 +1,128 @@
+package com.tradeagent.service;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tradeagent.model.CompanyProfile;
+import com.tradeagent.repository.CompanyProfileRepository;
+import com.tradeagent.repository.StockRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyProfileCacheTest {
+
+    @Mock
+    private FinnhubService finnhubService;
+
+    @Mock
+    private CompanyProfileRepository profileRepository;
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private StockGroupIndex stockGroupIndex;
+
+    @InjectMocks
+    private CompanyProfileCache companyProfileCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(companyProfileCache, "ttlMs", 60000L);
+        lenient().when(stockGroupIndex.isListed(anyString())).thenReturn(true);
+        companyProfileCache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        companyProfileCache.shutdown();
+    }
+
+    @Test
+    void testGetProfile_FetchedOnceThenServedFromMemory() {
+        // Given
+        CompanyProfile apple = profile("AAPL", System.currentTimeMillis());
+        when(profileRepository.findById("AAPL")).thenReturn(Optional.empty());
+        when(finnhubService.getCompanyProfile("AAPL")).thenReturn(apple);
+
+        // When
+        companyProfileCache.getProfile("AAPL");
+        CompanyProfile result = companyProfileCache.getProfile("AAPL").orElseThrow();
+
+        // Then
+        assertSame(apple, result);
+        verify(finnhubService, times(1)).getCompanyProfile("AAPL");
+        verify(profileRepository).save(apple);
+        assertEquals(1L, companyProfileCache.getStats().get("memoryHits"));
+    }
+
+    @Test
+    void testGetProfile_ExpiredStoredProfileIsServedAndRevalidated() {
+        // Given
+        CompanyProfile stored = profile("MSFT", 1L);
+        when(profileRepository.findById("MSFT")).thenReturn(Optional.of(stored));
+        when(finnhubService.getCompanyProfile("MSFT")).thenReturn(profile("MSFT", System.currentTimeMillis()));
+
+        // When
+        CompanyProfile result = companyProfileCache.getProfile("MSFT").orElseThrow();
+
+        // Then
+        assertSame(stored, result);
+        verify(finnhubService, timeout(1000)).getCompanyProfile("MSFT");
+    }
+
+    @Test
+    void testGetProfile_UpstreamFailureServesUncachedFallback() {
+        // Given
+        when(profileRepository.findById("NVDA")).thenReturn(Optional.empty());
+        when(finnhubService.getCompanyProfile("NVDA")).thenThrow(new MarketDataUnavailableException("down"));
+
+        // When
+        CompanyProfile result = companyProfileCache.getProfile("NVDA").orElseThrow();
+
+        // Then
+        assertEquals("NVIDIA Corporation", result.getName());
+        verify(profileRepository, never()).save(any());
+        assertEquals(0, companyProfileCache.getStats().get("size"));
+    }
+
+    @Test
+    void testGetProfile_UnlistedSymbolIsEmptyAndNeverGoesUpstream() {
+        // Given
+        when(stockGroupIndex.isListed("NOPE")).thenReturn(false);
+
+        // When
+        Optional<CompanyProfile> result = companyProfileCache.getProfile("NOPE");
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(profileRepository, never()).findById(any());
+        verify(finnhubService, never()).getCompanyProfile(any());
+        assertEquals(0, companyProfileCache.getStats().get("size"));
+        assertEquals(1L, companyProfileCache.getStats().get("unlistedRequests"));
+    }
+
+    private CompanyProfile profile(String symbol, long fetchedAt) {
+        CompanyProfile profile = new CompanyProfile(symbol, symbol + " Inc.", "NASDAQ", "Technology", 1000.0);
+        profile.setFetchedAt(fetchedAt);
+        return profile;
+    }
+}
@@ -0,0 +1,62 @@
+package com.tradeagent.service;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class FinnhubRateLimiterTest {
+
+    private FinnhubRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new FinnhubRateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "callsPerMinute", 600);
+        ReflectionTestUtils.setField(rateLimiter, "burst", 1);
+        ReflectionTestUtils.setField(rateLimiter, "maxQueueDepth", 10);
+        ReflectionTestUtils.setField(rateLimiter, "orderMaxWaitMs", 1000L);
+        ReflectionTestUtils.setField(rateLimiter, "interactiveMaxWaitMs", 1000L);
+        ReflectionTestUtils.setField(rateLimiter, "backgroundMaxWaitMs", 0L);
+        rateLimiter.init();
+    }
+
+    @Test
+    void testAcquire_BurstIsServedImmediately() {
+        assertDoesNotThrow(() -> rateLimiter.acquire(QuotePriority.BACKGROUND));
+    }
+
+    @Test
+    void testAcquire_OverBudgetIsRejectedAfterWaitBudget() {
+        // Given
+        rateLimiter.acquire(QuotePriority.INTERACTIVE);
+
+        // When & Then
+        MarketDataUnavailableException exception = assertThrows(MarketDataUnavailableException.class,
+                () -> rateLimiter.acquire(QuotePriority.BACKGROUND));
+        assertEquals("Market data rate limit exceeded", exception.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAcquire_OrderExecutionWaitsForNextToken() {
+        // Given
+        rateLimiter.acquire(QuotePriority.INTERACTIVE);
+
+        // When
+        long start = System.currentTimeMillis();
+        rateLimiter.acquire(QuotePriority.ORDER_EXECUTION);
+        long waited = System.currentTimeMillis() - start;
+
+        // Then
+        Map<String, Object> orderStats = (Map<String, Object>) ((Map<String, Object>) rateLimiter.getStats()
+                .get("priorities")).get("ORDER_EXECUTION");
+        assertEquals(1L, orderStats.get("acquired"));
+        assertTrue(waited >= 50);
+    }
+}
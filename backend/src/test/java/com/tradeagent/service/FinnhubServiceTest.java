@@ -0,0 +1,88 @@
+package com.tradeagent.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import com.tradeagent.model.Quote;
+
+@ExtendWith(MockitoExtension.class)
+class FinnhubServiceTest {
+
+    private static final String QUOTE_BODY =
+            "{\"c\":189.5,\"d\":1.25,\"dp\":0.66,\"h\":190.1,\"l\":187.2,\"o\":188.0,\"pc\":188.25}";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private CloseableHttpAsyncClient asyncHttpClient;
+
+    @Mock
+    private FinnhubRateLimiter rateLimiter;
+
+    private FinnhubService finnhubService;
+
+    @BeforeEach
+    void setUp() {
+        finnhubService = new FinnhubService(restTemplate, asyncHttpClient);
+        ReflectionTestUtils.setField(finnhubService, "rateLimiter", rateLimiter);
+        ReflectionTestUtils.setField(finnhubService, "baseUrl", "https://finnhub.test/api/v1");
+        ReflectionTestUtils.setField(finnhubService, "apiKey", "test");
+        ReflectionTestUtils.setField(finnhubService, "failureThreshold", 5);
+        ReflectionTestUtils.setField(finnhubService, "openDurationMs", 30000L);
+        ReflectionTestUtils.setField(finnhubService, "maxConcurrentCalls", 4);
+        ReflectionTestUtils.setField(finnhubService, "bulkheadMaxWaitMs", 100L);
+        ReflectionTestUtils.setField(finnhubService, "admissionThreads", 2);
+        finnhubService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        finnhubService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetStockQuotesAsync_OmitsSymbolsWithoutQuote() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            SimpleHttpRequest request = invocation.getArgument(0);
+            FutureCallback<SimpleHttpResponse> callback = invocation.getArgument(1);
+            if (request.getRequestUri().contains("symbol=AAPL")) {
+                callback.completed(SimpleHttpResponse.create(200, QUOTE_BODY, ContentType.APPLICATION_JSON));
+            } else {
+                callback.completed(SimpleHttpResponse.create(500, "error", ContentType.TEXT_PLAIN));
+            }
+            return null;
+        }).when(asyncHttpClient).execute(any(SimpleHttpRequest.class), any(FutureCallback.class));
+
+        // When
+        Map<String, Quote> quotes = finnhubService
+                .getStockQuotesAsync(List.of("AAPL", "MSFT"), QuotePriority.INTERACTIVE)
+                .get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(1, quotes.size());
+        assertEquals(18950L, quotes.get("AAPL").getCurrentPrice());
+        assertFalse(quotes.containsKey("MSFT"));
+    }
+}
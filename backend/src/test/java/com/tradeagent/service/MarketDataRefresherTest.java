@@ -0,0 +1,143 @@
+package com.tradeagent.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tradeagent.model.Quote;
+
+@ExtendWith(MockitoExtension.class)
+class MarketDataRefresherTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Mock
+    private PriceBook priceBook;
+
+    @Mock
+    private BulkQuoteFetcher bulkQuoteFetcher;
+
+    @InjectMocks
+    private MarketDataRefresher marketDataRefresher;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(marketDataRefresher, "enabled", true);
+        ReflectionTestUtils.setField(marketDataRefresher, "minIntervalMs", 2000L);
+        ReflectionTestUtils.setField(marketDataRefresher, "maxIntervalMs", 30000L);
+        ReflectionTestUtils.setField(marketDataRefresher, "offHoursIntervalMs", 900000L);
+        ReflectionTestUtils.setField(marketDataRefresher, "heldWeight", 4.0);
+        ReflectionTestUtils.setField(marketDataRefresher, "demandDecay", 0.5);
+    }
+
+    @Test
+    void testIntervalFor_UnreadUnheldSymbolUsesMaxInterval() {
+        // When / Then
+        assertEquals(30000L, marketDataRefresher.intervalFor("AAPL", true));
+    }
+
+    @Test
+    void testIntervalFor_DemandAndHoldingsShortenTheInterval() {
+        // Given
+        demandScores().put("AAPL", 4.0);
+        ReflectionTestUtils.setField(marketDataRefresher, "heldQuantities", Map.of("MSFT", 10L));
+
+        // When / Then
+        assertEquals(6000L, marketDataRefresher.intervalFor("AAPL", true));
+        assertEquals(6000L, marketDataRefresher.intervalFor("MSFT", true));
+    }
+
+    @Test
+    void testIntervalFor_ClampedToMinInterval() {
+        // Given
+        demandScores().put("AAPL", 1000.0);
+        ReflectionTestUtils.setField(marketDataRefresher, "heldQuantities", Map.of("AAPL", 10L));
+
+        // When / Then
+        assertEquals(2000L, marketDataRefresher.intervalFor("AAPL", true));
+    }
+
+    @Test
+    void testIntervalFor_OffHoursIgnoresDemandAndHoldings() {
+        // Given
+        demandScores().put("AAPL", 1000.0);
+        ReflectionTestUtils.setField(marketDataRefresher, "heldQuantities", Map.of("AAPL", 10L));
+
+        // When / Then
+        assertEquals(900000L, marketDataRefresher.intervalFor("AAPL", false));
+    }
+
+    @Test
+    void testIsMarketOpen_Boundaries() {
+        // 2026-10-19 is a Monday
+        assertFalse(MarketDataRefresher.isMarketOpen(newYork(2026, 10, 19, 9, 29, 59)));
+        assertTrue(MarketDataRefresher.isMarketOpen(newYork(2026, 10, 19, 9, 30, 0)));
+        assertTrue(MarketDataRefresher.isMarketOpen(newYork(2026, 10, 19, 15, 59, 59)));
+        assertFalse(MarketDataRefresher.isMarketOpen(newYork(2026, 10, 19, 16, 0, 0)));
+        assertFalse(MarketDataRefresher.isMarketOpen(newYork(2026, 10, 17, 11, 0, 0)));
+        assertFalse(MarketDataRefresher.isMarketOpen(newYork(2026, 10, 18, 11, 0, 0)));
+    }
+
+    @Test
+    void testIsMarketOpen_UsesNewYorkTime() {
+        // 14:00 UTC on a Monday in October is 10:00 in New York
+        assertTrue(MarketDataRefresher.isMarketOpen(
+                ZonedDateTime.of(2026, 10, 19, 14, 0, 0, 0, ZoneId.of("UTC")).withZoneSameInstant(NEW_YORK)));
+    }
+
+    @Test
+    void testRefreshDueSymbols_StaleResultIsRetriedAtMinInterval() {
+        // Given
+        ReflectionTestUtils.setField(marketDataRefresher, "offHoursIntervalMs", 3600000L);
+        ReflectionTestUtils.setField(marketDataRefresher, "maxIntervalMs", 3600000L);
+        marketDataRefresher.track("AAPL");
+        when(priceBook.drainDemand()).thenReturn(Map.of());
+        when(bulkQuoteFetcher.fetchFreshQuotes(List.of("AAPL"))).thenReturn(Map.of("AAPL", staleQuote("AAPL")));
+
+        // When
+        long before = System.currentTimeMillis();
+        marketDataRefresher.refreshDueSymbols();
+
+        // Then
+        long due = nextDue().get("AAPL");
+        assertTrue(due <= System.currentTimeMillis() + 2000L, "stale symbol should be due again within min interval");
+        assertTrue(due >= before + 2000L);
+        verify(priceBook, never()).update(anyString(), any(Quote.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Double> demandScores() {
+        return (Map<String, Double>) ReflectionTestUtils.getField(marketDataRefresher, "demandScores");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> nextDue() {
+        return (Map<String, Long>) ReflectionTestUtils.getField(marketDataRefresher, "nextDue");
+    }
+
+    private ZonedDateTime newYork(int year, int month, int day, int hour, int minute, int second) {
+        return ZonedDateTime.of(year, month, day, hour, minute, second, 0, NEW_YORK);
+    }
+
+    private Quote staleQuote(String symbol) {
+        return new Quote(symbol, 15000, 0, 0, 15000, 15000, 15000, 15000, System.currentTimeMillis(), true);
+    }
+}
@@ -0,0 +1,203 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tradeagent.model.OrderStatus;
+import com.tradeagent.model.Stock;
+import com.tradeagent.model.Transaction;
+import com.tradeagent.model.TransactionType;
+import com.tradeagent.model.User;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEntryServiceTest {
+
+    @Mock
+    private OrderExecutionPipeline orderExecutionPipeline;
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private OrderEntryService orderEntryService;
+
+    private OrderSequencer orderSequencer;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        orderSequencer = new OrderSequencer();
+        ReflectionTestUtils.setField(orderSequencer, "laneCount", 2);
+        ReflectionTestUtils.setField(orderSequencer, "queueCapacity", 16);
+        ReflectionTestUtils.setField(orderSequencer, "offerTimeoutMs", 100L);
+        orderSequencer.init();
+
+        ReflectionTestUtils.setField(orderEntryService, "orderSequencer", orderSequencer);
+        ReflectionTestUtils.setField(orderEntryService, "priceBook", new PriceBook(16));
+        ReflectionTestUtils.setField(orderEntryService, "ringSize", 8);
+        ReflectionTestUtils.setField(orderEntryService, "maxQuantity", 1000);
+        ReflectionTestUtils.setField(orderEntryService, "persistBatchSize", 16);
+        ReflectionTestUtils.setField(orderEntryService, "retentionMs", 60000L);
+        ReflectionTestUtils.setField(orderEntryService, "drainTimeoutMs", 5000L);
+        orderEntryService.init();
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class))
+                .thenReturn(bulkOperations);
+
+        user = new User();
+        user.setId("1");
+        user.setBalance(BigDecimal.valueOf(10000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderEntryService.shutdown();
+        orderSequencer.shutdown();
+    }
+
+    @Test
+    void testSubmit_AcknowledgesThenFillsWithSavedTransaction() {
+        // Given
+        Transaction transaction = new Transaction(user, "AAPL", "Apple Inc.", TransactionType.BUY, 2,
+                new BigDecimal("150.00"));
+        when(stockService.getInstrument("AAPL")).thenReturn(Optional.of(stock("AAPL")));
+        when(orderExecutionPipeline.executeUnjournaled(user, "AAPL", TransactionType.BUY, 2)).thenReturn(transaction);
+
+        // When
+        OrderTicket ticket = orderEntryService.submit(user, "aapl", TransactionType.BUY, 2);
+
+        // Then
+        verify(bulkOperations, timeout(5000)).execute();
+        verify(bulkOperations).replaceOne(any(Query.class), eq(transaction), any(FindAndReplaceOptions.class));
+        awaitCompletion(ticket);
+        assertEquals(OrderStatus.FILLED, ticket.getStatus());
+        assertEquals(transaction, ticket.getTransaction());
+        assertNotNull(transaction.getId());
+        assertEquals(Optional.of(ticket), orderEntryService.getOrder(user, ticket.getId()));
+    }
+
+    @Test
+    void testSubmit_FailedBatchIsRetriedWithTheSameIds() {
+        // Given
+        Transaction transaction = new Transaction(user, "AAPL", "Apple Inc.", TransactionType.BUY, 2,
+                new BigDecimal("150.00"));
+        when(stockService.getInstrument("AAPL")).thenReturn(Optional.of(stock("AAPL")));
+        when(orderExecutionPipeline.executeUnjournaled(user, "AAPL", TransactionType.BUY, 2)).thenReturn(transaction);
+        List<String> savedIds = new CopyOnWriteArrayList<>();
+        when(bulkOperations.replaceOne(any(Query.class), any(Transaction.class), any(FindAndReplaceOptions.class)))
+                .thenAnswer(invocation -> {
+                    savedIds.add(invocation.<Transaction>getArgument(1).getId());
+                    return bulkOperations;
+                });
+        when(bulkOperations.execute()).thenThrow(new RuntimeException("write timeout")).thenReturn(null);
+
+        // When
+        OrderTicket ticket = orderEntryService.submit(user, "AAPL", TransactionType.BUY, 2);
+
+        // Then
+        verify(bulkOperations, timeout(5000).times(2)).execute();
+        awaitCompletion(ticket);
+        assertEquals(OrderStatus.FILLED, ticket.getStatus());
+        assertEquals(List.of(transaction.getId(), transaction.getId()), savedIds);
+        assertEquals(1L, orderEntryService.getStats().get("persistFailures"));
+    }
+
+    @Test
+    void testShutdown_SavesAcknowledgedOrdersAndRefusesNewOnes() {
+        // Given
+        Transaction transaction = new Transaction(user, "AAPL", "Apple Inc.", TransactionType.BUY, 2,
+                new BigDecimal("150.00"));
+        when(stockService.getInstrument("AAPL")).thenReturn(Optional.of(stock("AAPL")));
+        when(orderExecutionPipeline.executeUnjournaled(user, "AAPL", TransactionType.BUY, 2)).thenReturn(transaction);
+        OrderTicket ticket = orderEntryService.submit(user, "AAPL", TransactionType.BUY, 2);
+
+        // When
+        orderEntryService.shutdown();
+
+        // Then
+        assertEquals(OrderStatus.FILLED, ticket.getStatus());
+        verify(bulkOperations, times(1)).execute();
+        assertThrows(OrderQueueFullException.class,
+                () -> orderEntryService.submit(user, "AAPL", TransactionType.BUY, 2));
+    }
+
+    @Test
+    void testSubmit_RiskStageRejectsUnknownSymbol() {
+        // Given
+        when(stockService.getInstrument("NOPE")).thenReturn(Optional.empty());
+
+        // When
+        OrderTicket ticket = orderEntryService.submit(user, "NOPE", TransactionType.BUY, 1);
+
+        // Then
+        awaitCompletion(ticket);
+        assertEquals(OrderStatus.REJECTED, ticket.getStatus());
+        assertEquals("Stock not found: NOPE", ticket.getReason());
+    }
+
+    @Test
+    void testSubmit_RejectsMalformedOrderWithoutQueueing() {
+        // When
+        assertThrows(RuntimeException.class, () -> orderEntryService.submit(user, "AAPL", TransactionType.SELL, 0));
+
+        // Then
+        assertEquals(0L, orderEntryService.getStats().get("submitted"));
+    }
+
+    @Test
+    void testGetOrder_HiddenFromOtherUsers() {
+        // Given
+        when(stockService.getInstrument("NOPE")).thenReturn(Optional.empty());
+        OrderTicket ticket = orderEntryService.submit(user, "NOPE", TransactionType.BUY, 1);
+        User other = new User();
+        other.setId("2");
+
+        // When
+        Optional<OrderTicket> result = orderEntryService.getOrder(other, ticket.getId());
+
+        // Then
+        assertEquals(Optional.empty(), result);
+        awaitCompletion(ticket);
+    }
+
+    private void awaitCompletion(OrderTicket ticket) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!ticket.isCompleted() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private Stock stock(String symbol) {
+        return new Stock(symbol, "Apple Inc.", BigDecimal.TEN, BigDecimal.TEN, "Technology", "Consumer Electronics");
+    }
+}
@@ -0,0 +1,138 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.tradeagent.model.Portfolio;
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.Stock;
+import com.tradeagent.model.Transaction;
+import com.tradeagent.model.TransactionType;
+import com.tradeagent.model.User;
+import com.tradeagent.repository.TransactionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExecutionPipelineTest {
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private PortfolioService portfolioService;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @InjectMocks
+    private OrderExecutionPipeline orderExecutionPipeline;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId("1");
+        user.setBalance(BigDecimal.valueOf(10000));
+    }
+
+    @Test
+    void testExecute_BuyJournalsThePriceThatWasChecked() {
+        // Given
+        Quote quote = quote("AAPL", 15025);
+        when(stockService.getInstrument("AAPL")).thenReturn(Optional.of(stock("AAPL")));
+        when(stockService.getExecutionQuote("AAPL")).thenReturn(quote);
+        when(portfolioService.findPortfolio(user)).thenReturn(Optional.empty());
+        when(portfolioService.addPosition(any(Portfolio.class), eq("AAPL"), eq(10), eq(new BigDecimal("150.25"))))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(userService.hasSufficientBalance(user, new BigDecimal("1502.50"))).thenReturn(true);
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Transaction transaction = orderExecutionPipeline.execute(user, "AAPL", TransactionType.BUY, 10);
+
+        // Then
+        assertEquals(new BigDecimal("150.25"), transaction.getPricePerShare());
+        assertEquals(new BigDecimal("1502.50"), transaction.getTotalAmount());
+        verify(stockService, times(1)).getExecutionQuote("AAPL");
+        verify(userService).deductBalance(user, new BigDecimal("1502.50"));
+        verify(portfolioService).addPosition(any(Portfolio.class), eq("AAPL"), eq(10), eq(new BigDecimal("150.25")));
+    }
+
+    @Test
+    void testExecute_BuyRefundsBalanceWhenPositionUpdateFails() {
+        // Given
+        when(stockService.getInstrument("AAPL")).thenReturn(Optional.of(stock("AAPL")));
+        when(stockService.getExecutionQuote("AAPL")).thenReturn(quote("AAPL", 10000));
+        when(portfolioService.findPortfolio(user)).thenReturn(Optional.empty());
+        when(userService.hasSufficientBalance(user, new BigDecimal("100.00"))).thenReturn(true);
+        when(portfolioService.addPosition(any(Portfolio.class), eq("AAPL"), eq(1), any(BigDecimal.class)))
+                .thenThrow(new RuntimeException("write failed"));
+
+        // When
+        assertThrows(RuntimeException.class,
+                () -> orderExecutionPipeline.execute(user, "AAPL", TransactionType.BUY, 1));
+
+        // Then
+        verify(userService).deductBalance(user, new BigDecimal("100.00"));
+        verify(userService).addBalance(user, new BigDecimal("100.00"));
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void testExecute_SellRejectedWithoutShares() {
+        // Given
+        when(stockService.getInstrument("AAPL")).thenReturn(Optional.of(stock("AAPL")));
+        when(stockService.getExecutionQuote("AAPL")).thenReturn(quote("AAPL", 15025));
+        when(portfolioService.findPortfolio(user)).thenReturn(Optional.of(new Portfolio(user)));
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> orderExecutionPipeline.execute(user, "AAPL", TransactionType.SELL, 5));
+
+        // Then
+        assertEquals("Insufficient shares to sell", exception.getMessage());
+        verify(userService, never()).addBalance(any(), any());
+        verify(transactionRepository, never()).save(any());
+        assertEquals(1L, orderExecutionPipeline.getStats().get("rejected"));
+    }
+
+    @Test
+    void testExecute_UnknownSymbolIsRejectedBeforeQuoting() {
+        // Given
+        when(stockService.getInstrument("NOPE")).thenReturn(Optional.empty());
+
+        // When
+        assertThrows(RuntimeException.class,
+                () -> orderExecutionPipeline.execute(user, "NOPE", TransactionType.BUY, 1));
+
+        // Then
+        verify(stockService, never()).getExecutionQuote("NOPE");
+    }
+
+    private Stock stock(String symbol) {
+        return new Stock(symbol, "Apple Inc.", BigDecimal.TEN, BigDecimal.TEN, "Technology", "Consumer Electronics");
+    }
+
+    private Quote quote(String symbol, long priceCents) {
+        return new Quote(symbol, priceCents, 0, 0, priceCents, priceCents, priceCents, priceCents,
+                System.currentTimeMillis(), false);
+    }
+}
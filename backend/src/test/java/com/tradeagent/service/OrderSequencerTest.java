@@ -0,0 +1,181 @@
+package com.tradeagent.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class OrderSequencerTest {
+
+    private OrderSequencer orderSequencer;
+
+    @BeforeEach
+    void setUp() {
+        orderSequencer = new OrderSequencer();
+        ReflectionTestUtils.setField(orderSequencer, "laneCount", 4);
+        ReflectionTestUtils.setField(orderSequencer, "queueCapacity", 1);
+        ReflectionTestUtils.setField(orderSequencer, "offerTimeoutMs", 50L);
+        ReflectionTestUtils.setField(orderSequencer, "drainTimeoutMs", 5000L);
+        orderSequencer.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderSequencer.shutdown();
+    }
+
+    @Test
+    void testSubmit_RunsOneAccountsOrdersInSubmissionOrder() throws Exception {
+        // Given
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        ReflectionTestUtils.setField(orderSequencer, "offerTimeoutMs", 5000L);
+
+        // When
+        CompletableFuture<?> last = null;
+        for (int i = 0; i < 20; i++) {
+            int order = i;
+            last = orderSequencer.submit("user-1", () -> executed.add(order));
+        }
+        last.get(5, TimeUnit.SECONDS);
+
+        // Then
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, executed.get(i));
+        }
+    }
+
+    @Test
+    void testSubmit_RejectsWhenLaneIsFull() throws Exception {
+        // Given
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        orderSequencer.submit("user-1", () -> {
+            running.countDown();
+            awaitQuietly(release);
+            return null;
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        orderSequencer.submit("user-1", () -> null);
+
+        // When
+        assertThrows(OrderQueueFullException.class, () -> orderSequencer.submit("user-1", () -> null));
+        release.countDown();
+
+        // Then
+        assertEquals(1L, orderSequencer.getStats().get("rejected"));
+    }
+
+    @Test
+    void testTrySubmit_RejectsAtOnceWhenLaneIsFull() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(orderSequencer, "offerTimeoutMs", 5000L);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        orderSequencer.submit("user-1", () -> {
+            running.countDown();
+            awaitQuietly(release);
+            return null;
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        orderSequencer.submit("user-1", () -> null);
+
+        // When
+        long started = System.nanoTime();
+        assertThrows(OrderQueueFullException.class, () -> orderSequencer.trySubmit("user-1", () -> null));
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        release.countDown();
+
+        // Then
+        assertTrue(waitedMs < 1000, "trySubmit waited " + waitedMs + " ms");
+        assertEquals(1L, orderSequencer.getStats().get("rejected"));
+    }
+
+    @Test
+    void testExecute_RethrowsTheWorksException() {
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> orderSequencer.execute("user-1", () -> {
+                    throw new RuntimeException("Insufficient shares to sell");
+                }));
+
+        // Then
+        assertEquals("Insufficient shares to sell", exception.getMessage());
+    }
+
+    @Test
+    void testShutdown_FinishesQueuedWorkAndRefusesNewWork() throws Exception {
+        // Given
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        orderSequencer.submit("user-1", () -> {
+            running.countDown();
+            awaitQuietly(release);
+            return null;
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = orderSequencer.submit("user-1", () -> "filled");
+
+        // When
+        Thread stopper = new Thread(orderSequencer::shutdown);
+        stopper.start();
+        awaitRefusal();
+        release.countDown();
+        stopper.join(5000);
+
+        // Then
+        assertEquals("filled", queued.get(1, TimeUnit.SECONDS));
+        assertThrows(OrderQueueFullException.class, () -> orderSequencer.submit("user-2", () -> null));
+    }
+
+    @Test
+    void testShutdown_FailsWorkLeftAfterTheDrainTimeout() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(orderSequencer, "drainTimeoutMs", 50L);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        orderSequencer.submit("user-1", () -> {
+            running.countDown();
+            awaitQuietly(release);
+            return null;
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> queued = orderSequencer.submit("user-1", () -> null);
+
+        // When
+        orderSequencer.shutdown();
+        release.countDown();
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof OrderQueueFullException);
+    }
+
+    private void awaitRefusal() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            try {
+                orderSequencer.submit("user-2", () -> null);
+            } catch (OrderQueueFullException e) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.tradeagent.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.tradeagent.model.Quote;
+
+class PriceBookTest {
+
+    @Test
+    void testUpdate_OlderQuoteIsIgnored() {
+        // Given
+        PriceBook priceBook = new PriceBook(16);
+        priceBook.update("AAPL", quote("AAPL", 15000, 2000L));
+
+        // When
+        priceBook.update("AAPL", quote("AAPL", 14000, 1000L));
+
+        // Then
+        Quote stored = priceBook.getQuote("AAPL");
+        assertEquals(15000L, stored.getCurrentPrice());
+        assertEquals(2000L, priceBook.getUpdatedAt("AAPL"));
+        assertEquals(1L, priceBook.getStats().get("staleUpdatesIgnored"));
+    }
+
+    @Test
+    void testUpdate_VersionMovesOnlyWhenPricesChange() {
+        // Given
+        PriceBook priceBook = new PriceBook(16);
+        priceBook.update("AAPL", quote("AAPL", 15000, 1000L));
+        long symbolVersion = priceBook.getVersion("AAPL");
+        long bookVersion = priceBook.getVersion();
+
+        // When
+        priceBook.update("AAPL", quote("AAPL", 15000, 2000L));
+
+        // Then
+        assertEquals(symbolVersion, priceBook.getVersion("AAPL"));
+        assertEquals(bookVersion, priceBook.getVersion());
+
+        // When
+        priceBook.update("AAPL", quote("AAPL", 15100, 3000L));
+
+        // Then
+        assertEquals(symbolVersion + 1, priceBook.getVersion("AAPL"));
+        assertEquals(bookVersion + 1, priceBook.getVersion());
+    }
+
+    @Test
+    void testUpdate_SymbolsBeyondCapacityAreRejected() {
+        // Given
+        PriceBook priceBook = new PriceBook(1);
+        priceBook.update("AAPL", quote("AAPL", 15000, 1000L));
+
+        // When
+        priceBook.update("MSFT", quote("MSFT", 30000, 1000L));
+
+        // Then
+        assertNull(priceBook.getQuote("MSFT"));
+        assertEquals(0L, priceBook.getUpdatedAt("MSFT"));
+        assertEquals(1L, priceBook.getStats().get("capacityRejected"));
+    }
+
+    @Test
+    void testGetQuote_ReadersNeverSeeTornQuotes() throws Exception {
+        // Given
+        PriceBook priceBook = new PriceBook(16);
+        priceBook.update("AAPL", quote("AAPL", 1, 1L));
+        Thread writer = new Thread(() -> {
+            for (long i = 2; i <= 200_000; i++) {
+                priceBook.update("AAPL", quote("AAPL", i, i));
+            }
+        });
+
+        // When
+        writer.start();
+        int torn = 0;
+        while (writer.isAlive()) {
+            Quote quote = priceBook.getQuote("AAPL");
+            if (quote.getCurrentPrice() != quote.getAsOf() || quote.getHighPrice() != quote.getAsOf()) {
+                torn++;
+            }
+        }
+        writer.join();
+
+        // Then
+        assertEquals(0, torn);
+        assertEquals(200_000L, priceBook.getQuote("AAPL").getCurrentPrice());
+    }
+
+    @Test
+    void testGetQuote_OnlyPricedSymbolsCountAsDemand() {
+        // Given
+        PriceBook priceBook = new PriceBook(16);
+        priceBook.update("AAPL", quote("AAPL", 15000, 1000L));
+
+        // When
+        priceBook.getQuote("AAPL");
+        priceBook.getQuote("AAPL");
+        assertNull(priceBook.getQuote("NOT-A-SYMBOL"));
+
+        // Then
+        assertEquals(Map.of("AAPL", 2L), priceBook.drainDemand());
+        assertEquals(1L, priceBook.getStats().get("readMisses"));
+    }
+
+    @Test
+    void testPeekQuote_DoesNotCountAsDemand() {
+        // Given
+        PriceBook priceBook = new PriceBook(16);
+        priceBook.update("AAPL", quote("AAPL", 15000, 1000L));
+
+        // When
+        Quote quote = priceBook.peekQuote("AAPL");
+
+        // Then
+        assertEquals(15000L, quote.getCurrentPrice());
+        assertEquals(Map.of(), priceBook.drainDemand());
+    }
+
+    private Quote quote(String symbol, long priceCents, long asOf) {
+        return new Quote(symbol, priceCents, 0, 0, priceCents, priceCents, priceCents, priceCents, asOf, false);
+    }
+}
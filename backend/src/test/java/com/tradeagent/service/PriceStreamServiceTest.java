@@ -0,0 +1,118 @@
+package com.tradeagent.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tradeagent.model.Quote;
+
+class PriceStreamServiceTest {
+
+    private PriceBook priceBook;
+    private PriceStreamService priceStreamService;
+
+    @BeforeEach
+    void setUp() {
+        priceBook = new PriceBook(64);
+        priceStreamService = new PriceStreamService();
+        ReflectionTestUtils.setField(priceStreamService, "priceBook", priceBook);
+        ReflectionTestUtils.setField(priceStreamService, "emitterTimeoutMs", 60000L);
+        ReflectionTestUtils.setField(priceStreamService, "maxSubscribers", 10);
+        ReflectionTestUtils.setField(priceStreamService, "queueCapacity", 100);
+        ReflectionTestUtils.setField(priceStreamService, "flushIntervalMs", 3600000L);
+        ReflectionTestUtils.setField(priceStreamService, "flushThreads", 1);
+        ReflectionTestUtils.setField(priceStreamService, "maxLagMs", 60000L);
+        ReflectionTestUtils.setField(priceStreamService, "heartbeatMs", 60000L);
+        priceStreamService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        priceStreamService.shutdown();
+    }
+
+    @Test
+    void testSubscribe_ChangesAreConflatedPerSymbol() throws Exception {
+        // Given
+        priceBook.update("AAPL", quote("AAPL", 15000, 1000L));
+        priceStreamService.subscribe(List.of("AAPL"));
+
+        // When
+        priceBook.update("AAPL", quote("AAPL", 15100, 2000L));
+        priceBook.update("AAPL", quote("AAPL", 15100, 3000L));
+        priceBook.update("AAPL", quote("AAPL", 15200, 4000L));
+        priceBook.update("MSFT", quote("MSFT", 30000, 2000L));
+
+        // Then
+        awaitPublished(4);
+        assertEquals(1L, priceStreamService.getStats().get("unchangedSkipped"));
+        // The snapshot and both AAPL changes collapse into one buffered event; MSFT is filtered out
+        Map<String, Object> subscriber = priceStreamService.getSubscriberStats(10).get(0);
+        assertEquals(1, subscriber.get("pendingSymbols"));
+        assertEquals(2L, subscriber.get("eventsConflated"));
+        assertEquals(0L, priceStreamService.getStats().get("eventsSent"));
+    }
+
+    @Test
+    void testSubscribe_SnapshotDoesNotCountAsDemand() {
+        // Given
+        priceBook.update("AAPL", quote("AAPL", 15000, 1000L));
+
+        // When
+        priceStreamService.subscribe(List.of("AAPL"));
+
+        // Then
+        assertEquals(Map.of(), priceBook.drainDemand());
+    }
+
+    @Test
+    void testOnQuote_DroppedChangeIsNotRecordedAsPublished() {
+        // Given a service whose queue is full and has no dispatcher draining it
+        PriceStreamService stalled = new PriceStreamService();
+        BlockingQueue<Quote> pending = new ArrayBlockingQueue<>(1);
+        pending.add(quote("MSFT", 30000, 1000L));
+        ReflectionTestUtils.setField(stalled, "pending", pending);
+
+        // When
+        stalled.onQuote(quote("AAPL", 15000, 1000L));
+        pending.clear();
+        stalled.onQuote(quote("AAPL", 15000, 2000L));
+
+        // Then
+        assertEquals(1L, stalled.getStats().get("changesDropped"));
+        assertEquals(0L, stalled.getStats().get("unchangedSkipped"));
+        assertEquals(15000L, pending.peek().getCurrentPrice());
+    }
+
+    @Test
+    void testToJson_UsesStockFieldNames() {
+        // Given
+        Quote quote = new Quote("AAPL", 18950, 125, 66, 19010, 18720, 18800, 18825, 1000L, false);
+
+        // When
+        String json = PriceStreamService.toJson(quote);
+
+        // Then
+        assertTrue(json.startsWith("{\"symbol\":\"AAPL\",\"currentPrice\":189.50,\"previousClose\":188.25"));
+        assertTrue(json.contains("\"changePercent\":0.66"));
+    }
+
+    private void awaitPublished(long expected) throws InterruptedException {
+        for (int i = 0; i < 100 && (long) priceStreamService.getStats().get("changesPublished") < expected; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, priceStreamService.getStats().get("changesPublished"));
+    }
+
+    private Quote quote(String symbol, long priceCents, long asOf) {
+        return new Quote(symbol, priceCents, 0, 0, priceCents, priceCents, priceCents, priceCents, asOf, false);
+    }
+}
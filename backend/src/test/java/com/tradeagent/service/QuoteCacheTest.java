@@ -0,0 +1,128 @@
+package com.tradeagent.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tradeagent.model.Quote;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteCacheTest {
+
+    @Mock
+    private QuoteRequestCoalescer quoteRequestCoalescer;
+
+    @InjectMocks
+    private QuoteCache quoteCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(quoteCache, "defaultTtlMs", 60000L);
+        ReflectionTestUtils.setField(quoteCache, "maxStaleMs", 60000L);
+        ReflectionTestUtils.setField(quoteCache, "maxEntries", 2);
+        ReflectionTestUtils.setField(quoteCache, "refreshThreads", 1);
+        ReflectionTestUtils.setField(quoteCache, "symbolTtlOverrides", "TSLA=0");
+        quoteCache.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        quoteCache.shutdown();
+    }
+
+    @Test
+    void testGetQuote_FreshEntryIsServedFromCache() {
+        // Given
+        when(quoteRequestCoalescer.getQuote("AAPL", QuotePriority.INTERACTIVE)).thenReturn(quote("AAPL", 15000));
+
+        // When
+        quoteCache.getQuote("AAPL");
+        Quote result = quoteCache.getQuote("AAPL");
+
+        // Then
+        assertEquals(15000L, result.getCurrentPrice());
+        verify(quoteRequestCoalescer, times(1)).getQuote("AAPL", QuotePriority.INTERACTIVE);
+        assertEquals(1L, quoteCache.getStats().get("hits"));
+        assertEquals(1L, quoteCache.getStats().get("misses"));
+    }
+
+    @Test
+    void testGetQuote_StaleEntryIsServedWhileRefreshing() {
+        // Given
+        when(quoteRequestCoalescer.getQuote("TSLA", QuotePriority.INTERACTIVE)).thenReturn(quote("TSLA", 80000));
+        when(quoteRequestCoalescer.getQuote("TSLA", QuotePriority.BACKGROUND)).thenReturn(quote("TSLA", 81000));
+
+        // When
+        quoteCache.getQuote("TSLA");
+        Quote stale = quoteCache.getQuote("TSLA");
+
+        // Then
+        assertEquals(80000L, stale.getCurrentPrice());
+        verify(quoteRequestCoalescer, timeout(1000)).getQuote("TSLA", QuotePriority.BACKGROUND);
+        assertEquals(1L, quoteCache.getStats().get("staleHits"));
+    }
+
+    @Test
+    void testGetQuote_EvictsOldestWhenFull() {
+        // Given
+        when(quoteRequestCoalescer.getQuote("AAPL", QuotePriority.INTERACTIVE)).thenReturn(quote("AAPL", 15000));
+        when(quoteRequestCoalescer.getQuote("MSFT", QuotePriority.INTERACTIVE)).thenReturn(quote("MSFT", 30000));
+        when(quoteRequestCoalescer.getQuote("AMD", QuotePriority.INTERACTIVE)).thenReturn(quote("AMD", 10000));
+
+        // When
+        quoteCache.getQuote("AAPL");
+        quoteCache.getQuote("MSFT");
+        quoteCache.getQuote("AMD");
+
+        // Then
+        assertEquals(2, quoteCache.getStats().get("size"));
+        assertEquals(1L, quoteCache.getStats().get("evictions"));
+    }
+
+    @Test
+    void testGetQuote_ConcurrentMissesNeverExceedBound() throws Exception {
+        // Given
+        when(quoteRequestCoalescer.getQuote(anyString(), eq(QuotePriority.INTERACTIVE)))
+                .thenAnswer(invocation -> quote(invocation.getArgument(0), 10000));
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<Quote>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String symbol = "S" + i;
+            results.add(callers.submit(() -> quoteCache.getQuote(symbol)));
+        }
+        for (Future<Quote> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+        callers.shutdown();
+
+        // Then
+        assertEquals(2, quoteCache.getStats().get("size"));
+        assertEquals(198L, quoteCache.getStats().get("evictions"));
+    }
+
+    private Quote quote(String symbol, long priceCents) {
+        return new Quote(symbol, priceCents, 0, 0, priceCents, priceCents, priceCents, priceCents,
+                System.currentTimeMillis(), false);
+    }
+}
@@ -0,0 +1,50 @@
+package com.tradeagent.service;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import com.tradeagent.model.Quote;
+
+class QuoteJsonTest {
+
+    @Test
+    void testParse_FinnhubResponseToFixedPoint() throws Exception {
+        // Given
+        byte[] body = "{\"c\":189.5,\"d\":-1.255,\"dp\":-0.6549,\"h\":190,\"l\":187.2,\"o\":null,\"pc\":188.25,\"t\":1700000000}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        // When
+        Quote quote = QuoteJson.parse(body, "AAPL", 1000L);
+
+        // Then
+        assertEquals("AAPL", quote.getSymbol());
+        assertEquals(18950L, quote.getCurrentPrice());
+        assertEquals(-126L, quote.getChange());
+        assertEquals(-65L, quote.getChangePercent());
+        assertEquals(19000L, quote.getHighPrice());
+        assertEquals(18720L, quote.getLowPrice());
+        assertEquals(0L, quote.getOpenPrice());
+        assertEquals(18825L, quote.getPreviousClose());
+        assertEquals(1000L, quote.getAsOf());
+    }
+
+    @Test
+    void testWrite_RoundTripsThroughParse() throws Exception {
+        // Given
+        Quote original = new Quote("MSFT", 41012, -305, -74, 41500, 40900, 41317, 41317, 1234L, false);
+
+        // When
+        String json = QuoteJson.write(original);
+        Quote parsed = QuoteJson.parse(json.getBytes(StandardCharsets.UTF_8), null, 0L);
+
+        // Then
+        assertEquals("MSFT", parsed.getSymbol());
+        assertEquals(1234L, parsed.getAsOf());
+        assertEquals(41012L, parsed.getCurrentPrice());
+        assertEquals(-305L, parsed.getChange());
+        assertEquals(-74L, parsed.getChangePercent());
+        assertEquals(41317L, parsed.getPreviousClose());
+    }
+}
@@ -0,0 +1,168 @@
+package com.tradeagent.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.tradeagent.model.Quote;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteRequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    @Mock
+    private MarketDataProvider marketDataProvider;
+
+    @InjectMocks
+    private QuoteRequestCoalescer quoteRequestCoalescer;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testGetQuote_ConcurrentCallersShareOneUpstreamCall() throws Exception {
+        // Given
+        when(marketDataProvider.getQuote("AAPL", QuotePriority.INTERACTIVE)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return quote("AAPL", 15000);
+        });
+
+        // When
+        List<Future<Quote>> results = submitCallers("AAPL", QuotePriority.INTERACTIVE);
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        // Then
+        for (Future<Quote> result : results) {
+            assertEquals(15000L, result.get(5, TimeUnit.SECONDS).getCurrentPrice());
+        }
+        verify(marketDataProvider, times(1)).getQuote("AAPL", QuotePriority.INTERACTIVE);
+        assertEquals(1L, quoteRequestCoalescer.getStats().get("upstreamCalls"));
+        assertEquals((long) CALLERS - 1, quoteRequestCoalescer.getStats().get("coalescedCalls"));
+        assertEquals(0, quoteRequestCoalescer.getStats().get("inFlight"));
+    }
+
+    @Test
+    void testGetQuote_UpstreamFailureReachesEveryWaiter() throws Exception {
+        // Given
+        when(marketDataProvider.getQuote("AAPL", QuotePriority.INTERACTIVE)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new MarketDataUnavailableException("upstream down");
+        });
+
+        // When
+        List<Future<Quote>> results = submitCallers("AAPL", QuotePriority.INTERACTIVE);
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        // Then
+        for (Future<Quote> result : results) {
+            ExecutionException failure = null;
+            try {
+                result.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                failure = e;
+            }
+            assertNotNull(failure, "every caller should see the upstream failure");
+            assertInstanceOf(MarketDataUnavailableException.class, failure.getCause());
+        }
+        verify(marketDataProvider, times(1)).getQuote("AAPL", QuotePriority.INTERACTIVE);
+    }
+
+    @Test
+    void testGetQuote_OrderExecutionDoesNotJoinBackgroundFlight() throws Exception {
+        // Given
+        when(marketDataProvider.getQuote("AAPL", QuotePriority.BACKGROUND)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return quote("AAPL", 15000);
+        });
+        when(marketDataProvider.getQuote("AAPL", QuotePriority.ORDER_EXECUTION)).thenReturn(quote("AAPL", 15100));
+        Future<Quote> background = callers.submit(() -> quoteRequestCoalescer.getQuote("AAPL", QuotePriority.BACKGROUND));
+        awaitInFlight(1);
+
+        // When
+        Quote order = quoteRequestCoalescer.getQuote("AAPL", QuotePriority.ORDER_EXECUTION);
+        release.countDown();
+
+        // Then
+        assertEquals(15100L, order.getCurrentPrice());
+        assertEquals(15000L, background.get(5, TimeUnit.SECONDS).getCurrentPrice());
+        assertEquals(2L, quoteRequestCoalescer.getStats().get("upstreamCalls"));
+        assertEquals(0L, quoteRequestCoalescer.getStats().get("coalescedCalls"));
+    }
+
+    @Test
+    void testGetQuote_BackgroundJoinsOrderExecutionFlight() throws Exception {
+        // Given
+        when(marketDataProvider.getQuote("AAPL", QuotePriority.ORDER_EXECUTION)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return quote("AAPL", 15100);
+        });
+        Future<Quote> order = callers.submit(() -> quoteRequestCoalescer.getQuote("AAPL", QuotePriority.ORDER_EXECUTION));
+        awaitInFlight(1);
+
+        // When
+        Future<Quote> background = callers.submit(() -> quoteRequestCoalescer.getQuote("AAPL", QuotePriority.BACKGROUND));
+        awaitCoalesced(1);
+        release.countDown();
+
+        // Then
+        assertEquals(15100L, order.get(5, TimeUnit.SECONDS).getCurrentPrice());
+        assertEquals(15100L, background.get(5, TimeUnit.SECONDS).getCurrentPrice());
+        verify(marketDataProvider, times(1)).getQuote("AAPL", QuotePriority.ORDER_EXECUTION);
+        assertEquals(1L, quoteRequestCoalescer.getStats().get("upstreamCalls"));
+    }
+
+    private List<Future<Quote>> submitCallers(String symbol, QuotePriority priority) {
+        List<Future<Quote>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> quoteRequestCoalescer.getQuote(symbol, priority)));
+        }
+        return results;
+    }
+
+    private void awaitCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((long) quoteRequestCoalescer.getStats().get("coalescedCalls") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private void awaitInFlight(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((int) quoteRequestCoalescer.getStats().get("inFlight") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private Quote quote(String symbol, long priceCents) {
+        return new Quote(symbol, priceCents, 0, 0, priceCents, priceCents, priceCents, priceCents,
+                System.currentTimeMillis(), false);
+    }
+}
@@ -0,0 +1,62 @@
+package com.tradeagent.service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.tradeagent.model.Quote;
+
+class ReplayMarketDataProviderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReplay_PlaysRecordedSessionAtConfiguredSpeed() throws Exception {
+        // Given
+        Path file = tempDir.resolve("session.jsonl");
+        MarketDataProvider live = mock(MarketDataProvider.class);
+        when(live.getName()).thenReturn("live");
+        when(live.getQuote("AAPL", QuotePriority.BACKGROUND)).thenReturn(quote(15025, 5_000L), quote(15175, 5_020L));
+
+        try (RecordingMarketDataProvider recorder = new RecordingMarketDataProvider(live, file)) {
+            recorder.getQuote("AAPL", QuotePriority.BACKGROUND);
+            recorder.getQuote("AAPL", QuotePriority.BACKGROUND);
+        }
+        assertEquals(2, Files.readAllLines(file).size());
+
+        AtomicLong clock = new AtomicLong(1_000_000L);
+        ReplayMarketDataProvider replay = new ReplayMarketDataProvider(file, 10.0, false, clock::get);
+
+        // When & Then
+        assertEquals(15025L, replay.getQuote("AAPL", QuotePriority.INTERACTIVE).getCurrentPrice());
+
+        // 1 s of wall time covers 10 s of the recorded session at 10x
+        clock.addAndGet(1000);
+        Quote replayed = replay.getQuote("AAPL", QuotePriority.INTERACTIVE);
+        assertEquals(15175L, replayed.getCurrentPrice());
+        assertEquals(1_001_000L, replayed.getAsOf());
+    }
+
+    @Test
+    void testReplay_UnknownSymbolIsUnavailable() throws Exception {
+        // Given
+        Path file = tempDir.resolve("empty.jsonl");
+        Files.createFile(file);
+        ReplayMarketDataProvider replay = new ReplayMarketDataProvider(file, 1.0, true);
+
+        // When & Then
+        assertThrows(MarketDataUnavailableException.class, () -> replay.getQuote("AAPL", QuotePriority.INTERACTIVE));
+    }
+
+    private Quote quote(long priceCents, long asOf) {
+        return new Quote("AAPL", priceCents, 0, 0, priceCents, priceCents, priceCents, priceCents, asOf, false);
+    }
+}
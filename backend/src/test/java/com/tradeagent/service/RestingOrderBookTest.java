@@ -0,0 +1,362 @@
+package com.tradeagent.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.client.result.UpdateResult;
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.RestingOrder;
+import com.tradeagent.model.RestingOrderStatus;
+import com.tradeagent.model.RestingOrderType;
+import com.tradeagent.model.Stock;
+import com.tradeagent.model.Transaction;
+import com.tradeagent.model.TransactionType;
+import com.tradeagent.model.User;
+import com.tradeagent.repository.RestingOrderRepository;
+import com.tradeagent.repository.TransactionRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RestingOrderBookTest {
+
+    @Mock
+    private OrderSequencer orderSequencer;
+
+    @Mock
+    private OrderExecutionPipeline orderExecutionPipeline;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private PriceBook priceBook;
+
+    @Mock
+    private RestingOrderRepository restingOrderRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private RestingOrderBook restingOrderBook;
+
+    private final AtomicInteger ids = new AtomicInteger();
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(restingOrderBook, "maxPerUser", 100);
+        ReflectionTestUtils.setField(restingOrderBook, "maxQuantity", 1000000);
+        restingOrderBook.init();
+
+        user = new User();
+        user.setId("user-1");
+        lenient().when(userService.findById("user-1")).thenReturn(Optional.of(user));
+        lenient().when(stockService.getInstrument(anyString())).thenReturn(Optional.of(new Stock()));
+        lenient().when(restingOrderRepository.save(any(RestingOrder.class))).thenAnswer(invocation -> {
+            RestingOrder order = invocation.getArgument(0);
+            order.setId("order-" + ids.incrementAndGet());
+            return order;
+        });
+        lenient().when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(RestingOrder.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        // Queued but never run unless a test runs the lanes
+        lenient().when(orderSequencer.trySubmit(anyString(), any())).thenReturn(new CompletableFuture<>());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        restingOrderBook.shutdown();
+    }
+
+    @Test
+    void testOnQuote_BuyLimitsFireOnlyOnceThePriceFallsToThem() {
+        // Given
+        runLanesInline();
+        when(orderExecutionPipeline.execute(any(), anyString(), any(), anyInt(), any(), anyString()))
+                .thenReturn(transaction("100.00"));
+        RestingOrder first = place(TransactionType.BUY, RestingOrderType.LIMIT, "100.00", null);
+        place(TransactionType.BUY, RestingOrderType.LIMIT, "95.00", null);
+        place(TransactionType.BUY, RestingOrderType.LIMIT, "90.00", null);
+
+        // When
+        restingOrderBook.onQuote(quote(10100));
+        restingOrderBook.onQuote(quote(9600));
+
+        // Then
+        verify(orderExecutionPipeline, times(1)).execute(any(), anyString(), any(), anyInt(), any(), anyString());
+        verify(orderExecutionPipeline).execute(user, "AAPL", TransactionType.BUY, 10, new BigDecimal("100.00"),
+                first.getId());
+        assertEquals(2, restingOrderBook.getStats().get("openOrders"));
+    }
+
+    @Test
+    void testOnQuote_SellStopExecutesAtMarketWhenPriceFalls() {
+        // Given
+        runLanesInline();
+        when(orderExecutionPipeline.execute(any(), anyString(), any(), anyInt(), any(), anyString()))
+                .thenReturn(transaction("89.50"));
+        place(TransactionType.SELL, RestingOrderType.STOP, null, "90.00");
+        place(TransactionType.BUY, RestingOrderType.STOP, null, "110.00");
+
+        // When
+        restingOrderBook.onQuote(quote(8950));
+
+        // Then
+        verify(orderExecutionPipeline, times(1)).execute(any(), anyString(), any(), anyInt(), any(), anyString());
+        verify(orderExecutionPipeline).execute(eq(user), eq("AAPL"), eq(TransactionType.SELL), eq(10), isNull(),
+                anyString());
+    }
+
+    @Test
+    void testOnQuote_StopLimitRestsAsLimitOnceStopped() {
+        // Given
+        RestingOrder order = place(TransactionType.BUY, RestingOrderType.STOP_LIMIT, "104.00", "105.00");
+
+        // When
+        restingOrderBook.onQuote(quote(10550));
+
+        // Then
+        verify(orderSequencer, never()).trySubmit(anyString(), any());
+        assertEquals(RestingOrderStatus.TRIGGERED, order.getStatus());
+        verify(mongoTemplate, timeout(1000)).updateFirst(any(Query.class), any(Update.class), eq(RestingOrder.class));
+
+        // When
+        runLanesInline();
+        when(orderExecutionPipeline.execute(any(), anyString(), any(), anyInt(), any(), anyString()))
+                .thenReturn(transaction("104.00"));
+        restingOrderBook.onQuote(quote(10400));
+
+        // Then
+        verify(orderExecutionPipeline).execute(user, "AAPL", TransactionType.BUY, 10, new BigDecimal("104.00"),
+                order.getId());
+    }
+
+    @Test
+    void testOnQuote_LimitNotMetReleasesTheClaimAndReturnsOrderToTheBook() {
+        // Given
+        runLanesInline();
+        when(orderExecutionPipeline.execute(any(), anyString(), any(), anyInt(), any(), anyString()))
+                .thenThrow(new LimitPriceNotMetException("moved"));
+        RestingOrder order = place(TransactionType.SELL, RestingOrderType.LIMIT, "120.00", null);
+
+        // When
+        restingOrderBook.onQuote(quote(12000));
+        restingOrderBook.onQuote(quote(12100));
+
+        // Then
+        verify(orderExecutionPipeline, times(2)).execute(any(), anyString(), any(), anyInt(), any(), anyString());
+        // A claim and a release per attempt
+        verify(mongoTemplate, times(4)).updateFirst(any(Query.class), any(Update.class), eq(RestingOrder.class));
+        assertEquals(RestingOrderStatus.OPEN, order.getStatus());
+        assertEquals(2L, restingOrderBook.getStats().get("requeued"));
+    }
+
+    @Test
+    void testOnQuote_FullLaneReturnsOrderToTheBook() {
+        // Given
+        when(orderSequencer.trySubmit(anyString(), any()))
+                .thenThrow(new OrderQueueFullException("Too many pending orders; please retry shortly"));
+        RestingOrder order = place(TransactionType.BUY, RestingOrderType.LIMIT, "100.00", null);
+
+        // When
+        restingOrderBook.onQuote(quote(9900));
+        restingOrderBook.onQuote(quote(9800));
+
+        // Then
+        verify(orderSequencer, times(2)).trySubmit(anyString(), any());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(RestingOrder.class));
+        assertEquals(RestingOrderStatus.OPEN, order.getStatus());
+        assertEquals(1, restingOrderBook.getStats().get("openOrders"));
+    }
+
+    @Test
+    void testOnQuote_FilledOrderIsRecordedOnTheLane() {
+        // Given
+        runLanesInline();
+        when(orderExecutionPipeline.execute(any(), anyString(), any(), anyInt(), any(), anyString()))
+                .thenReturn(transaction("99.50"));
+        RestingOrder order = place(TransactionType.BUY, RestingOrderType.LIMIT, "100.00", null);
+
+        // When
+        restingOrderBook.onQuote(quote(9950));
+        restingOrderBook.onQuote(quote(9900));
+
+        // Then
+        verify(orderExecutionPipeline, times(1)).execute(any(), anyString(), any(), anyInt(), any(), anyString());
+        assertEquals(RestingOrderStatus.FILLED, order.getStatus());
+        assertEquals("tx-1", order.getTransactionId());
+        assertEquals(0, restingOrderBook.getStats().get("openOrders"));
+        // The claim and the fill, both written before the lane finished
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq(RestingOrder.class));
+    }
+
+    @Test
+    void testOnQuote_OrderNoLongerActiveInStorageIsNotExecuted() {
+        // Given
+        runLanesInline();
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(RestingOrder.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        place(TransactionType.BUY, RestingOrderType.LIMIT, "100.00", null);
+
+        // When
+        restingOrderBook.onQuote(quote(9900));
+
+        // Then
+        verify(orderExecutionPipeline, never()).execute(any(), anyString(), any(), anyInt(), any(), anyString());
+        assertEquals(0, restingOrderBook.getStats().get("openOrders"));
+        assertEquals(1L, restingOrderBook.getStats().get("abandoned"));
+    }
+
+    @Test
+    void testOnQuote_RejectedOrderKeepsItsReason() {
+        // Given
+        runLanesInline();
+        when(orderExecutionPipeline.execute(any(), anyString(), any(), anyInt(), any(), anyString()))
+                .thenThrow(new RuntimeException("Insufficient balance for this transaction"));
+        RestingOrder order = place(TransactionType.BUY, RestingOrderType.LIMIT, "100.00", null);
+
+        // When
+        restingOrderBook.onQuote(quote(9900));
+
+        // Then
+        assertEquals(RestingOrderStatus.REJECTED, order.getStatus());
+        assertEquals("Insufficient balance for this transaction", order.getReason());
+        assertEquals(0, restingOrderBook.getStats().get("openOrders"));
+    }
+
+    @Test
+    void testCancel_RemovesOrderFromTheBook() {
+        // Given
+        RestingOrder order = place(TransactionType.BUY, RestingOrderType.LIMIT, "100.00", null);
+
+        // When
+        RestingOrder cancelled = restingOrderBook.cancel(user, order.getId());
+        restingOrderBook.onQuote(quote(9000));
+
+        // Then
+        assertEquals(RestingOrderStatus.CANCELLED, cancelled.getStatus());
+        verify(orderSequencer, never()).trySubmit(anyString(), any());
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(RestingOrder.class));
+        assertThrows(RuntimeException.class, () -> restingOrderBook.cancel(user, order.getId()));
+    }
+
+    @Test
+    void testPlace_RejectsMissingLimitPrice() {
+        // When / Then
+        assertThrows(RuntimeException.class, () -> restingOrderBook.place(user, "AAPL", TransactionType.BUY,
+                RestingOrderType.STOP_LIMIT, 10, null, new BigDecimal("105.00")));
+        verify(restingOrderRepository, never()).save(any(RestingOrder.class));
+    }
+
+    @Test
+    void testRecover_RestsStoredOrders() {
+        // Given
+        runLanesInline();
+        when(orderExecutionPipeline.execute(any(), anyString(), any(), anyInt(), any(), anyString()))
+                .thenReturn(transaction("95.50"));
+        RestingOrder stored = stored("order-7", RestingOrderType.STOP_LIMIT, RestingOrderStatus.TRIGGERED);
+        when(restingOrderRepository.findByStatusIn(any())).thenReturn(List.of(stored));
+
+        // When
+        restingOrderBook.recover();
+        restingOrderBook.onQuote(quote(9550));
+
+        // Then
+        verify(orderExecutionPipeline).execute(user, "AAPL", TransactionType.SELL, 5, new BigDecimal("95.00"),
+                "order-7");
+    }
+
+    @Test
+    void testRecover_ReconcilesExecutingOrdersAgainstTheJournal() {
+        // Given
+        RestingOrder filled = stored("order-8", RestingOrderType.LIMIT, RestingOrderStatus.EXECUTING);
+        RestingOrder interrupted = stored("order-9", RestingOrderType.STOP_LIMIT, RestingOrderStatus.EXECUTING);
+        when(restingOrderRepository.findByStatusIn(any())).thenReturn(List.of(filled, interrupted));
+        when(transactionRepository.findByRestingOrderId("order-8")).thenReturn(Optional.of(transaction("95.00")));
+        when(transactionRepository.findByRestingOrderId("order-9")).thenReturn(Optional.empty());
+
+        // When
+        restingOrderBook.recover();
+
+        // Then
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq(RestingOrder.class));
+        assertEquals(RestingOrderStatus.TRIGGERED, interrupted.getStatus());
+        assertEquals(1, restingOrderBook.getStats().get("openOrders"));
+        assertEquals(2L, restingOrderBook.getStats().get("reconciled"));
+    }
+
+    /**
+     * Run lane work on the calling thread, completing its future with the outcome
+     */
+    private void runLanesInline() {
+        when(orderSequencer.trySubmit(anyString(), any())).thenAnswer(invocation -> {
+            Supplier<?> work = invocation.getArgument(1);
+            try {
+                return CompletableFuture.completedFuture(work.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+
+    private RestingOrder place(TransactionType side, RestingOrderType type, String limitPrice, String stopPrice) {
+        return restingOrderBook.place(user, "AAPL", side, type, 10,
+                limitPrice != null ? new BigDecimal(limitPrice) : null,
+                stopPrice != null ? new BigDecimal(stopPrice) : null);
+    }
+
+    private RestingOrder stored(String id, RestingOrderType type, RestingOrderStatus status) {
+        RestingOrder order = new RestingOrder("user-1", "AAPL", TransactionType.SELL, type, 5,
+                new BigDecimal("95.00"), type == RestingOrderType.STOP_LIMIT ? new BigDecimal("96.00") : null);
+        order.setId(id);
+        order.setStatus(status);
+        return order;
+    }
+
+    private Transaction transaction(String price) {
+        Transaction transaction = new Transaction(user, "AAPL", "Apple", TransactionType.BUY, 10, new BigDecimal(price));
+        transaction.setId("tx-1");
+        return transaction;
+    }
+
+    private Quote quote(long priceCents) {
+        return new Quote("AAPL", priceCents, 0, 0, priceCents, priceCents, priceCents, priceCents,
+                System.currentTimeMillis(), false);
+    }
+}
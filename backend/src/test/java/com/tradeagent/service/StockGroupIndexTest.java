@@ -0,0 +1,103 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.Stock;
+
+class StockGroupIndexTest {
+
+    private PriceBook priceBook;
+    private StockGroupIndex stockGroupIndex;
+
+    @BeforeEach
+    void setUp() {
+        priceBook = new PriceBook(1024);
+        stockGroupIndex = new StockGroupIndex();
+        ReflectionTestUtils.setField(stockGroupIndex, "priceBook", priceBook);
+        stockGroupIndex.init();
+        stockGroupIndex.index(stock("AAPL", "Technology", "Consumer Electronics"));
+        stockGroupIndex.index(stock("MSFT", "Technology", "Software"));
+        stockGroupIndex.index(stock("JPM", "Financial Services", "Banks"));
+    }
+
+    @Test
+    void testOnQuote_MaintainsSectorAggregates() {
+        // Given
+        priceBook.update("AAPL", quote("AAPL", 10000, 200, 1000L));
+        priceBook.update("MSFT", quote("MSFT", 20000, -100, 1000L));
+
+        // When
+        priceBook.update("AAPL", quote("AAPL", 11000, 1000, 2000L));
+        Map<String, Object> summary = stockGroupIndex.getSectorSummary("Technology");
+
+        // Then
+        assertEquals(2, summary.get("stocks"));
+        assertEquals(2, summary.get("priced"));
+        assertEquals(1, summary.get("advancers"));
+        assertEquals(1, summary.get("decliners"));
+        assertEquals(new BigDecimal("4.50"), summary.get("averageChangePercent"));
+        assertEquals(new BigDecimal("105.00"), summary.get("indexLevel"));
+    }
+
+    @Test
+    void testIndex_MovesStockBetweenGroups() {
+        // Given
+        priceBook.update("JPM", quote("JPM", 15000, 300, 1000L));
+
+        // When
+        stockGroupIndex.index(stock("JPM", "Technology", "Software"));
+
+        // Then
+        assertEquals(0, stockGroupIndex.getSectorSummary("Financial Services").get("priced"));
+        assertEquals(1, stockGroupIndex.getSectorSummary("Technology").get("advancers"));
+        assertEquals(List.of("JPM", "MSFT"), stockGroupIndex.getIndustryStocks("Software").stream()
+                .map(Stock::getSymbol).toList());
+    }
+
+    @Test
+    void testGetSectorStocks_AppliesLivePrices() {
+        // Given
+        priceBook.update("JPM", quote("JPM", 15000, 300, 1000L));
+
+        // When
+        List<Stock> stocks = stockGroupIndex.getSectorStocks("Financial Services");
+
+        // Then
+        assertEquals(1, stocks.size());
+        assertEquals(new BigDecimal("150.00"), stocks.get(0).getCurrentPrice());
+    }
+
+    @Test
+    void testGetVersion_MovesOnlyForListedStocks() {
+        // Given
+        long before = stockGroupIndex.getVersion();
+
+        // When
+        priceBook.update("ZZZZ", quote("ZZZZ", 5000, 100, 1000L));
+        long afterUnlisted = stockGroupIndex.getVersion();
+        priceBook.update("AAPL", quote("AAPL", 10000, 200, 1000L));
+
+        // Then
+        assertEquals(before, afterUnlisted);
+        assertEquals(before + 1, stockGroupIndex.getVersion());
+        assertEquals(List.of("AAPL", "JPM", "MSFT"), stockGroupIndex.getStocks().stream()
+                .map(Stock::getSymbol).toList());
+    }
+
+    private Stock stock(String symbol, String sector, String industry) {
+        return new Stock(symbol, symbol + " Inc.", BigDecimal.TEN, BigDecimal.TEN, sector, industry);
+    }
+
+    private Quote quote(String symbol, long priceCents, long changePercent, long asOf) {
+        return new Quote(symbol, priceCents, 0, changePercent, priceCents, priceCents, priceCents, priceCents,
+                asOf, false);
+    }
+}
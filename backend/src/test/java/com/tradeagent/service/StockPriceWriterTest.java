@@ -0,0 +1,98 @@
+package com.tradeagent.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.Stock;
+
+@ExtendWith(MockitoExtension.class)
+class StockPriceWriterTest {
+
+    @Mock
+    private StockGroupIndex stockGroupIndex;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @InjectMocks
+    private StockPriceWriter stockPriceWriter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(stockPriceWriter, "enabled", true);
+        ReflectionTestUtils.setField(stockPriceWriter, "flushBatchSize", 1000);
+    }
+
+    @Test
+    void testFlush_CoalescesTicksIntoOneUnorderedBulk() {
+        // Given
+        when(stockGroupIndex.isListed(any())).thenReturn(true);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Stock.class)).thenReturn(bulkOperations);
+        stockPriceWriter.onQuote(quote("AAPL", 15000, 1000L));
+        stockPriceWriter.onQuote(quote("AAPL", 15100, 2000L));
+        stockPriceWriter.onQuote(quote("MSFT", 30000, 1000L));
+
+        // When
+        stockPriceWriter.flush();
+
+        // Then
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(1)).execute();
+        assertEquals(1L, stockPriceWriter.getStats().get("coalesced"));
+        assertEquals(2L, stockPriceWriter.getStats().get("written"));
+        assertEquals(0, stockPriceWriter.getStats().get("pending"));
+    }
+
+    @Test
+    void testFlush_KeepsBatchWhenWriteFails() {
+        // Given
+        when(stockGroupIndex.isListed("AAPL")).thenReturn(true);
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Stock.class)))
+                .thenThrow(new RuntimeException("down"));
+        stockPriceWriter.onQuote(quote("AAPL", 15000, 1000L));
+
+        // When
+        stockPriceWriter.flush();
+
+        // Then
+        assertEquals(1, stockPriceWriter.getStats().get("pending"));
+        assertEquals(1L, stockPriceWriter.getStats().get("flushFailures"));
+    }
+
+    @Test
+    void testOnQuote_IgnoresUnlistedSymbols() {
+        // Given
+        when(stockGroupIndex.isListed("SYN1")).thenReturn(false);
+        stockPriceWriter.onQuote(quote("SYN1", 1000, 1000L));
+
+        // When
+        stockPriceWriter.flush();
+
+        // Then
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Stock.class));
+    }
+
+    private Quote quote(String symbol, long priceCents, long asOf) {
+        return new Quote(symbol, priceCents, 0, 0, priceCents, priceCents, priceCents, priceCents, asOf, false);
+    }
+}
@@ -0,0 +1,90 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tradeagent.model.Stock;
+import com.tradeagent.service.StockSearchIndex.SearchResult;
+
+class StockSearchIndexTest {
+
+    private StockSearchIndex stockSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        stockSearchIndex = new StockSearchIndex();
+        stockSearchIndex.index(stock("AAPL", "Apple Inc.", "Consumer electronics and software"));
+        stockSearchIndex.index(stock("AMD", "Advanced Micro Devices Inc.", "Semiconductors for computing"));
+        stockSearchIndex.index(stock("A", "Agilent Technologies Inc.", "Life sciences instruments"));
+        stockSearchIndex.index(stock("MSFT", "Microsoft Corporation", "Cloud computing and software"));
+    }
+
+    @Test
+    void testSearch_ExactSymbolRanksFirstThenShorterPrefixes() {
+        // When
+        List<SearchResult> results = stockSearchIndex.search("a", 10);
+
+        // Then
+        assertEquals(List.of("A", "AMD", "AAPL"), symbols(results));
+    }
+
+    @Test
+    void testSearch_WholeWordRanksAboveWordPrefix() {
+        // When
+        List<SearchResult> results = stockSearchIndex.search("micro", 10);
+
+        // Then
+        assertEquals(List.of("AMD", "MSFT"), symbols(results));
+    }
+
+    @Test
+    void testSearch_RequiresEveryToken() {
+        // When
+        List<SearchResult> results = stockSearchIndex.search("cloud soft", 10);
+
+        // Then
+        assertEquals(List.of("MSFT"), symbols(results));
+    }
+
+    @Test
+    void testIndex_ReplacesPreviousTokens() {
+        // Given
+        stockSearchIndex.index(stock("AAPL", "Apple Inc.", "Wearables"));
+
+        // When
+        List<SearchResult> software = stockSearchIndex.search("software", 10);
+        List<SearchResult> wearables = stockSearchIndex.search("wearables", 10);
+
+        // Then
+        assertEquals(List.of("MSFT"), symbols(software));
+        assertEquals(List.of("AAPL"), symbols(wearables));
+    }
+
+    @Test
+    void testRemove_DropsSymbolAndTokens() {
+        // Given
+        stockSearchIndex.remove("MSFT");
+
+        // When
+        List<SearchResult> results = stockSearchIndex.search("ms", 10);
+
+        // Then
+        assertTrue(results.isEmpty());
+        assertTrue(stockSearchIndex.search("cloud", 10).isEmpty());
+    }
+
+    private List<String> symbols(List<SearchResult> results) {
+        return results.stream().map(SearchResult::getSymbol).toList();
+    }
+
+    private Stock stock(String symbol, String companyName, String description) {
+        Stock stock = new Stock(symbol, companyName, BigDecimal.TEN, BigDecimal.TEN, "Technology", "Software");
+        stock.setDescription(description);
+        return stock;
+    }
+}
@@ -0,0 +1,65 @@
+package com.tradeagent.service;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tradeagent.model.Stock;
+import com.tradeagent.service.StockSnapshotCache.Snapshot;
+
+@ExtendWith(MockitoExtension.class)
+class StockSnapshotCacheTest {
+
+    @Mock
+    private StockService stockService;
+
+    private StockSnapshotCache stockSnapshotCache;
+
+    @BeforeEach
+    void setUp() {
+        stockSnapshotCache = new StockSnapshotCache();
+        ReflectionTestUtils.setField(stockSnapshotCache, "stockService", stockService);
+        ReflectionTestUtils.setField(stockSnapshotCache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(stockSnapshotCache, "gzipEnabled", true);
+    }
+
+    @Test
+    void testGetListing_RebuiltOnlyWhenETagMoves() throws Exception {
+        // Given
+        Stock apple = new Stock("AAPL", "Apple Inc.", new BigDecimal("150.00"), new BigDecimal("148.00"),
+                "Technology", "Consumer Electronics");
+        when(stockService.getListingETag()).thenReturn("1-1-1", "1-1-1", "1-1-1", "1-1-2", "1-1-2");
+        when(stockService.getListedStocks()).thenReturn(List.of(apple));
+
+        // When
+        Snapshot first = stockSnapshotCache.getListing();
+        Snapshot second = stockSnapshotCache.getListing();
+        Snapshot third = stockSnapshotCache.getListing();
+
+        // Then
+        assertSame(first, second);
+        assertEquals("1-1-2", third.getEtag());
+        verify(stockService, times(2)).getListedStocks();
+        assertTrue(new String(first.getJson(), StandardCharsets.UTF_8).contains("\"symbol\":\"AAPL\""));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.getGzip()))) {
+            assertArrayEquals(first.getJson(), gzip.readAllBytes());
+        }
+    }
+}
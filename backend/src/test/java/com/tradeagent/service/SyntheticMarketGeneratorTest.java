@@ -0,0 +1,54 @@
+package com.tradeagent.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.tradeagent.model.Quote;
+import com.tradeagent.model.Stock;
+
+class SyntheticMarketGeneratorTest {
+
+    private SyntheticMarketGenerator generator;
+    private PriceBook priceBook;
+
+    @BeforeEach
+    void setUp() {
+        priceBook = new PriceBook(1024);
+        generator = new SyntheticMarketGenerator();
+        ReflectionTestUtils.setField(generator, "priceBook", priceBook);
+        ReflectionTestUtils.setField(generator, "symbolCount", 100);
+        ReflectionTestUtils.setField(generator, "ticksPerSecond", 10.0);
+        ReflectionTestUtils.setField(generator, "correlation", 0.3);
+        ReflectionTestUtils.setField(generator, "seed", 7L);
+    }
+
+    @Test
+    void testTick_PublishesEverySymbolToPriceBook() {
+        // Given
+        Stock listed = new Stock();
+        listed.setSymbol("AAPL");
+        listed.setCurrentPrice(new BigDecimal("150.00"));
+        generator.initUniverse(List.of(listed));
+
+        // When
+        generator.tick(Long.MAX_VALUE);
+        generator.tick(Long.MAX_VALUE);
+
+        // Then
+        assertEquals(101, priceBook.getSymbols().size());
+        assertTrue(priceBook.getSymbols().contains("SYN001"));
+        assertTrue(priceBook.getSymbols().contains("SYN100"));
+
+        Quote quote = priceBook.getQuote("AAPL");
+        assertNotNull(quote);
+        assertEquals(15000L, quote.getPreviousClose());
+        assertTrue(quote.getCurrentPrice() > 14000 && quote.getCurrentPrice() < 16000);
+    }
+}
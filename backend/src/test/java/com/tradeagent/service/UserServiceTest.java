@@ -13,12 +13,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.tradeagent.model.Role;
@@ -34,6 +39,9 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
     @InjectMocks
     private UserService userService;
 
@@ -134,4 +142,35 @@ class UserServiceTest {
         assertTrue(userService.hasSufficientBalance(testUser, BigDecimal.valueOf(1000)));
         assertFalse(userService.hasSufficientBalance(testUser, BigDecimal.valueOf(1500)));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testDeductBalance_AppliesStoredPostImage() {
+        // Given
+        User stored = new User();
+        stored.setBalance(BigDecimal.valueOf(9500));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(User.class))).thenReturn(stored);
+
+        // When
+        userService.deductBalance(testUser, BigDecimal.valueOf(500));
+
+        // Then
+        assertEquals(BigDecimal.valueOf(9500), testUser.getBalance());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testDeductBalance_RejectedWhenConditionFails() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(User.class))).thenReturn(null);
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> userService.deductBalance(testUser, BigDecimal.valueOf(50000)));
+
+        // Then
+        assertEquals("Insufficient balance", exception.getMessage());
+        assertEquals(BigDecimal.valueOf(10000), testUser.getBalance());
+    }
+}
@@ -14,9 +14,52 @@ const Trading = () => {
 
   useEffect(() => {
     fetchStocks();
-    // Refresh stock data every 30 seconds for real-time updates
-    const interval = setInterval(fetchStocks, 30000);
-    return () => clearInterval(interval);
+    // Live price changes are pushed by the server. Stream tickets are single-use, so a dropped stream is
+    // reopened with a fresh ticket rather than left to EventSource's own reconnect.
+    let stream = null;
+    let retryTimer = null;
+    let closed = false;
+
+    const openStream = async () => {
+      try {
+        const token = localStorage.getItem('token');
+        const response = await axios.post('/api/stocks/stream/ticket', null, {
+          headers: { Authorization: `Bearer ${token}` }
+        });
+        if (closed) {
+          return;
+        }
+        stream = new EventSource(`/api/stocks/stream?ticket=${encodeURIComponent(response.data.ticket)}`);
+        stream.addEventListener('price', (event) => {
+          const update = JSON.parse(event.data);
+          setStocks((current) => current.map((stock) =>
+            stock.symbol === update.symbol ? { ...stock, ...update } : stock
+          ));
+        });
+        stream.onerror = () => {
+          stream.close();
+          scheduleReconnect();
+        };
+      } catch (error) {
+        console.error('Price stream ticket error:', error);
+        scheduleReconnect();
+      }
+    };
+
+    const scheduleReconnect = () => {
+      if (!closed) {
+        retryTimer = setTimeout(openStream, 3000);
+      }
+    };
+
+    openStream();
+    return () => {
+      closed = true;
+      clearTimeout(retryTimer);
+      if (stream) {
+        stream.close();
+      }
+    };
   }, []);
 
   const fetchStocks = async () => {